@@ -11,6 +11,10 @@ repositories {
     mavenCentral()
 }
 
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-gradle-intellij-plugin.html
 intellij {
@@ -35,6 +39,24 @@ tasks {
         untilBuild.set("243.*")
     }
 
+    // Performance regression benchmark, fails when a scenario regresses past the threshold against the baseline
+    // or has no baseline.
+    // Record a new baseline with `./gradlew benchmark -PrecordBenchmark`.
+    register<org.jetbrains.intellij.tasks.RunIdeTask>("benchmark") {
+        group = "verification"
+        description = "Runs the inspection, quick fix and generator benchmarks against benchmark/baseline.properties"
+        val threshold = project.findProperty("benchmarkThreshold") ?: "1.25"
+        args = listOfNotNull(
+            "devEfficiencyBenchmark",
+            rootDir.absolutePath,
+            layout.buildDirectory.file("benchmark/results.properties").get().asFile.absolutePath,
+            "--baseline=" + rootDir.resolve("benchmark/baseline.properties").absolutePath,
+            "--threshold=$threshold",
+            if (project.hasProperty("recordBenchmark")) "--record" else null,
+        )
+        jvmArgs("-Djava.awt.headless=true")
+    }
+
     signPlugin {
         certificateChain.set(System.getenv("CERTIFICATE_CHAIN"))
         privateKey.set(System.getenv("PRIVATE_KEY"))
@@ -0,0 +1,149 @@
+package com.mikan.intellij.plugin.action;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.mikan.intellij.plugin.index.FieldInjectionIndex;
+import com.mikan.intellij.plugin.index.FieldInjectionSite;
+import com.mikan.intellij.plugin.inspection.BeanDependencyCycleInspection;
+import com.mikan.intellij.plugin.inspection.BeanDependencyGraph;
+import com.mikan.intellij.plugin.inspection.FieldInjectionInspection;
+import com.mikan.intellij.plugin.inspection.FieldInjectionQuickFix;
+import com.mikan.intellij.plugin.inspection.InjectionAnnotationMatcher;
+import com.mikan.intellij.plugin.inspection.InspectionBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Convert all field injection in the production sources of the project to constructor injection.
+ * <p>
+ * Sites are looked up in {@link FieldInjectionIndex}, only files that contain hits are loaded. Bean dependency
+ * cycles through field injection are shown in the confirmation, they fail at startup after the conversion.
+ */
+public class ConvertFieldInjectionInProjectAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        if (DumbService.isDumb(project)) {
+            DumbService.getInstance(project)
+                .showDumbModeNotification(InspectionBundle.message("action.convert.field.injection.dumb"));
+            return;
+        }
+
+        GlobalSearchScope scope = GlobalSearchScopesCore.projectProductionScope(project);
+        String title = InspectionBundle.message("action.convert.field.injection.title");
+
+        // 1. 通过索引统计，不加载 PSI
+        IndexResult indexResult = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            (ThrowableComputable<IndexResult, RuntimeException>)() -> ReadAction.compute(() -> {
+                Set<String> shortNames = FieldInjectionInspection.getInjectionShortNames(project);
+                // 经过字段注入的依赖环在转换后启动会失败，先提示
+                List<String> cycles = BeanDependencyGraph.getInstance(project).getCycles().stream()
+                    .filter(BeanDependencyGraph.Cycle::fieldInjection)
+                    .map(BeanDependencyCycleInspection::toString)
+                    .toList();
+                return new IndexResult(shortNames, FieldInjectionIndex.getFiles(shortNames, scope),
+                    FieldInjectionIndex.countSites(shortNames, scope), cycles);
+            }),
+            title, true, project);
+        if (indexResult.siteCount() == 0) {
+            Messages.showInfoMessage(project, InspectionBundle.message("action.convert.field.injection.none"), title);
+            return;
+        }
+
+        String message = InspectionBundle.message("action.convert.field.injection.confirm",
+            indexResult.siteCount(), indexResult.files().size());
+        if (!indexResult.cycles().isEmpty()) {
+            message += InspectionBundle.message("action.convert.field.injection.cycles", indexResult.cycles().size(),
+                indexResult.cycles().get(0));
+        }
+        int answer = Messages.showYesNoDialog(project, message, title,
+            indexResult.cycles().isEmpty() ? Messages.getQuestionIcon() : Messages.getWarningIcon());
+        if (answer != Messages.YES) {
+            return;
+        }
+
+        // 2. 只加载有命中的文件，找到需要转换的类
+        new Task.Backgroundable(project, title, true) {
+
+            private final Set<SmartPsiElementPointer<PsiClass>> classPointers = new LinkedHashSet<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                List<VirtualFile> files = List.copyOf(indexResult.files());
+                for (int i = 0; i < files.size(); i++) {
+                    indicator.checkCanceled();
+                    indicator.setFraction((double)i / files.size());
+                    VirtualFile file = files.get(i);
+                    ReadAction.run(() -> this.collectClasses(file));
+                }
+            }
+
+            private void collectClasses(VirtualFile file) {
+                PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+                if (psiFile == null) {
+                    return;
+                }
+
+                Set<PsiClass> classes = new LinkedHashSet<>();
+                InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.getInstance(psiFile);
+                for (FieldInjectionSite site : FieldInjectionIndex.getSites(indexResult.shortNames(), file, scope)) {
+                    PsiField field = PsiTreeUtil.getParentOfType(psiFile.findElementAt(site.offset()),
+                        PsiField.class, false);
+                    // 索引只记录短名，这里再用限定名确认一次
+                    if (field != null && field.getContainingClass() != null
+                        && matcher.isFieldInjection(field)
+                        && classes.add(field.getContainingClass())) {
+                        this.classPointers.add(SmartPointerManager.createPointer(field.getContainingClass()));
+                    }
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                // 3. 批量转换
+                new FieldInjectionQuickFix().convertClasses(project, this.classPointers, null);
+            }
+        }.queue();
+    }
+
+    private record IndexResult(Set<String> shortNames, Set<VirtualFile> files, int siteCount, List<String> cycles) {
+    }
+
+}
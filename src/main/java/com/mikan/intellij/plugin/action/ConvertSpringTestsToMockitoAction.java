@@ -0,0 +1,116 @@
+package com.mikan.intellij.plugin.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.mikan.intellij.plugin.inspection.InspectionBundle;
+import com.mikan.intellij.plugin.inspection.SpringTestContexts;
+import com.mikan.intellij.plugin.intention.SpringTestConversion;
+import com.mikan.intellij.plugin.intention.SpringTestConverter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Convert all Spring test classes of the project that test one bean with mock beans into Mockito unit tests.
+ * <p>
+ * The test classes are taken from the contexts of {@link SpringTestContexts}, so only classes starting a context are
+ * loaded. A context is no longer started when all of its test classes are converted, the confirmation shows how many.
+ */
+public class ConvertSpringTestsToMockitoAction extends AnAction {
+
+    private final SpringTestConverter converter = new SpringTestConverter();
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        if (DumbService.isDumb(project)) {
+            DumbService.getInstance(project)
+                .showDumbModeNotification(InspectionBundle.message("action.convert.spring.tests.dumb"));
+            return;
+        }
+
+        String title = InspectionBundle.message("action.convert.spring.tests.title");
+
+        // 1. 按 context 分组检查测试类，context 的测试类都能转换时不再启动
+        PlanResult planResult = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            (ThrowableComputable<PlanResult, RuntimeException>)() -> ReadAction.compute(() -> this.plan(project)),
+            title, true, project);
+        if (planResult.testClasses().isEmpty()) {
+            Messages.showInfoMessage(project, InspectionBundle.message("action.convert.spring.tests.none"), title);
+            return;
+        }
+
+        String message = InspectionBundle.message("action.convert.spring.tests.confirm",
+            planResult.testClasses().size(), planResult.removedContexts(), planResult.contextCount());
+        if (Messages.showYesNoDialog(project, message, title, Messages.getQuestionIcon()) != Messages.YES) {
+            return;
+        }
+
+        // 2. 在一个写命令中转换，可以一次撤销，转换前重新检查
+        WriteCommandAction.writeCommandAction(project).withName(title).run(() -> {
+            for (SmartPsiElementPointer<PsiClass> pointer : planResult.testClasses()) {
+                PsiClass testClass = pointer.getElement();
+                SpringTestConversion conversion = testClass == null ? null : this.converter.plan(testClass);
+                if (conversion != null) {
+                    this.converter.apply(conversion, testClass);
+                }
+            }
+        });
+    }
+
+    private PlanResult plan(Project project) {
+        GlobalSearchScope scope = GlobalSearchScopesCore.projectTestScope(project);
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        List<SpringTestContexts.Context> contexts = SpringTestContexts.getInstance(project).getContexts();
+        List<SmartPsiElementPointer<PsiClass>> testClasses = new ArrayList<>();
+        int removedContexts = 0;
+        for (SpringTestContexts.Context context : contexts) {
+            int converted = 0;
+            for (String testClassName : context.testClasses()) {
+                ProgressManager.checkCanceled();
+                PsiClass testClass = facade.findClass(testClassName, scope);
+                if (testClass != null && this.converter.plan(testClass) != null) {
+                    testClasses.add(SmartPointerManager.createPointer(testClass));
+                    converted++;
+                }
+            }
+            if (converted == context.testClasses().size()) {
+                removedContexts++;
+            }
+        }
+        return new PlanResult(List.copyOf(testClasses), removedContexts, contexts.size());
+    }
+
+    private record PlanResult(List<SmartPsiElementPointer<PsiClass>> testClasses, int removedContexts,
+                              int contextCount) {
+    }
+
+}
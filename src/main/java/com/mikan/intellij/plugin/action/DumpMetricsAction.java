@@ -0,0 +1,50 @@
+package com.mikan.intellij.plugin.action;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.mikan.intellij.plugin.metrics.PluginMetrics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Dump the {@link PluginMetrics} of the current IDE session to a JSON file.
+ */
+public class DumpMetricsAction extends DumbAwareAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Dump Dev Efficiency Metrics",
+            "Save the plugin metrics as JSON", "json");
+        VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, e.getProject())
+            .save("dev-efficiency-metrics.json");
+        if (wrapper == null) {
+            return;
+        }
+
+        try {
+            Files.writeString(wrapper.getFile().toPath(), PluginMetrics.getInstance().toJson(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            Messages.showErrorDialog(e.getProject(), "Cannot write " + wrapper.getFile() + ": " + ex.getMessage(),
+                "Dump Dev Efficiency Metrics");
+            return;
+        }
+        if (!PluginMetrics.getInstance().isEnabled()) {
+            Messages.showInfoMessage(e.getProject(), "Metrics are disabled, enable them with the registry key "
+                + PluginMetrics.ENABLED_KEY + ".", "Dump Dev Efficiency Metrics");
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+package com.mikan.intellij.plugin.action;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.intellij.ide.util.DirectoryUtil;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.testIntegration.createTest.CreateTestUtils;
+import com.mikan.intellij.plugin.intention.Junit5MockitoTestGenerator;
+import com.mikan.intellij.plugin.intention.Junit5MockitoTestSynchronizer;
+import com.mikan.intellij.plugin.intention.TestGenerationPlan;
+import com.mikan.intellij.plugin.intention.TestSyncPlan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Generate junit5 tests with mockito for all classes under the selected packages, directories or modules.
+ * <p>
+ * Candidate classes are collected in a background read action, the test root of each module is resolved once, and
+ * the test files are planned in smart mode read actions and written in batches of {@link #BATCH_SIZE} classes, so the
+ * progress can be cancelled between batches. Existing test classes are synced instead, classes unchanged since the
+ * last generation or sync are skipped. {@link #generate(Project, List)} runs the same batches for selected classes.
+ */
+public class GenerateMockitoTestsAction extends AnAction {
+
+    private static final int BATCH_SIZE = 20;
+
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    private final Junit5MockitoTestSynchronizer synchronizer = new Junit5MockitoTestSynchronizer(this.generator);
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        boolean enabled = false;
+        if (project != null && files != null) {
+            ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+            for (VirtualFile file : files) {
+                if (file.isDirectory() && fileIndex.isInContent(file)) {
+                    enabled = true;
+                    break;
+                }
+            }
+        }
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] roots = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || roots == null) {
+            return;
+        }
+
+        this.queue(project, indicator -> {
+            List<Candidate> candidates = new ArrayList<>();
+            for (VirtualFile root : roots) {
+                collectCandidates(project, root, candidates, indicator);
+            }
+            return candidates;
+        });
+    }
+
+    /**
+     * 为选中的类分批生成或者同步测试，例如测试缺口工具窗口中选中的多个类，需要在 EDT 中调用
+     */
+    public void generate(@NotNull Project project, @NotNull List<PsiClass> classes) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        List<Candidate> candidates = new ArrayList<>(classes.size());
+        for (PsiClass psiClass : classes) {
+            VirtualFile file = psiClass.getContainingFile().getVirtualFile();
+            Module module = file == null ? null : fileIndex.getModuleForFile(file);
+            if (module != null && psiClass.getContainingFile() instanceof PsiJavaFile javaFile
+                && isCandidate(psiClass)) {
+                candidates.add(new Candidate(pointerManager.createSmartPsiElementPointer(psiClass), module,
+                    javaFile.getPackageName()));
+            }
+        }
+        this.queue(project, indicator -> candidates);
+    }
+
+    private void queue(Project project, Function<ProgressIndicator, List<Candidate>> candidatesFunction) {
+        new Task.Backgroundable(project, "Generating junit5 tests with mockito", true) {
+
+            private int generated;
+            private int synced;
+            private int skipped;
+            private int savedMocks;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                // 1. 在后台读操作中收集候选类
+                indicator.setText("Collecting classes");
+                List<Candidate> candidates = candidatesFunction.apply(indicator);
+
+                // 2. 每个模块只确定一次测试根目录
+                Map<Module, PsiDirectory> testRoots = new HashMap<>();
+                for (Candidate candidate : candidates) {
+                    indicator.checkCanceled();
+                    if (!testRoots.containsKey(candidate.module())) {
+                        PsiDirectory[] testRoot = new PsiDirectory[1];
+                        ApplicationManager.getApplication().invokeAndWait(
+                            () -> testRoot[0] = CreateTestUtils.selectTargetDirectory("", project, candidate.module()),
+                            ModalityState.defaultModalityState());
+                        testRoots.put(candidate.module(), testRoot[0]);
+                    }
+                }
+
+                // 3. 分批处理：先在读操作中生成计划，再在写命令中创建文件，批次之间可以取消
+                indicator.setIndeterminate(false);
+                for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+                    indicator.checkCanceled();
+                    indicator.setFraction((double)from / candidates.size());
+                    indicator.setText("Generating tests " + from + "/" + candidates.size());
+                    List<Candidate> batch = candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size()));
+                    // 生成计划需要 resolve 类型，在 smart mode 中执行，索引开始时重新执行，因此这里才统计跳过的类
+                    List<PlannedTest> plannedTests = ReadAction.nonBlocking(() -> this.planBatch(batch, testRoots))
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+                    this.skipped += batch.size() - plannedTests.size();
+                    ApplicationManager.getApplication().invokeAndWait(
+                        () -> WriteCommandAction.runWriteCommandAction(project, "Generate Junit5 Tests", null,
+                            () -> this.applyBatch(plannedTests, testRoots)),
+                        ModalityState.defaultModalityState());
+                }
+            }
+
+            /**
+             * 没有计划的类都被跳过
+             */
+            private List<PlannedTest> planBatch(List<Candidate> batch, Map<Module, PsiDirectory> testRoots) {
+                List<PlannedTest> plannedTests = new ArrayList<>(batch.size());
+                for (Candidate candidate : batch) {
+                    PsiClass srcClass = candidate.classPointer().getElement();
+                    PsiDirectory testRoot = testRoots.get(candidate.module());
+                    if (srcClass == null || testRoot == null || !testRoot.isValid()) {
+                        continue;
+                    }
+
+                    // 测试文件已经存在时只同步缺少的成员，源类没有变化时直接跳过
+                    PsiFile testFile = findTestFile(testRoot, candidate.packageName(), srcClass);
+                    if (testFile != null) {
+                        PsiClass testClass = testFile instanceof PsiJavaFile testJavaFile
+                            && testJavaFile.getClasses().length > 0 ? testJavaFile.getClasses()[0] : null;
+                        TestSyncPlan syncPlan = testClass == null ? null : synchronizer.plan(srcClass, testClass);
+                        if (syncPlan != null) {
+                            plannedTests.add(new PlannedTest(candidate, null, syncPlan,
+                                SmartPointerManager.createPointer(testClass)));
+                        }
+                        continue;
+                    }
+
+                    TestGenerationPlan plan = generator.plan(srcClass);
+                    if (plan != null) {
+                        plannedTests.add(new PlannedTest(candidate, plan, null, null));
+                    }
+                }
+                return plannedTests;
+            }
+
+            private void applyBatch(List<PlannedTest> plannedTests, Map<Module, PsiDirectory> testRoots) {
+                for (PlannedTest plannedTest : plannedTests) {
+                    Candidate candidate = plannedTest.candidate();
+                    if (plannedTest.syncPlan() != null) {
+                        this.applySync(plannedTest);
+                        continue;
+                    }
+
+                    PsiDirectory testRoot = testRoots.get(candidate.module());
+                    PsiDirectory targetDirectory = candidate.packageName().isEmpty()
+                        ? testRoot : DirectoryUtil.createSubdirectories(candidate.packageName(), testRoot, ".");
+                    if (generator.apply(plannedTest.plan(), targetDirectory) != null) {
+                        this.generated++;
+                        this.savedMocks += plannedTest.plan().savedMocks();
+                    } else {
+                        this.skipped++;
+                    }
+                }
+            }
+
+            private void applySync(PlannedTest plannedTest) {
+                PsiClass srcClass = plannedTest.candidate().classPointer().getElement();
+                PsiClass testClass = plannedTest.testClassPointer().getElement();
+                if (srcClass != null && testClass != null
+                    && synchronizer.apply(plannedTest.syncPlan(), srcClass, testClass)) {
+                    this.synced++;
+                } else {
+                    this.skipped++;
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                Messages.showInfoMessage(project,
+                    "Generated " + this.generated + " test class(es), synced " + this.synced + ", skipped "
+                        + this.skipped + ", saved about " + this.savedMocks + " mock creation(s) per test run.",
+                    "Generate Junit5 Tests");
+            }
+        }.queue();
+    }
+
+    private static @Nullable PsiFile findTestFile(PsiDirectory testRoot, String packageName, PsiClass srcClass) {
+        PsiDirectory directory = testRoot;
+        for (String name : StringUtil.split(packageName, ".")) {
+            directory = directory.findSubdirectory(name);
+            if (directory == null) {
+                return null;
+            }
+        }
+        return directory.findFile(Junit5MockitoTestGenerator.getTestClassName(srcClass) + ".java");
+    }
+
+    private void collectCandidates(Project project, VirtualFile root, List<Candidate> candidates,
+        ProgressIndicator indicator) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        PsiManager psiManager = PsiManager.getInstance(project);
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        VfsUtilCore.iterateChildrenRecursively(root, null, file -> {
+            indicator.checkCanceled();
+            if (file.isDirectory() || !"java".equals(file.getExtension())) {
+                return true;
+            }
+
+            ReadAction.run(() -> {
+                if (!fileIndex.isInSourceContent(file) || fileIndex.isInTestSourceContent(file)) {
+                    return;
+                }
+                Module module = fileIndex.getModuleForFile(file);
+                PsiFile psiFile = psiManager.findFile(file);
+                if (module == null || !(psiFile instanceof PsiJavaFile javaFile)) {
+                    return;
+                }
+                for (PsiClass psiClass : javaFile.getClasses()) {
+                    if (isCandidate(psiClass)) {
+                        candidates.add(new Candidate(pointerManager.createSmartPsiElementPointer(psiClass),
+                            module, javaFile.getPackageName()));
+                    }
+                }
+            });
+            return true;
+        });
+    }
+
+    /**
+     * 抽象类和枚举不能构造被测试的实例，批量生成时跳过
+     */
+    private static boolean isCandidate(PsiClass psiClass) {
+        return !psiClass.isInterface() && !psiClass.isAnnotationType() && !psiClass.isEnum()
+            && !psiClass.hasModifierProperty(PsiModifier.ABSTRACT) && psiClass.getName() != null;
+    }
+
+    private record Candidate(SmartPsiElementPointer<PsiClass> classPointer, Module module, String packageName) {
+    }
+
+    /**
+     * 新建测试类时只有 plan，同步已有测试类时只有 syncPlan 和 testClassPointer
+     */
+    private record PlannedTest(Candidate candidate, @Nullable TestGenerationPlan plan, @Nullable TestSyncPlan syncPlan,
+                               @Nullable SmartPsiElementPointer<PsiClass> testClassPointer) {
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.mikan.intellij.plugin.action;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.mikan.intellij.plugin.intention.TestGenerationSettings;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Switch the generated tests between {@code @Mock} fields with the {@code MockitoExtension} and plain {@code mock()}
+ * calls in {@code setUp}.
+ */
+public class TogglePlainMocksAction extends ToggleAction implements DumbAware {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        super.update(e);
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public boolean isSelected(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        return project != null && TestGenerationSettings.getInstance(project).isPlainMocks();
+    }
+
+    @Override
+    public void setSelected(@NotNull AnActionEvent e, boolean state) {
+        Project project = e.getProject();
+        if (project != null) {
+            TestGenerationSettings.getInstance(project).setPlainMocks(state);
+        }
+    }
+
+}
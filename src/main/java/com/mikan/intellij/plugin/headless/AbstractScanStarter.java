@@ -0,0 +1,210 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mikan.intellij.plugin.inspection.TestSourceUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base of the headless scans for CI.
+ * <p>
+ * Usage: {@code idea <command> <project-path> <output-file> [--format=jsonl|sarif] [--threads=N]}. The files are
+ * scanned in parallel with one read action per file, findings are streamed to the output file as they are found.
+ * Exits with code 1 when anything is found, so it can gate a build, and with code 2 on errors.
+ */
+abstract class AbstractScanStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(AbstractScanStarter.class);
+
+    /**
+     * 扫描失败时等待正在执行的任务结束的最长时间
+     */
+    private static final long TERMINATION_TIMEOUT_SECONDS = 60;
+
+    /**
+     * 命令名，用于提示用法
+     */
+    protected abstract @NotNull String getUsageCommand();
+
+    protected abstract @NotNull String getRuleId();
+
+    protected abstract @NotNull String getRuleDescription();
+
+    /**
+     * 需要扫描的文件，在读操作中调用
+     */
+    protected abstract @NotNull Collection<VirtualFile> findFiles(@NotNull Project project);
+
+    /**
+     * 扫描一个生产源码文件，在读操作中调用，可能在多个线程中同时调用
+     */
+    protected abstract void scanFile(@NotNull PsiJavaFile file, @NotNull Reporter reporter);
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = this.scan(args);
+        } catch (Exception e) {
+            LOG.warn(this.getUsageCommand() + " failed", e);
+            System.err.println(this.getUsageCommand() + " failed: " + e.getMessage());
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    private int scan(List<String> args) throws Exception {
+        // args[0] 为命令名
+        List<String> positional = new ArrayList<>();
+        FindingWriter.Format format = FindingWriter.Format.JSONL;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args.subList(1, args.size())) {
+            if (arg.startsWith("--format=")) {
+                format = FindingWriter.Format.valueOf(arg.substring("--format=".length()).toUpperCase());
+            } else if (arg.startsWith("--threads=")) {
+                threads = Math.max(1, Integer.parseInt(arg.substring("--threads=".length())));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 2) {
+            System.err.println("Usage: " + this.getUsageCommand() + " <project-path> <output-file> "
+                + "[--format=jsonl|sarif] [--threads=N]");
+            return 2;
+        }
+
+        Project project = ProjectUtil.openOrImport(Path.of(positional.get(0)), null, false);
+        if (project == null) {
+            System.err.println("Cannot open project " + positional.get(0));
+            return 2;
+        }
+
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            int findings = this.scan(project, Path.of(positional.get(1)), format, threads);
+            return findings > 0 ? 1 : 0;
+        } finally {
+            ApplicationManager.getApplication()
+                .invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+    }
+
+    private int scan(Project project, Path output, FindingWriter.Format format, int threads)
+        throws IOException, InterruptedException, ExecutionException {
+        Collection<VirtualFile> files = ReadAction.compute(() -> this.findFiles(project));
+
+        long start = System.nanoTime();
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(this.getRuleId() + "Scan",
+            threads);
+        try (FindingWriter writer = FindingWriter.open(output, format, this.getRuleId(), this.getRuleDescription())) {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (VirtualFile file : files) {
+                futures.add(executor.submit(() -> this.scanFile(project, file, writer)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException | InterruptedException | RuntimeException e) {
+                // 一个文件失败时取消其他文件，等待正在执行的任务结束后才关闭 writer
+                futures.forEach(future -> future.cancel(true));
+                executor.shutdownNow();
+                executor.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                throw e;
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("Scanned " + files.size() + " files with " + threads + " threads in "
+                + elapsedMillis + " ms, " + writer.getCount() + " finding(s) written to " + output);
+            return writer.getCount();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void scanFile(Project project, VirtualFile file, FindingWriter writer) {
+        // 每个文件一个读操作，结果直接写出，不在内存中汇总
+        ReadAction.run(() -> {
+            if (!file.isValid()) {
+                return;
+            }
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (!(psiFile instanceof PsiJavaFile javaFile) || TestSourceUtil.isInTestSourceContent(psiFile)) {
+                return;
+            }
+
+            this.scanFile(javaFile, new Reporter(this.getRelativePath(project, file),
+                psiFile.getViewProvider().getDocument(), writer));
+        });
+    }
+
+    private String getRelativePath(Project project, VirtualFile file) {
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            return file.getPath();
+        }
+        String relativePath = FileUtil.getRelativePath(basePath, file.getPath(), '/');
+        return relativePath == null ? file.getPath() : relativePath;
+    }
+
+    /**
+     * 把 PSI 元素转换成 {@link FindingWriter.Finding} 写出
+     */
+    protected static final class Reporter {
+
+        private final String path;
+        private final Document document;
+        private final FindingWriter writer;
+
+        private Reporter(String path, Document document, FindingWriter writer) {
+            this.path = path;
+            this.document = document;
+            this.writer = writer;
+        }
+
+        void report(@NotNull PsiElement element, @NotNull String elementName, @NotNull String message) {
+            int line = this.document == null ? 0 : this.document.getLineNumber(element.getTextOffset()) + 1;
+            PsiClass containingClass = PsiTreeUtil.getParentOfType(element, PsiClass.class, false);
+            String className = containingClass == null ? "" : String.valueOf(containingClass.getQualifiedName());
+            try {
+                this.writer.write(new FindingWriter.Finding(this.path, line, className, elementName, message));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.mikan.intellij.plugin.inspection.FieldInjectionInspection;
+import com.mikan.intellij.plugin.inspection.FieldInjectionQuickFix;
+import com.mikan.intellij.plugin.intention.Junit5MockitoTestGenerator;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Headless performance regression benchmark of the inspection, the quick fix and the test generator.
+ * <p>
+ * Usage: {@code idea devEfficiencyBenchmark <project-path> <output-file> [--baseline=file] [--threshold=1.25]
+ * [--iterations=N] [--record]}. Synthetic classes of several sizes are created in memory in the given project, and
+ * the best time and allocated bytes of each scenario are written to the output file. Exits with code 1 when a
+ * scenario is slower or allocates more than the baseline times the threshold, or when the baseline file or the
+ * entry of a scenario is missing. {@code --record} writes the results as the new baseline instead.
+ */
+public class BenchmarkStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(BenchmarkStarter.class);
+
+    private static final String AUTOWIRED = "@org.springframework.beans.factory.annotation.Autowired";
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = this.benchmark(args);
+        } catch (Exception e) {
+            LOG.warn("benchmark failed", e);
+            System.err.println("Benchmark failed: " + e.getMessage());
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    private int benchmark(List<String> args) throws IOException {
+        // args[0] 为命令名
+        List<String> positional = new ArrayList<>();
+        Path baseline = null;
+        double threshold = 1.25;
+        int iterations = 5;
+        boolean record = false;
+        for (String arg : args.subList(1, args.size())) {
+            if (arg.startsWith("--baseline=")) {
+                baseline = Path.of(arg.substring("--baseline=".length()));
+            } else if (arg.startsWith("--threshold=")) {
+                threshold = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Math.max(1, Integer.parseInt(arg.substring("--iterations=".length())));
+            } else if ("--record".equals(arg)) {
+                record = true;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 2 || (record && baseline == null)) {
+            System.err.println("Usage: devEfficiencyBenchmark <project-path> <output-file> [--baseline=file] "
+                + "[--threshold=1.25] [--iterations=N] [--record]");
+            return 2;
+        }
+
+        Project project = ProjectUtil.openOrImport(Path.of(positional.get(0)), null, false);
+        if (project == null) {
+            System.err.println("Cannot open project " + positional.get(0));
+            return 2;
+        }
+
+        Map<String, Sample> results = new TreeMap<>();
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            this.runScenarios(project, iterations, results);
+        } finally {
+            ApplicationManager.getApplication()
+                .invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+
+        write(Path.of(positional.get(1)), results);
+        if (record) {
+            write(baseline, results);
+            System.out.println("Recorded baseline " + baseline);
+            return 0;
+        }
+        // 没有基线时无法判断是否回退，作为失败处理
+        if (baseline == null || !Files.exists(baseline)) {
+            System.err.println("Missing baseline " + (baseline == null ? "(--baseline not given)" : baseline)
+                + ", record one with --record");
+            return 1;
+        }
+        return compare(read(baseline), results, threshold);
+    }
+
+    private void runScenarios(Project project, int iterations, Map<String, Sample> results) {
+        FieldInjectionInspection inspection = new FieldInjectionInspection();
+        for (int fields : new int[] {10, 1_000, 10_000}) {
+            String text = injectedClass(fields);
+            results.put("inspection.fields." + fields, measure(iterations, () -> ReadAction.compute(() -> {
+                PsiJavaFile file = createFile(project, text);
+                return sample(() -> inspect(inspection, file));
+            })));
+        }
+
+        Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+        for (int members : new int[] {5, 50, 500}) {
+            String text = serviceClass(members);
+            results.put("generator.members." + members, measure(iterations, () -> ReadAction.compute(() -> {
+                PsiJavaFile file = createFile(project, text);
+                return sample(() -> generator.plan(file.getClasses()[0]));
+            })));
+        }
+
+        FieldInjectionQuickFix quickFix = new FieldInjectionQuickFix();
+        for (int fields : new int[] {50, 500}) {
+            String text = injectedClass(fields);
+            results.put("quickfix.fields." + fields, measure(iterations, () -> {
+                Sample[] sample = new Sample[1];
+                ApplicationManager.getApplication().invokeAndWait(() -> {
+                    PsiJavaFile file = createFile(project, text);
+                    ProblemDescriptor descriptor = inspect(inspection, file).get(0);
+                    WriteCommandAction.runWriteCommandAction(project,
+                        () -> sample[0] = sample(() -> quickFix.applyFix(project, descriptor)));
+                });
+                return sample[0];
+            }));
+        }
+    }
+
+    private static Sample measure(int iterations, Supplier<Sample> scenario) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            scenario.get();
+        }
+        // 取最好的一次，受 GC 和 JIT 的干扰最小
+        Sample best = null;
+        for (int i = 0; i < iterations; i++) {
+            Sample sample = scenario.get();
+            best = best == null ? sample : new Sample(Math.min(best.nanos(), sample.nanos()),
+                Math.min(best.bytes(), sample.bytes()));
+        }
+        return best;
+    }
+
+    private static Sample sample(Runnable action) {
+        long bytes = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        action.run();
+        long nanos = System.nanoTime() - start;
+        return new Sample(nanos, THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - bytes);
+    }
+
+    private static List<ProblemDescriptor> inspect(FieldInjectionInspection inspection, PsiFile file) {
+        ProblemsHolder holder = new ProblemsHolder(InspectionManager.getInstance(file.getProject()), file, false);
+        PsiElementVisitor visitor = inspection.buildVisitor(holder, false);
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                element.accept(visitor);
+                super.visitElement(element);
+            }
+        });
+        return holder.getResults();
+    }
+
+    private static PsiJavaFile createFile(Project project, String text) {
+        return (PsiJavaFile)PsiFileFactory.getInstance(project)
+            .createFileFromText("Benchmark.java", JavaFileType.INSTANCE, text);
+    }
+
+    private static String injectedClass(int fields) {
+        StringBuilder text = new StringBuilder("package benchmark;\n\npublic class Benchmark {\n");
+        for (int i = 0; i < fields; i++) {
+            // 包级字段不会作为未读取的依赖被删除，quick fix 会把它们全部转换为构造参数
+            text.append("    ").append(AUTOWIRED).append("\n    java.util.List<String> field").append(i).append(";\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static String serviceClass(int members) {
+        StringBuilder text = new StringBuilder("package benchmark;\n\npublic class Benchmark {\n");
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < members; i++) {
+            text.append("    private final java.util.Map<String, Integer> field").append(i).append(";\n");
+            parameters.append(i == 0 ? "" : ", ").append("java.util.Map<String, Integer> field").append(i);
+            assignments.append("        this.field").append(i).append(" = field").append(i).append(";\n");
+        }
+        text.append("    public Benchmark(").append(parameters).append(") {\n").append(assignments).append("    }\n");
+        for (int i = 0; i < members; i++) {
+            text.append("    public String method").append(i).append("(int value) {\n")
+                .append("        return String.valueOf(value);\n    }\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static int compare(Properties baseline, Map<String, Sample> results, double threshold) {
+        int regressions = 0;
+        for (Map.Entry<String, Sample> entry : results.entrySet()) {
+            String name = entry.getKey();
+            Sample sample = entry.getValue();
+            regressions += check(name + ".nanos", baseline.getProperty(name + ".nanos"), sample.nanos(), threshold);
+            regressions += check(name + ".bytes", baseline.getProperty(name + ".bytes"), sample.bytes(), threshold);
+        }
+        System.out.println(regressions == 0 ? "No regression." : regressions + " regression(s) found.");
+        return regressions == 0 ? 0 : 1;
+    }
+
+    private static int check(String key, String baseline, long actual, double threshold) {
+        if (baseline == null) {
+            System.out.println(key + ": " + actual + " MISSING BASELINE");
+            return 1;
+        }
+        long expected = Long.parseLong(baseline);
+        boolean regressed = actual > expected * threshold;
+        System.out.println(key + ": " + actual + " (baseline " + expected + ")" + (regressed ? " REGRESSED" : ""));
+        return regressed ? 1 : 0;
+    }
+
+    private static Properties read(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void write(Path path, Map<String, Sample> results) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Sample> entry : results.entrySet()) {
+                writer.write(entry.getKey() + ".nanos=" + entry.getValue().nanos() + "\n");
+                writer.write(entry.getKey() + ".bytes=" + entry.getValue().bytes() + "\n");
+            }
+        }
+    }
+
+    private record Sample(long nanos, long bytes) {
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.util.Collection;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.mikan.intellij.plugin.index.FieldInjectionIndex;
+import com.mikan.intellij.plugin.inspection.FieldInjectionInspection;
+import com.mikan.intellij.plugin.inspection.InjectionAnnotationMatcher;
+import com.mikan.intellij.plugin.inspection.InspectionBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Headless field injection scan for CI.
+ * <p>
+ * Usage: {@code idea fieldInjectionScan <project-path> <output-file> [--format=jsonl|sarif] [--threads=N]}.
+ * Exits with code 1 when field injection is found, so it can gate a build.
+ */
+public class FieldInjectionScanStarter extends AbstractScanStarter {
+
+    private static final String RULE_ID = "FieldInjection";
+
+    private InjectionAnnotationMatcher matcher;
+
+    @Override
+    protected @NotNull String getUsageCommand() {
+        return "fieldInjectionScan";
+    }
+
+    @Override
+    protected @NotNull String getRuleId() {
+        return RULE_ID;
+    }
+
+    @Override
+    protected @NotNull String getRuleDescription() {
+        return InspectionBundle.message("inspection.field.injection.display.name");
+    }
+
+    @Override
+    protected @NotNull Collection<VirtualFile> findFiles(@NotNull Project project) {
+        // 使用项目 inspection profile 中的注解配置，只扫描索引中有命中的文件
+        this.matcher = InjectionAnnotationMatcher.getInstance(project);
+        return FieldInjectionIndex.getFiles(FieldInjectionInspection.getInjectionShortNames(project),
+            GlobalSearchScopesCore.projectProductionScope(project));
+    }
+
+    @Override
+    protected void scanFile(@NotNull PsiJavaFile file, @NotNull Reporter reporter) {
+        String message = InspectionBundle.message("inspection.field.injection.problem.descriptor");
+        file.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitField(@NotNull PsiField field) {
+                super.visitField(field);
+                if (matcher.isFieldInjection(field)) {
+                    reporter.report(field, field.getName(), message);
+                }
+            }
+        });
+    }
+
+}
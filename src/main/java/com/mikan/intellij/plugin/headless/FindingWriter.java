@@ -0,0 +1,116 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Streams findings to a file as they are produced, either as JSON lines or as a SARIF 2.1.0 log.
+ * <p>
+ * Findings are never buffered beyond the underlying writer, so memory stays flat regardless of the number of
+ * findings. Writes are synchronized, findings may come from several worker threads.
+ */
+public final class FindingWriter implements Closeable {
+
+    public enum Format {
+        JSONL,
+        SARIF
+    }
+
+    private final BufferedWriter writer;
+    private final Format format;
+    private final String ruleId;
+
+    private int count;
+
+    private FindingWriter(BufferedWriter writer, Format format, String ruleId) {
+        this.writer = writer;
+        this.format = format;
+        this.ruleId = ruleId;
+    }
+
+    public static @NotNull FindingWriter open(@NotNull Path output, @NotNull Format format, @NotNull String ruleId,
+        @NotNull String ruleDescription) throws IOException {
+        FindingWriter findingWriter = new FindingWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8),
+            format, ruleId);
+        if (format == Format.SARIF) {
+            findingWriter.writer.write("{\"version\":\"2.1.0\","
+                + "\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\","
+                + "\"runs\":[{\"tool\":{\"driver\":{\"name\":\"dev-efficiency-tool\",\"rules\":[{\"id\":"
+                + quote(ruleId) + ",\"shortDescription\":{\"text\":" + quote(ruleDescription) + "}}]}},"
+                + "\"results\":[");
+        }
+        return findingWriter;
+    }
+
+    public synchronized void write(@NotNull Finding finding) throws IOException {
+        if (this.format == Format.SARIF) {
+            if (this.count > 0) {
+                this.writer.write(',');
+            }
+            this.writer.write("{\"ruleId\":" + quote(this.ruleId)
+                + ",\"level\":\"warning\""
+                + ",\"message\":{\"text\":" + quote(finding.message()) + "}"
+                + ",\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":" + quote(finding.path())
+                + "},\"region\":{\"startLine\":" + finding.line() + "}}"
+                + ",\"logicalLocations\":[{\"fullyQualifiedName\":"
+                + quote(finding.className() + "#" + finding.elementName()) + ",\"kind\":\"member\"}]}]}");
+        } else {
+            this.writer.write("{\"rule\":" + quote(this.ruleId)
+                + ",\"file\":" + quote(finding.path())
+                + ",\"line\":" + finding.line()
+                + ",\"class\":" + quote(finding.className())
+                + ",\"element\":" + quote(finding.elementName())
+                + ",\"message\":" + quote(finding.message()) + "}");
+            this.writer.newLine();
+        }
+        this.count++;
+    }
+
+    public synchronized int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.format == Format.SARIF) {
+            this.writer.write("]}]}");
+        }
+        this.writer.close();
+    }
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int)c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * @param path 相对项目根目录的路径
+     * @param line 从 1 开始的行号
+     */
+    public record Finding(String path, int line, String className, String elementName, String message) {
+    }
+
+}
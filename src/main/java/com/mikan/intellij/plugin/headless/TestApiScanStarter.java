@@ -0,0 +1,68 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.util.Collection;
+
+import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.mikan.intellij.plugin.inspection.InspectionBundle;
+import com.mikan.intellij.plugin.inspection.TestApiUsageInspection;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Headless scan of test APIs used in production code for CI.
+ * <p>
+ * Usage: {@code idea testApiScan <project-path> <output-file> [--format=jsonl|sarif] [--threads=N]}. Names are
+ * matched as text, so a file without test imports or fully qualified test references is scanned without resolving.
+ */
+public class TestApiScanStarter extends AbstractScanStarter {
+
+    private TestApiUsageInspection inspection;
+
+    @Override
+    protected @NotNull String getUsageCommand() {
+        return "testApiScan";
+    }
+
+    @Override
+    protected @NotNull String getRuleId() {
+        return TestApiUsageInspection.SHORT_NAME;
+    }
+
+    @Override
+    protected @NotNull String getRuleDescription() {
+        return InspectionBundle.message("inspection.test.api.display.name");
+    }
+
+    @Override
+    protected @NotNull Collection<VirtualFile> findFiles(@NotNull Project project) {
+        // 使用项目 inspection profile 中的测试包配置
+        InspectionToolWrapper<?, ?> toolWrapper = InspectionProjectProfileManager.getInstance(project)
+            .getCurrentProfile().getInspectionTool(TestApiUsageInspection.SHORT_NAME, project);
+        this.inspection = toolWrapper != null && toolWrapper.getTool() instanceof TestApiUsageInspection tool
+            ? tool : new TestApiUsageInspection();
+        return FileTypeIndex.getFiles(JavaFileType.INSTANCE, GlobalSearchScopesCore.projectProductionScope(project));
+    }
+
+    @Override
+    protected void scanFile(@NotNull PsiJavaFile file, @NotNull Reporter reporter) {
+        PsiElementVisitor visitor = this.inspection.createVisitor((element, qualifiedName) -> reporter.report(element,
+            qualifiedName, InspectionBundle.message("inspection.test.api.problem.descriptor", qualifiedName)));
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                element.accept(visitor);
+                super.visitElement(element);
+            }
+        });
+    }
+
+}
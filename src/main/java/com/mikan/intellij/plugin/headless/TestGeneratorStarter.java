@@ -0,0 +1,377 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.PackageIndex;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mikan.intellij.plugin.intention.Junit5MockitoTestGenerator;
+import com.mikan.intellij.plugin.intention.Junit5MockitoTestSynchronizer;
+import com.mikan.intellij.plugin.intention.TestGenerationPlan;
+import com.mikan.intellij.plugin.intention.TestSyncFingerprints;
+import com.mikan.intellij.plugin.intention.TestSyncPlan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.model.java.JavaSourceRootType;
+
+/**
+ * Headless generation of junit5 tests with mockito for CI.
+ * <p>
+ * Usage: {@code idea generateMockitoTests <project-path> [--modules=glob,...] [--packages=glob,...] [--threads=N]}.
+ * In package globs {@code *} matches one package segment and {@code **} any number of them. The source files are
+ * analysed in parallel with one smart mode read action per file, which waits for indexing and restarts when it
+ * begins. New test files are formatted off the EDT and written with NIO as soon as their source file is analysed, so
+ * the generated texts are not held in memory, then refreshed in the VFS at once. Existing test classes are synced in
+ * batched write commands. The test root of a module is its first test source root, no dialog is shown. Exits with
+ * code 1 when a test could not be written and with code 2 on errors.
+ */
+public class TestGeneratorStarter implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(TestGeneratorStarter.class);
+
+    private static final int SYNC_BATCH_SIZE = 50;
+
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    private final Junit5MockitoTestSynchronizer synchronizer = new Junit5MockitoTestSynchronizer(this.generator);
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        int exitCode;
+        try {
+            exitCode = this.generate(args);
+        } catch (Exception e) {
+            LOG.warn("generateMockitoTests failed", e);
+            System.err.println("generateMockitoTests failed: " + e.getMessage());
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    private int generate(List<String> args) throws Exception {
+        // args[0] 为命令名
+        List<String> positional = new ArrayList<>();
+        List<Pattern> modules = new ArrayList<>();
+        List<Pattern> packages = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args.subList(1, args.size())) {
+            if (arg.startsWith("--modules=")) {
+                modules.addAll(toPatterns(arg.substring("--modules=".length())));
+            } else if (arg.startsWith("--packages=")) {
+                packages.addAll(toPatterns(arg.substring("--packages=".length())));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Math.max(1, Integer.parseInt(arg.substring("--threads=".length())));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 1) {
+            System.err.println("Usage: generateMockitoTests <project-path> [--modules=glob,...] "
+                + "[--packages=glob,...] [--threads=N]");
+            return 2;
+        }
+
+        Project project = ProjectUtil.openOrImport(Path.of(positional.get(0)), null, false);
+        if (project == null) {
+            System.err.println("Cannot open project " + positional.get(0));
+            return 2;
+        }
+
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            Counters counters = this.generate(project, new Filter(modules, packages), threads);
+            return counters.failed.get() > 0 ? 1 : 0;
+        } finally {
+            ApplicationManager.getApplication()
+                .invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+    }
+
+    /**
+     * 逗号分隔的 glob，* 匹配不含 . 的一段，** 匹配任意多段
+     */
+    static List<Pattern> toPatterns(String globs) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : StringUtil.split(globs, ",")) {
+            StringBuilder regex = new StringBuilder();
+            String trimmed = glob.trim();
+            for (int i = 0; i < trimmed.length(); i++) {
+                char c = trimmed.charAt(i);
+                if (c == '*' && i + 1 < trimmed.length() && trimmed.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else if (c == '*') {
+                    regex.append("[^.]*");
+                } else if (c == '?') {
+                    regex.append("[^.]");
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            patterns.add(Pattern.compile(regex.toString()));
+        }
+        return patterns;
+    }
+
+    private Counters generate(Project project, Filter filter, int threads)
+        throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<SourceFile> sourceFiles = ReadAction.compute(() -> this.collectSourceFiles(project, filter));
+
+        // 1. 并行分析，每个文件一个 smart mode 的读操作，新的测试文件在非物理文件中格式化
+        Counters counters = new Counters();
+        List<Path> written = new ArrayList<>();
+        List<SyncTest> syncTests = new ArrayList<>();
+        TestSyncFingerprints fingerprints = TestSyncFingerprints.getInstance(project);
+        long writeNanos = 0;
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("MockitoTestGenerator",
+            threads);
+        try {
+            CompletionService<Analysis> completionService = new ExecutorCompletionService<>(executor);
+            for (SourceFile sourceFile : sourceFiles) {
+                // 分析中途开始索引时等待索引完成再重新分析，因此计数在分析完成之后才累加
+                completionService.submit(() -> ReadAction.nonBlocking(() -> this.analyze(project, sourceFile))
+                    .inSmartMode(project)
+                    .executeSynchronously());
+            }
+            // 2. 每个文件分析完成后立即通过 NIO 写出新的测试文件，不经过 VFS 和 PSI，也不在内存中保留所有生成的文本
+            for (int i = 0; i < sourceFiles.size(); i++) {
+                Analysis analysis = completionService.take().get();
+                counters.classes.addAndGet(analysis.classes());
+                counters.skipped.addAndGet(analysis.skipped());
+                syncTests.addAll(analysis.syncTests());
+                long writeStart = System.nanoTime();
+                for (NewTest newTest : analysis.newTests()) {
+                    this.write(newTest, written, fingerprints, counters);
+                }
+                writeNanos += System.nanoTime() - writeStart;
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+        long analysisNanos = System.nanoTime() - start - writeNanos;
+
+        // 3. 一次性刷新 VFS
+        long refreshStart = System.nanoTime();
+        LocalFileSystem.getInstance().refreshNioFiles(written);
+        long refreshNanos = System.nanoTime() - refreshStart;
+
+        // 4. 已有的测试类分批在写命令中同步
+        long syncStart = System.nanoTime();
+        for (int from = 0; from < syncTests.size(); from += SYNC_BATCH_SIZE) {
+            List<SyncTest> batch = syncTests.subList(from, Math.min(from + SYNC_BATCH_SIZE, syncTests.size()));
+            ApplicationManager.getApplication().invokeAndWait(() -> WriteCommandAction.runWriteCommandAction(project,
+                "Sync Junit5 Tests", null, () -> this.applySync(batch, counters)));
+        }
+        ApplicationManager.getApplication().invokeAndWait(() -> FileDocumentManager.getInstance().saveAllDocuments());
+        long syncNanos = System.nanoTime() - syncStart;
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int classes = counters.classes.get();
+        System.out.println("Analysed " + classes + " classes in " + sourceFiles.size() + " files with " + threads
+            + " threads in " + TimeUnit.NANOSECONDS.toMillis(analysisNanos) + " ms ("
+            + perSecond(classes, analysisNanos) + " classes/s).");
+        System.out.println("Wrote " + written.size() + " files in " + TimeUnit.NANOSECONDS.toMillis(writeNanos)
+            + " ms, refreshed VFS in " + TimeUnit.NANOSECONDS.toMillis(refreshNanos) + " ms, synced "
+            + syncTests.size() + " test classes in " + TimeUnit.NANOSECONDS.toMillis(syncNanos) + " ms.");
+        System.out.println("Created " + counters.created.get() + ", synced " + counters.synced.get() + ", skipped "
+            + counters.skipped.get() + ", failed " + counters.failed.get() + " in " + elapsedMillis + " ms ("
+            + perSecond(classes, System.nanoTime() - start) + " classes/s).");
+        System.out.println("Used real values for value types, saved about " + counters.savedMocks.get()
+            + " mock creations per test run.");
+        return counters;
+    }
+
+    private void write(NewTest newTest, List<Path> written, TestSyncFingerprints fingerprints, Counters counters) {
+        try {
+            Files.createDirectories(newTest.path().getParent());
+            Files.writeString(newTest.path(), newTest.text(), StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
+            written.add(newTest.path());
+            fingerprints.update(newTest.sourceClassName(), newTest.fingerprint());
+            counters.created.incrementAndGet();
+            counters.savedMocks.addAndGet(newTest.savedMocks());
+        } catch (FileAlreadyExistsException e) {
+            counters.skipped.incrementAndGet();
+        } catch (IOException e) {
+            LOG.warn("cannot write " + newTest.path(), e);
+            System.err.println("Cannot write " + newTest.path() + ": " + e.getMessage());
+            counters.failed.incrementAndGet();
+        }
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return nanos == 0 ? count : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private List<SourceFile> collectSourceFiles(Project project, Filter filter) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        PackageIndex packageIndex = PackageIndex.getInstance(project);
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        fileIndex.iterateContent(file -> {
+            if (file.isDirectory() || !"java".equals(file.getExtension()) || !fileIndex.isInSourceContent(file)
+                || fileIndex.isInTestSourceContent(file)) {
+                return true;
+            }
+            Module module = fileIndex.getModuleForFile(file);
+            String packageName = packageIndex.getPackageNameByDirectory(file.getParent());
+            if (module == null || packageName == null || !filter.accept(module.getName(), packageName)) {
+                return true;
+            }
+            VirtualFile[] testRoots = ModuleRootManager.getInstance(module)
+                .getSourceRoots(JavaSourceRootType.TEST_SOURCE).toArray(VirtualFile.EMPTY_ARRAY);
+            if (testRoots.length == 0) {
+                LOG.info("module " + module.getName() + " has no test source root, skip " + file.getPath());
+                return true;
+            }
+            sourceFiles.add(new SourceFile(file, testRoots[0], packageName));
+            return true;
+        });
+        return sourceFiles;
+    }
+
+    private Analysis analyze(Project project, SourceFile sourceFile) {
+        List<NewTest> newTests = new ArrayList<>();
+        List<SyncTest> syncTests = new ArrayList<>();
+        PsiFile psiFile = sourceFile.file().isValid() ? PsiManager.getInstance(project).findFile(sourceFile.file())
+            : null;
+        if (!(psiFile instanceof PsiJavaFile javaFile)) {
+            return new Analysis(newTests, syncTests, 0, 0);
+        }
+
+        int classes = 0;
+        int skipped = 0;
+
+        String directory = sourceFile.packageName().replace('.', '/');
+        for (PsiClass srcClass : javaFile.getClasses()) {
+            if (srcClass.isInterface() || srcClass.isAnnotationType() || srcClass.isEnum()
+                || srcClass.hasModifierProperty(PsiModifier.ABSTRACT) || srcClass.getName() == null) {
+                continue;
+            }
+            classes++;
+            String fileName = Junit5MockitoTestGenerator.getTestClassName(srcClass) + ".java";
+            VirtualFile testFile = sourceFile.testRoot()
+                .findFileByRelativePath(directory.isEmpty() ? fileName : directory + "/" + fileName);
+
+            // 测试文件已经存在时只同步缺少的成员，源类没有变化时直接跳过
+            if (testFile != null) {
+                PsiClass testClass = this.findTestClass(project, testFile);
+                TestSyncPlan syncPlan = testClass == null ? null : this.synchronizer.plan(srcClass, testClass);
+                if (syncPlan == null) {
+                    skipped++;
+                } else {
+                    syncTests.add(new SyncTest(SmartPointerManager.createPointer(srcClass),
+                        SmartPointerManager.createPointer(testClass), syncPlan));
+                }
+                continue;
+            }
+
+            TestGenerationPlan plan = this.generator.plan(srcClass);
+            if (plan == null || plan.sourceClassName() == null) {
+                skipped++;
+                continue;
+            }
+            Path path = sourceFile.testRoot().toNioPath().resolve(directory).resolve(plan.fileName());
+            newTests.add(new NewTest(path, this.generator.format(plan, project), plan.sourceClassName(),
+                plan.fingerprint(), plan.savedMocks()));
+        }
+        return new Analysis(newTests, syncTests, classes, skipped);
+    }
+
+    private @Nullable PsiClass findTestClass(Project project, VirtualFile testFile) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(testFile);
+        return psiFile instanceof PsiJavaFile testJavaFile && testJavaFile.getClasses().length > 0
+            ? testJavaFile.getClasses()[0] : null;
+    }
+
+    private void applySync(List<SyncTest> batch, Counters counters) {
+        for (SyncTest syncTest : batch) {
+            PsiClass srcClass = syncTest.srcClassPointer().getElement();
+            PsiClass testClass = syncTest.testClassPointer().getElement();
+            if (srcClass != null && testClass != null
+                && this.synchronizer.apply(syncTest.syncPlan(), srcClass, testClass)) {
+                counters.synced.incrementAndGet();
+            } else {
+                counters.skipped.incrementAndGet();
+            }
+        }
+    }
+
+    record Filter(List<Pattern> modules, List<Pattern> packages) {
+
+        boolean accept(String moduleName, String packageName) {
+            return (this.modules.isEmpty() || this.modules.stream().anyMatch(p -> p.matcher(moduleName).matches()))
+                && (this.packages.isEmpty()
+                || this.packages.stream().anyMatch(p -> p.matcher(packageName).matches()));
+        }
+
+    }
+
+    private record SourceFile(VirtualFile file, VirtualFile testRoot, String packageName) {
+    }
+
+    private record NewTest(Path path, String text, String sourceClassName, String fingerprint, int savedMocks) {
+    }
+
+    private record SyncTest(SmartPsiElementPointer<PsiClass> srcClassPointer,
+                            SmartPsiElementPointer<PsiClass> testClassPointer, TestSyncPlan syncPlan) {
+    }
+
+    private record Analysis(List<NewTest> newTests, List<SyncTest> syncTests, int classes, int skipped) {
+    }
+
+    private static final class Counters {
+
+        private final AtomicInteger classes = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger synced = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger savedMocks = new AtomicInteger();
+
+    }
+
+}
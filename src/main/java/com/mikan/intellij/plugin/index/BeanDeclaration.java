@@ -0,0 +1,13 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.List;
+
+/**
+ * A class annotated as a Spring bean, as recorded by {@link BeanDependencyIndex}.
+ *
+ * @param offset       类在文件中的起始偏移量
+ * @param superTypes   父类和接口，每个元素为可能的限定名
+ * @param dependencies 注解字段和构造方法参数
+ */
+public record BeanDeclaration(int offset, List<List<String>> superTypes, List<BeanDependency> dependencies) {
+}
@@ -0,0 +1,15 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.List;
+
+/**
+ * A dependency of a bean, as recorded by {@link BeanDependencyIndex}.
+ *
+ * @param name           字段名或者构造方法参数名
+ * @param typeCandidates 依赖类型可能的限定名，按 import、同一个包、按需 import 的顺序，索引时不做 resolve
+ * @param annotations    字段上注解的短名，构造方法参数为空
+ * @param constructor    是否为构造方法参数
+ */
+public record BeanDependency(String name, List<String> typeCandidates, List<String> annotations,
+                             boolean constructor) {
+}
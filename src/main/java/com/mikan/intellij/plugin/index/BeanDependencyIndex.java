@@ -0,0 +1,265 @@
+package com.mikan.intellij.plugin.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.psi.impl.source.tree.RecursiveLighterASTNodeWalkingVisitor;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.PsiDependentFileContent;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of Spring beans and their injected dependencies, keyed by the qualified name of the bean class.
+ * <p>
+ * Built from the light AST without resolving: a dependency type is recorded as its possible qualified names derived
+ * from the imports and the package of the file, and is matched against the other beans when the graph is built. Lazy
+ * dependencies ({@code @Lazy}, {@code ObjectProvider}, {@code Optional}, collections, ...) are not recorded, they
+ * cannot form a cycle at startup. The platform keeps the index up to date per changed file.
+ */
+public class BeanDependencyIndex extends FileBasedIndexExtension<String, BeanDeclaration> {
+
+    public static final ID<String, BeanDeclaration> NAME = ID.create(
+        "com.mikan.intellij.plugin.index.BeanDependencyIndex");
+
+    private static final Set<String> BEAN_ANNOTATIONS = Set.of("Component", "Service", "Repository", "Controller",
+        "RestController", "Configuration");
+
+    private static final Set<String> CONSTRUCTOR_ANNOTATIONS = Set.of("Autowired", "Inject");
+
+    private static final String LAZY = "Lazy";
+
+    private static final Set<String> LAZY_TYPES = Set.of("ObjectProvider", "ObjectFactory", "Provider", "Optional",
+        "Supplier", "Collection", "Iterable", "List", "Set", "Map");
+
+    @Override
+    public @NotNull ID<String, BeanDeclaration> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, BeanDeclaration, FileContent> getIndexer() {
+        return inputData -> {
+            LighterAST tree = ((PsiDependentFileContent)inputData).getLighterAST();
+            TypeResolver typeResolver = new TypeResolver(tree);
+            Map<String, BeanDeclaration> result = new HashMap<>();
+            new RecursiveLighterASTNodeWalkingVisitor(tree) {
+                @Override
+                public void visitNode(@NotNull LighterASTNode element) {
+                    if (element.getTokenType() == JavaElementType.CLASS) {
+                        collectBean(tree, element, typeResolver, result);
+                    }
+                    super.visitNode(element);
+                }
+            }.visitNode(tree.getRoot());
+            return result;
+        };
+    }
+
+    private static void collectBean(LighterAST tree, LighterASTNode aClass, TypeResolver typeResolver,
+        Map<String, BeanDeclaration> result) {
+        LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, aClass, JavaElementType.MODIFIER_LIST);
+        if (modifierList == null || LightJavaTrees.getAnnotationNames(tree, modifierList).stream()
+            .noneMatch(BEAN_ANNOTATIONS::contains)) {
+            return;
+        }
+        String className = getClassName(tree, aClass);
+        if (className == null) {
+            return;
+        }
+
+        List<List<String>> superTypes = new ArrayList<>();
+        for (LighterASTNode list : LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.EXTENDS_LIST)) {
+            collectSuperTypes(tree, list, typeResolver, superTypes);
+        }
+        for (LighterASTNode list : LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.IMPLEMENTS_LIST)) {
+            collectSuperTypes(tree, list, typeResolver, superTypes);
+        }
+
+        List<BeanDependency> dependencies = new ArrayList<>();
+        // 1. 注解的实例字段
+        for (LighterASTNode field : LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.FIELD)) {
+            LighterASTNode fieldModifiers = LightTreeUtil.firstChildOfType(tree, field, JavaElementType.MODIFIER_LIST);
+            if (fieldModifiers == null
+                || LightTreeUtil.firstChildOfType(tree, fieldModifiers, JavaTokenType.STATIC_KEYWORD) != null) {
+                continue;
+            }
+            List<String> annotations = LightJavaTrees.getAnnotationNames(tree, fieldModifiers);
+            if (!annotations.isEmpty() && !annotations.contains(LAZY)) {
+                addDependency(tree, field, typeResolver, annotations, false, dependencies);
+            }
+        }
+
+        // 2. 唯一的构造方法，或者有 @Autowired 的构造方法的参数
+        List<LighterASTNode> constructors = LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.METHOD)
+            .stream()
+            .filter(method -> LightTreeUtil.firstChildOfType(tree, method, JavaElementType.TYPE) == null)
+            .toList();
+        for (LighterASTNode constructor : constructors) {
+            LighterASTNode constructorModifiers = LightTreeUtil.firstChildOfType(tree, constructor,
+                JavaElementType.MODIFIER_LIST);
+            if (constructors.size() > 1 && (constructorModifiers == null
+                || LightJavaTrees.getAnnotationNames(tree, constructorModifiers).stream()
+                .noneMatch(CONSTRUCTOR_ANNOTATIONS::contains))) {
+                continue;
+            }
+            LighterASTNode parameterList = LightTreeUtil.firstChildOfType(tree, constructor,
+                JavaElementType.PARAMETER_LIST);
+            if (parameterList == null) {
+                continue;
+            }
+            for (LighterASTNode parameter : LightTreeUtil.getChildrenOfType(tree, parameterList,
+                JavaElementType.PARAMETER)) {
+                LighterASTNode parameterModifiers = LightTreeUtil.firstChildOfType(tree, parameter,
+                    JavaElementType.MODIFIER_LIST);
+                if (parameterModifiers == null
+                    || !LightJavaTrees.getAnnotationNames(tree, parameterModifiers).contains(LAZY)) {
+                    addDependency(tree, parameter, typeResolver, List.of(), true, dependencies);
+                }
+            }
+        }
+
+        result.put(className, new BeanDeclaration(aClass.getStartOffset(), superTypes, dependencies));
+    }
+
+    private static void collectSuperTypes(LighterAST tree, LighterASTNode list, TypeResolver typeResolver,
+        List<List<String>> superTypes) {
+        for (LighterASTNode reference : LightTreeUtil.getChildrenOfType(tree, list,
+            JavaElementType.JAVA_CODE_REFERENCE)) {
+            superTypes.add(typeResolver.resolve(LightJavaTrees.getReferenceText(tree, reference)));
+        }
+    }
+
+    private static void addDependency(LighterAST tree, LighterASTNode variable, TypeResolver typeResolver,
+        List<String> annotations, boolean constructor, List<BeanDependency> dependencies) {
+        LighterASTNode type = LightTreeUtil.firstChildOfType(tree, variable, JavaElementType.TYPE);
+        LighterASTNode reference = type == null ? null : LightTreeUtil.firstChildOfType(tree, type,
+            JavaElementType.JAVA_CODE_REFERENCE);
+        String name = JavaLightTreeUtil.getNameIdentifierText(tree, variable);
+        if (reference == null || name == null) {
+            return;
+        }
+        String typeName = LightJavaTrees.getReferenceText(tree, reference);
+        if (LAZY_TYPES.contains(StringUtil.getShortName(typeName))) {
+            return;
+        }
+        dependencies.add(new BeanDependency(name, typeResolver.resolve(typeName), annotations, constructor));
+    }
+
+    private static @Nullable String getClassName(LighterAST tree, LighterASTNode aClass) {
+        StringBuilder className = new StringBuilder();
+        LighterASTNode node = aClass;
+        while (node != null && node.getTokenType() != JavaElementType.ANONYMOUS_CLASS) {
+            if (node.getTokenType() == JavaElementType.CLASS) {
+                String name = JavaLightTreeUtil.getNameIdentifierText(tree, node);
+                if (name == null) {
+                    return null;
+                }
+                className.insert(0, className.isEmpty() ? name : name + ".");
+            }
+            node = tree.getParent(node);
+        }
+        // 匿名类中的类不是 bean
+        return node != null ? null
+            : StringUtil.getQualifiedName(LightJavaTrees.getPackageName(tree), className.toString());
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<BeanDeclaration> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, BeanDeclaration value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.offset());
+                DataInputOutputUtil.writeINT(out, value.superTypes().size());
+                for (List<String> superType : value.superTypes()) {
+                    writeStrings(out, superType);
+                }
+                DataInputOutputUtil.writeINT(out, value.dependencies().size());
+                for (BeanDependency dependency : value.dependencies()) {
+                    IOUtil.writeUTF(out, dependency.name());
+                    writeStrings(out, dependency.typeCandidates());
+                    writeStrings(out, dependency.annotations());
+                    out.writeBoolean(dependency.constructor());
+                }
+            }
+
+            @Override
+            public BeanDeclaration read(@NotNull DataInput in) throws IOException {
+                int offset = DataInputOutputUtil.readINT(in);
+                int superTypeCount = DataInputOutputUtil.readINT(in);
+                List<List<String>> superTypes = new ArrayList<>(superTypeCount);
+                for (int i = 0; i < superTypeCount; i++) {
+                    superTypes.add(readStrings(in));
+                }
+                int dependencyCount = DataInputOutputUtil.readINT(in);
+                List<BeanDependency> dependencies = new ArrayList<>(dependencyCount);
+                for (int i = 0; i < dependencyCount; i++) {
+                    dependencies.add(new BeanDependency(IOUtil.readUTF(in), readStrings(in), readStrings(in),
+                        in.readBoolean()));
+                }
+                return new BeanDeclaration(offset, superTypes, dependencies);
+            }
+        };
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        DataInputOutputUtil.writeINT(out, values.size());
+        for (String value : values) {
+            IOUtil.writeUTF(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(IOUtil.readUTF(in));
+        }
+        return values;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+}
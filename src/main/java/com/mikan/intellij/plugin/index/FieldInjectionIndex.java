@@ -0,0 +1,208 @@
+package com.mikan.intellij.plugin.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.psi.impl.source.tree.RecursiveLighterASTNodeWalkingVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.PsiDependentFileContent;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Index of annotated instance fields, keyed by the unresolved short name of the annotation.
+ * <p>
+ * Built from the light AST, so indexing never loads full PSI. Every field annotation is indexed, callers look up
+ * the short names they are interested in ({@code Autowired}, {@code Resource}, ...) and only load the files that
+ * contain hits. The platform keeps the index up to date on edits.
+ */
+public class FieldInjectionIndex extends FileBasedIndexExtension<String, List<FieldInjectionSite>> {
+
+    public static final ID<String, List<FieldInjectionSite>> NAME = ID.create(
+        "com.mikan.intellij.plugin.index.FieldInjectionIndex");
+
+    @Override
+    public @NotNull ID<String, List<FieldInjectionSite>> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, List<FieldInjectionSite>, FileContent> getIndexer() {
+        return inputData -> {
+            LighterAST tree = ((PsiDependentFileContent)inputData).getLighterAST();
+            Map<String, List<FieldInjectionSite>> result = new HashMap<>();
+            new RecursiveLighterASTNodeWalkingVisitor(tree) {
+                @Override
+                public void visitNode(@NotNull LighterASTNode element) {
+                    if (element.getTokenType() == JavaElementType.FIELD) {
+                        collectSites(tree, element, result);
+                    }
+                    super.visitNode(element);
+                }
+            }.visitNode(tree.getRoot());
+            return result;
+        };
+    }
+
+    private static void collectSites(LighterAST tree, LighterASTNode field,
+        Map<String, List<FieldInjectionSite>> result) {
+        LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, field, JavaElementType.MODIFIER_LIST);
+        if (modifierList == null
+            || LightTreeUtil.firstChildOfType(tree, modifierList, JavaTokenType.STATIC_KEYWORD) != null) {
+            return;
+        }
+
+        // 同一个字段上重复的注解短名只记录一次
+        Set<String> annotationNames = new LinkedHashSet<>(LightJavaTrees.getAnnotationNames(tree, modifierList));
+        if (annotationNames.isEmpty()) {
+            return;
+        }
+
+        String fieldName = JavaLightTreeUtil.getNameIdentifierText(tree, field);
+        String className = getClassName(tree, field);
+        if (fieldName == null || className == null) {
+            return;
+        }
+
+        FieldInjectionSite site = new FieldInjectionSite(className, fieldName, field.getStartOffset());
+        for (String annotationName : annotationNames) {
+            result.computeIfAbsent(annotationName, key -> new ArrayList<>()).add(site);
+        }
+    }
+
+    private static String getClassName(LighterAST tree, LighterASTNode field) {
+        StringBuilder className = new StringBuilder();
+        LighterASTNode parent = tree.getParent(field);
+        while (parent != null && parent.getTokenType() != JavaElementType.ANONYMOUS_CLASS) {
+            if (parent.getTokenType() == JavaElementType.CLASS) {
+                String name = JavaLightTreeUtil.getNameIdentifierText(tree, parent);
+                if (name == null) {
+                    return null;
+                }
+                className.insert(0, className.isEmpty() ? name : name + ".");
+            }
+            parent = tree.getParent(parent);
+        }
+        // 匿名类中的字段不是 Spring 注入点
+        return parent != null || className.isEmpty() ? null : className.toString();
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<List<FieldInjectionSite>> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<FieldInjectionSite> value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.size());
+                for (FieldInjectionSite site : value) {
+                    IOUtil.writeUTF(out, site.className());
+                    IOUtil.writeUTF(out, site.fieldName());
+                    DataInputOutputUtil.writeINT(out, site.offset());
+                }
+            }
+
+            @Override
+            public List<FieldInjectionSite> read(@NotNull DataInput in) throws IOException {
+                int size = DataInputOutputUtil.readINT(in);
+                List<FieldInjectionSite> sites = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    sites.add(new FieldInjectionSite(IOUtil.readUTF(in), IOUtil.readUTF(in),
+                        DataInputOutputUtil.readINT(in)));
+                }
+                return sites;
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * 包含指定注解字段的文件，只需要加载这些文件的 PSI
+     */
+    public static @NotNull Set<VirtualFile> getFiles(@NotNull Collection<String> shortNames,
+        @NotNull GlobalSearchScope scope) {
+        Set<VirtualFile> files = new LinkedHashSet<>();
+        for (String shortName : shortNames) {
+            files.addAll(FileBasedIndex.getInstance().getContainingFiles(NAME, shortName, scope));
+        }
+        return files;
+    }
+
+    /**
+     * 统计指定注解的字段数，同一个字段上有多个匹配注解时只计一次
+     */
+    public static int countSites(@NotNull Collection<String> shortNames, @NotNull GlobalSearchScope scope) {
+        Map<VirtualFile, Set<Integer>> offsets = new HashMap<>();
+        for (String shortName : shortNames) {
+            FileBasedIndex.getInstance().processValues(NAME, shortName, null, (file, sites) -> {
+                Set<Integer> fileOffsets = offsets.computeIfAbsent(file, key -> new HashSet<>());
+                for (FieldInjectionSite site : sites) {
+                    fileOffsets.add(site.offset());
+                }
+                return true;
+            }, scope);
+        }
+        return offsets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * 文件中指定注解的字段，有多个注解的字段只返回一次
+     */
+    public static @NotNull List<FieldInjectionSite> getSites(@NotNull Collection<String> shortNames,
+        @NotNull VirtualFile file, @NotNull GlobalSearchScope scope) {
+        Map<Integer, FieldInjectionSite> sites = new LinkedHashMap<>();
+        for (String shortName : shortNames) {
+            FileBasedIndex.getInstance().processValues(NAME, shortName, file, (ignored, value) -> {
+                value.forEach(site -> sites.putIfAbsent(site.offset(), site));
+                return true;
+            }, scope);
+        }
+        return List.copyOf(sites.values());
+    }
+
+}
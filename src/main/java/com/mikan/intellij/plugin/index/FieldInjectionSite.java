@@ -0,0 +1,11 @@
+package com.mikan.intellij.plugin.index;
+
+/**
+ * A field annotated with an injection annotation, as recorded by {@link FieldInjectionIndex}.
+ *
+ * @param className 所在类的名称，嵌套类用 {@code .} 连接，例如 {@code Outer.Inner}
+ * @param fieldName 字段名
+ * @param offset    字段在文件中的起始偏移量
+ */
+public record FieldInjectionSite(String className, String fieldName, int offset) {
+}
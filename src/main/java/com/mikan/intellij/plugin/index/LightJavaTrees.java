@@ -0,0 +1,65 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.psi.impl.source.tree.ElementType;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.psi.tree.TokenSet;
+
+/**
+ * Helpers for reading java files from the light AST in the indexes.
+ */
+final class LightJavaTrees {
+
+    /**
+     * 引用文本中跳过泛型参数、空白和注释
+     */
+    private static final TokenSet SKIPPED_IN_REFERENCE = TokenSet.orSet(
+        TokenSet.create(JavaElementType.REFERENCE_PARAMETER_LIST), ElementType.JAVA_COMMENT_OR_WHITESPACE_BIT_SET);
+
+    private LightJavaTrees() {
+    }
+
+    /**
+     * 注解的短名
+     */
+    static List<String> getAnnotationNames(LighterAST tree, LighterASTNode modifierList) {
+        List<String> names = new ArrayList<>();
+        for (LighterASTNode annotation : LightTreeUtil.getChildrenOfType(tree, modifierList,
+            JavaElementType.ANNOTATION)) {
+            String shortName = getAnnotationName(tree, annotation);
+            if (shortName != null) {
+                names.add(shortName);
+            }
+        }
+        return names;
+    }
+
+    static String getAnnotationName(LighterAST tree, LighterASTNode annotation) {
+        LighterASTNode reference = LightTreeUtil.firstChildOfType(tree, annotation,
+            JavaElementType.JAVA_CODE_REFERENCE);
+        // 引用节点下直接的 IDENTIFIER 即为短名
+        return reference == null ? null : JavaLightTreeUtil.getNameIdentifierText(tree, reference);
+    }
+
+    /**
+     * 引用的文本，不包括泛型参数
+     */
+    static String getReferenceText(LighterAST tree, LighterASTNode reference) {
+        return LightTreeUtil.toFilteredString(tree, reference, SKIPPED_IN_REFERENCE);
+    }
+
+    static String getPackageName(LighterAST tree) {
+        LighterASTNode packageStatement = LightTreeUtil.firstChildOfType(tree, tree.getRoot(),
+            JavaElementType.PACKAGE_STATEMENT);
+        LighterASTNode reference = packageStatement == null ? null : LightTreeUtil.firstChildOfType(tree,
+            packageStatement, JavaElementType.JAVA_CODE_REFERENCE);
+        return reference == null ? "" : getReferenceText(tree, reference);
+    }
+
+}
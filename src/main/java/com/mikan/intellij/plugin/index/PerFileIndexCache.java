@@ -0,0 +1,201 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The values of a file based index in a scope, kept in memory per file and updated per changed file.
+ * <p>
+ * The whole scope is read once, after that PSI and VFS changes only mark their files dirty and {@link #update()}
+ * re-reads just those files. A root change or a directory change reads the whole scope again. VFS changes outside the
+ * project content, such as build output and excluded directories, are ignored. A canceled update keeps its files
+ * dirty, so the next update reads them again.
+ */
+public final class PerFileIndexCache<V> implements Disposable {
+
+    private final Project project;
+    private final ID<String, V> indexId;
+    private final Function<Project, GlobalSearchScope> scopeFunction;
+    private final ProjectFileIndex fileIndex;
+
+    private final Set<VirtualFile> dirtyFiles = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuildNeeded = true;
+
+    /**
+     * 文件 -> 索引的 key -> value，只在持有锁时访问
+     */
+    private final Map<VirtualFile, Map<String, V>> valuesByFile = new HashMap<>();
+
+    public PerFileIndexCache(@NotNull Project project, @NotNull ID<String, V> indexId,
+        @NotNull Function<Project, GlobalSearchScope> scopeFunction, @NotNull Disposable parent) {
+        this.project = project;
+        this.indexId = indexId;
+        this.scopeFunction = scopeFunction;
+        this.fileIndex = ProjectFileIndex.getInstance(project);
+        Disposer.register(parent, this);
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                markDirty(event.getFile());
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                markDirty(event.getFile());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                markDirty(event.getFile());
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                markDirty(event.getFile());
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                markDirty(event.getFile());
+            }
+        }, this);
+
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void before(@NotNull List<? extends @NotNull VFileEvent> events) {
+                // 删除和移动之后无法判断文件原来是否在项目内容中
+                for (VFileEvent event : events) {
+                    if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent) {
+                        markChanged(event.getFile());
+                    }
+                }
+            }
+
+            @Override
+            public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (!(event instanceof VFileDeleteEvent)) {
+                        markChanged(event.getFile());
+                    }
+                }
+            }
+        });
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                rebuildNeeded = true;
+            }
+        });
+    }
+
+    private void markChanged(@Nullable VirtualFile file) {
+        // build、out、.gradle 和排除的目录中的变化不影响索引的值，不需要重新读取
+        if (file != null && file.isValid() && !this.fileIndex.isInContent(file)) {
+            return;
+        }
+        // 目录的变化影响其中所有的文件，直接重建
+        if (file == null || file.isDirectory()) {
+            this.rebuildNeeded = true;
+        } else {
+            this.dirtyFiles.add(file);
+        }
+    }
+
+    private void markDirty(PsiFile file) {
+        VirtualFile virtualFile = file == null ? null : file.getVirtualFile();
+        if (virtualFile != null) {
+            this.dirtyFiles.add(virtualFile);
+        }
+    }
+
+    /**
+     * 重新读取变化的文件，需要在 smart mode 的读操作中调用
+     *
+     * @return 是否有变化
+     */
+    public synchronized boolean update() {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        GlobalSearchScope scope = this.scopeFunction.apply(this.project);
+        if (this.rebuildNeeded) {
+            // 先清除标记，重建期间的变化会再次标记，重建被取消时恢复标记
+            this.rebuildNeeded = false;
+            this.dirtyFiles.clear();
+            this.valuesByFile.clear();
+            try {
+                for (String key : index.getAllKeys(this.indexId, this.project)) {
+                    index.processValues(this.indexId, key, null, (file, value) -> {
+                        this.valuesByFile.computeIfAbsent(file, ignored -> new HashMap<>()).put(key, value);
+                        return true;
+                    }, scope);
+                }
+            } catch (ProcessCanceledException e) {
+                this.rebuildNeeded = true;
+                throw e;
+            }
+            return true;
+        }
+
+        boolean changed = false;
+        for (Iterator<VirtualFile> iterator = this.dirtyFiles.iterator(); iterator.hasNext(); ) {
+            VirtualFile file = iterator.next();
+            iterator.remove();
+            Map<String, V> values;
+            try {
+                values = file.isValid() && scope.contains(file)
+                    ? index.getFileData(this.indexId, file, this.project) : Map.of();
+            } catch (ProcessCanceledException e) {
+                this.dirtyFiles.add(file);
+                throw e;
+            }
+            Map<String, V> previous = values.isEmpty() ? this.valuesByFile.remove(file)
+                : this.valuesByFile.put(file, values);
+            changed |= !values.equals(previous == null ? Map.of() : previous);
+        }
+        return changed;
+    }
+
+    /**
+     * 上一次 {@link #update()} 之后的值，调用方需要保证不与 update 并发访问
+     */
+    public @NotNull Map<VirtualFile, Map<String, V>> getValuesByFile() {
+        return Collections.unmodifiableMap(this.valuesByFile);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.mikan.intellij.plugin.index;
+
+/**
+ * A top level concrete class, as recorded by {@link SourceClassIndex}.
+ *
+ * @param qualifiedName 类的限定名
+ * @param offset        类在文件中的起始偏移量
+ * @param lineCount     类的行数，用于按大小排序
+ */
+public record SourceClass(String qualifiedName, int offset, int lineCount) {
+}
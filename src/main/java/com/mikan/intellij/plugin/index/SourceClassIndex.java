@@ -0,0 +1,121 @@
+package com.mikan.intellij.plugin.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.PsiDependentFileContent;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Index of the top level concrete classes of a file, keyed by the short name of the class.
+ * <p>
+ * Production and test sources are indexed alike: the short names of the test classes are looked up to find the
+ * production classes without a test, so no class has to be searched by name. Interfaces, enums, annotations and
+ * abstract classes are not recorded. The platform keeps the index up to date per changed file.
+ */
+public class SourceClassIndex extends FileBasedIndexExtension<String, SourceClass> {
+
+    public static final ID<String, SourceClass> NAME = ID.create("com.mikan.intellij.plugin.index.SourceClassIndex");
+
+    private static final TokenSet NOT_CONCRETE_CLASS = TokenSet.create(JavaTokenType.INTERFACE_KEYWORD,
+        JavaTokenType.ENUM_KEYWORD, JavaTokenType.AT);
+
+    @Override
+    public @NotNull ID<String, SourceClass> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, SourceClass, FileContent> getIndexer() {
+        return inputData -> {
+            LighterAST tree = ((PsiDependentFileContent)inputData).getLighterAST();
+            CharSequence text = inputData.getContentAsText();
+            String packageName = LightJavaTrees.getPackageName(tree);
+            Map<String, SourceClass> result = new HashMap<>();
+            // 只处理顶层类，测试类和被测试的类都是顶层类
+            for (LighterASTNode aClass : LightTreeUtil.getChildrenOfType(tree, tree.getRoot(),
+                JavaElementType.CLASS)) {
+                String name = JavaLightTreeUtil.getNameIdentifierText(tree, aClass);
+                if (name == null || !isConcreteClass(tree, aClass)) {
+                    continue;
+                }
+                int lineCount = StringUtil.countNewLines(text.subSequence(aClass.getStartOffset(),
+                    aClass.getEndOffset())) + 1;
+                result.put(name, new SourceClass(StringUtil.getQualifiedName(packageName, name),
+                    aClass.getStartOffset(), lineCount));
+            }
+            return result;
+        };
+    }
+
+    private static boolean isConcreteClass(LighterAST tree, LighterASTNode aClass) {
+        if (LightTreeUtil.firstChildOfType(tree, aClass, NOT_CONCRETE_CLASS) != null) {
+            return false;
+        }
+        LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, aClass, JavaElementType.MODIFIER_LIST);
+        return modifierList == null
+            || LightTreeUtil.firstChildOfType(tree, modifierList, JavaTokenType.ABSTRACT_KEYWORD) == null;
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<SourceClass> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, SourceClass value) throws IOException {
+                IOUtil.writeUTF(out, value.qualifiedName());
+                DataInputOutputUtil.writeINT(out, value.offset());
+                DataInputOutputUtil.writeINT(out, value.lineCount());
+            }
+
+            @Override
+            public SourceClass read(@NotNull DataInput in) throws IOException {
+                return new SourceClass(IOUtil.readUTF(in), DataInputOutputUtil.readINT(in),
+                    DataInputOutputUtil.readINT(in));
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.List;
+
+/**
+ * A test class, or a base class of tests, that configures a Spring test context, as recorded by
+ * {@link TestContextIndex}.
+ *
+ * @param offset      类在文件中的起始偏移量
+ * @param isAbstract  是否为抽象类，抽象类不会单独启动 context
+ * @param superClass  父类可能的限定名，没有父类时为空
+ * @param annotations 影响 context 缓存 key 的类注解的文本，不包括空白和注释
+ * @param mockBeans   {@code @MockBean} 等字段的注解和类型的文本
+ */
+public record TestContextDeclaration(int offset, boolean isAbstract, List<String> superClass,
+                                     List<String> annotations, List<String> mockBeans) {
+}
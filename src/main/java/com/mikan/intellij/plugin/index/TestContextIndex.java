@@ -0,0 +1,230 @@
+package com.mikan.intellij.plugin.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.JavaLightTreeUtil;
+import com.intellij.psi.impl.source.tree.ElementType;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.PsiDependentFileContent;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Index of the Spring test context configuration of the top level classes, keyed by the qualified name of the class.
+ * <p>
+ * Records the class annotations that are part of the context cache key of the Spring TestContext framework and the
+ * {@code @MockBean} and {@code @SpyBean} fields, as text from the light AST. A class without them is recorded only
+ * when it extends another class and has test methods, so it inherits the configuration of its base class. The
+ * platform keeps the index up to date per changed file.
+ */
+public class TestContextIndex extends FileBasedIndexExtension<String, TestContextDeclaration> {
+
+    public static final ID<String, TestContextDeclaration> NAME = ID.create(
+        "com.mikan.intellij.plugin.index.TestContextIndex");
+
+    /**
+     * 启动 Spring context 的注解
+     */
+    public static final Set<String> BOOTSTRAP_ANNOTATIONS = Set.of("SpringBootTest", "WebMvcTest", "WebFluxTest",
+        "DataJpaTest", "DataJdbcTest", "DataMongoTest", "DataRedisTest", "DataR2dbcTest", "JdbcTest", "JooqTest",
+        "JsonTest", "RestClientTest", "GraphQlTest", "ContextConfiguration", "ContextHierarchy", "SpringJUnitConfig",
+        "SpringJUnitWebConfig");
+
+    /**
+     * 修改 context 配置的注解，AutoConfigure 开头的注解也会修改
+     */
+    public static final Set<String> CUSTOMIZING_ANNOTATIONS = Set.of("ActiveProfiles", "TestPropertySource",
+        "TestPropertySources", "Import", "ImportAutoConfiguration", "OverrideAutoConfiguration", "MockBean",
+        "MockBeans", "SpyBean", "SpyBeans", "DirtiesContext", "WebAppConfiguration", "BootstrapWith");
+
+    public static final Set<String> MOCK_BEAN_ANNOTATIONS = Set.of("MockBean", "SpyBean", "MockitoBean",
+        "MockitoSpyBean");
+
+    private static final String AUTO_CONFIGURE = "AutoConfigure";
+
+    private static final Set<String> TEST_ANNOTATIONS = Set.of("Test", "ParameterizedTest", "RepeatedTest",
+        "TestFactory", "TestTemplate");
+
+    @Override
+    public @NotNull ID<String, TestContextDeclaration> getName() {
+        return NAME;
+    }
+
+    /**
+     * 注解是否影响 context 的缓存 key
+     */
+    public static boolean isContextAnnotation(@NotNull String shortName) {
+        return BOOTSTRAP_ANNOTATIONS.contains(shortName) || CUSTOMIZING_ANNOTATIONS.contains(shortName)
+            || shortName.startsWith(AUTO_CONFIGURE);
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, TestContextDeclaration, FileContent> getIndexer() {
+        return inputData -> {
+            LighterAST tree = ((PsiDependentFileContent)inputData).getLighterAST();
+            TypeResolver typeResolver = null;
+            String packageName = null;
+            Map<String, TestContextDeclaration> result = new HashMap<>();
+            // 只处理顶层类，嵌套的测试类与外部类共享 context
+            for (LighterASTNode aClass : LightTreeUtil.getChildrenOfType(tree, tree.getRoot(),
+                JavaElementType.CLASS)) {
+                String name = JavaLightTreeUtil.getNameIdentifierText(tree, aClass);
+                LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, aClass,
+                    JavaElementType.MODIFIER_LIST);
+                if (name == null || modifierList == null) {
+                    continue;
+                }
+
+                List<String> annotations = new ArrayList<>();
+                for (LighterASTNode annotation : LightTreeUtil.getChildrenOfType(tree, modifierList,
+                    JavaElementType.ANNOTATION)) {
+                    String annotationName = LightJavaTrees.getAnnotationName(tree, annotation);
+                    if (annotationName != null && isContextAnnotation(annotationName)) {
+                        annotations.add(getText(tree, annotation));
+                    }
+                }
+                List<String> mockBeans = getMockBeans(tree, aClass);
+                LighterASTNode superClass = getSuperClass(tree, aClass);
+                if (annotations.isEmpty() && mockBeans.isEmpty()
+                    && (superClass == null || !hasTestMethod(tree, aClass))) {
+                    continue;
+                }
+
+                // 大多数文件没有需要记录的类，用到时才读取 import
+                if (typeResolver == null) {
+                    typeResolver = new TypeResolver(tree);
+                    packageName = LightJavaTrees.getPackageName(tree);
+                }
+                boolean isAbstract = LightTreeUtil.firstChildOfType(tree, modifierList,
+                    JavaTokenType.ABSTRACT_KEYWORD) != null;
+                List<String> superClassNames = superClass == null ? List.of()
+                    : typeResolver.resolve(LightJavaTrees.getReferenceText(tree, superClass));
+                result.put(StringUtil.getQualifiedName(packageName, name), new TestContextDeclaration(
+                    aClass.getStartOffset(), isAbstract, superClassNames, annotations, mockBeans));
+            }
+            return result;
+        };
+    }
+
+    private static List<String> getMockBeans(LighterAST tree, LighterASTNode aClass) {
+        List<String> mockBeans = new ArrayList<>();
+        for (LighterASTNode field : LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.FIELD)) {
+            LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, field, JavaElementType.MODIFIER_LIST);
+            LighterASTNode type = LightTreeUtil.firstChildOfType(tree, field, JavaElementType.TYPE);
+            if (modifierList == null || type == null) {
+                continue;
+            }
+            for (LighterASTNode annotation : LightTreeUtil.getChildrenOfType(tree, modifierList,
+                JavaElementType.ANNOTATION)) {
+                if (MOCK_BEAN_ANNOTATIONS.contains(LightJavaTrees.getAnnotationName(tree, annotation))) {
+                    mockBeans.add(getText(tree, annotation) + " " + getText(tree, type));
+                }
+            }
+        }
+        return mockBeans;
+    }
+
+    private static LighterASTNode getSuperClass(LighterAST tree, LighterASTNode aClass) {
+        LighterASTNode extendsList = LightTreeUtil.firstChildOfType(tree, aClass, JavaElementType.EXTENDS_LIST);
+        return extendsList == null ? null
+            : LightTreeUtil.firstChildOfType(tree, extendsList, JavaElementType.JAVA_CODE_REFERENCE);
+    }
+
+    private static boolean hasTestMethod(LighterAST tree, LighterASTNode aClass) {
+        for (LighterASTNode method : LightTreeUtil.getChildrenOfType(tree, aClass, JavaElementType.METHOD)) {
+            LighterASTNode modifierList = LightTreeUtil.firstChildOfType(tree, method, JavaElementType.MODIFIER_LIST);
+            if (modifierList != null && LightJavaTrees.getAnnotationNames(tree, modifierList).stream()
+                .anyMatch(TEST_ANNOTATIONS::contains)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 节点的文本，不包括空白和注释，格式不同的相同注解得到相同的文本
+     */
+    private static String getText(LighterAST tree, LighterASTNode node) {
+        return LightTreeUtil.toFilteredString(tree, node, ElementType.JAVA_COMMENT_OR_WHITESPACE_BIT_SET);
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<TestContextDeclaration> getValueExternalizer() {
+        return new DataExternalizer<>() {
+            @Override
+            public void save(@NotNull DataOutput out, TestContextDeclaration value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.offset());
+                out.writeBoolean(value.isAbstract());
+                writeStrings(out, value.superClass());
+                writeStrings(out, value.annotations());
+                writeStrings(out, value.mockBeans());
+            }
+
+            @Override
+            public TestContextDeclaration read(@NotNull DataInput in) throws IOException {
+                return new TestContextDeclaration(DataInputOutputUtil.readINT(in), in.readBoolean(), readStrings(in),
+                    readStrings(in), readStrings(in));
+            }
+        };
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        DataInputOutputUtil.writeINT(out, values.size());
+        for (String value : values) {
+            IOUtil.writeUTF(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(IOUtil.readUTF(in));
+        }
+        return values;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+}
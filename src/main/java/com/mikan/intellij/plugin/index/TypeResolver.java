@@ -0,0 +1,67 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.intellij.lang.LighterAST;
+import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.tree.JavaElementType;
+import com.intellij.psi.impl.source.tree.LightTreeUtil;
+
+/**
+ * 根据文件的 package 和 import 推断类型可能的限定名，不做 resolve，可以在索引中使用
+ */
+final class TypeResolver {
+
+    private final String packageName;
+    private final Map<String, String> singleImports = new HashMap<>();
+    private final List<String> onDemandImports = new ArrayList<>();
+
+    TypeResolver(LighterAST tree) {
+        this.packageName = LightJavaTrees.getPackageName(tree);
+        LighterASTNode importList = LightTreeUtil.firstChildOfType(tree, tree.getRoot(),
+            JavaElementType.IMPORT_LIST);
+        if (importList == null) {
+            return;
+        }
+        for (LighterASTNode statement : LightTreeUtil.getChildrenOfType(tree, importList,
+            JavaElementType.IMPORT_STATEMENT)) {
+            LighterASTNode reference = LightTreeUtil.firstChildOfType(tree, statement,
+                JavaElementType.JAVA_CODE_REFERENCE);
+            if (reference == null) {
+                continue;
+            }
+            String importName = LightJavaTrees.getReferenceText(tree, reference);
+            if (LightTreeUtil.firstChildOfType(tree, statement, JavaTokenType.ASTERISK) != null) {
+                this.onDemandImports.add(importName);
+            } else {
+                this.singleImports.put(StringUtil.getShortName(importName), importName);
+            }
+        }
+    }
+
+    List<String> resolve(String typeName) {
+        // 限定名的第一段可能是包，也可能是外部类
+        String firstName = StringUtil.substringBefore(typeName, ".");
+        String rest = firstName == null ? "" : typeName.substring(firstName.length());
+        String importName = this.singleImports.get(firstName == null ? typeName : firstName);
+        if (importName != null) {
+            return List.of(importName + rest);
+        }
+
+        List<String> candidates = new ArrayList<>();
+        if (firstName != null) {
+            candidates.add(typeName);
+        }
+        candidates.add(StringUtil.getQualifiedName(this.packageName, typeName));
+        for (String onDemandImport : this.onDemandImports) {
+            candidates.add(onDemandImport + "." + typeName);
+        }
+        return candidates;
+    }
+
+}
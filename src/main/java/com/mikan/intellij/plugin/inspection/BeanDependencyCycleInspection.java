@@ -0,0 +1,78 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.stream.Collectors;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.reference.RefElement;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Dependency cycles between Spring beans through injected fields and constructor parameters.
+ * <p>
+ * The graph is kept by {@link BeanDependencyGraph} and updated per changed file, so running the inspection again
+ * after an edit only re-reads that file. A cycle through field injection is reported separately, it starts to fail
+ * at startup once {@link FieldInjectionQuickFix} converts the fields to constructor parameters.
+ */
+public class BeanDependencyCycleInspection extends GlobalInspectionTool {
+
+    public static final String SHORT_NAME = "BeanDependencyCycle";
+
+    @Override
+    public void runInspection(@NotNull AnalysisScope scope, @NotNull InspectionManager manager,
+        @NotNull GlobalInspectionContext globalContext, @NotNull ProblemDescriptionsProcessor processor) {
+        Project project = globalContext.getProject();
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        for (BeanDependencyGraph.Cycle cycle : BeanDependencyGraph.getInstance(project).getCycles()) {
+            String message = InspectionBundle.message(cycle.fieldInjection()
+                ? "inspection.bean.cycle.field.problem.descriptor" : "inspection.bean.cycle.problem.descriptor",
+                toString(cycle));
+            for (String bean : cycle.beans()) {
+                PsiClass psiClass = facade.findClass(bean, projectScope);
+                if (psiClass == null || !scope.contains(psiClass)) {
+                    continue;
+                }
+                RefElement refElement = globalContext.getRefManager().getReference(psiClass);
+                if (refElement == null) {
+                    continue;
+                }
+                PsiElement anchor = psiClass.getNameIdentifier() != null ? psiClass.getNameIdentifier() : psiClass;
+                ProblemDescriptor descriptor = manager.createProblemDescriptor(anchor, message, false,
+                    LocalQuickFix.EMPTY_ARRAY, ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+                processor.addProblemElement(refElement, descriptor);
+            }
+        }
+    }
+
+    /**
+     * 例如 OrderService -> UserService -> OrderService
+     */
+    public static @NotNull String toString(@NotNull BeanDependencyGraph.Cycle cycle) {
+        return cycle.path().stream().map(StringUtil::getShortName).collect(Collectors.joining(" -> "));
+    }
+
+    @Override
+    public boolean isGraphNeeded() {
+        // 依赖图由 BeanDependencyGraph 维护，不需要构建 reference graph
+        return false;
+    }
+
+    @Override
+    public @NotNull String getShortName() {
+        return SHORT_NAME;
+    }
+
+}
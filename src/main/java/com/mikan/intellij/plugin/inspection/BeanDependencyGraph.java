@@ -0,0 +1,240 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.mikan.intellij.plugin.index.BeanDeclaration;
+import com.mikan.intellij.plugin.index.BeanDependency;
+import com.mikan.intellij.plugin.index.BeanDependencyIndex;
+import com.mikan.intellij.plugin.index.PerFileIndexCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The dependency graph of the Spring beans in production sources and its cycles.
+ * <p>
+ * The beans of each file are read from {@link BeanDependencyIndex} into a {@link PerFileIndexCache}, so the next
+ * query after an edit re-reads only the changed files and recomputes the strongly connected components with
+ * Tarjan's algorithm, which is linear in the size of the graph. Field injection is an edge too, so a cycle
+ * that Spring resolves today through field injection is reported before it is converted to constructor injection.
+ */
+@Service(Service.Level.PROJECT)
+public final class BeanDependencyGraph implements Disposable {
+
+    private final Project project;
+
+    private final PerFileIndexCache<BeanDeclaration> cache;
+
+    private List<Cycle> cycles;
+    private Set<String> cyclesShortNames;
+
+    public BeanDependencyGraph(@NotNull Project project) {
+        this.project = project;
+        this.cache = new PerFileIndexCache<>(project, BeanDependencyIndex.NAME,
+            GlobalSearchScopesCore::projectProductionScope, this);
+    }
+
+    public static @NotNull BeanDependencyGraph getInstance(@NotNull Project project) {
+        return project.getService(BeanDependencyGraph.class);
+    }
+
+    /**
+     * 所有的依赖环，只重新读取变化的文件，需要在 smart mode 的读操作中调用
+     */
+    public synchronized @NotNull List<Cycle> getCycles() {
+        Set<String> shortNames = FieldInjectionInspection.getInjectionShortNames(this.project);
+        if (this.cache.update() || this.cycles == null || !shortNames.equals(this.cyclesShortNames)) {
+            this.cycles = this.findCycles(shortNames);
+            this.cyclesShortNames = shortNames;
+        }
+        return this.cycles;
+    }
+
+    private List<Cycle> findCycles(Set<String> shortNames) {
+        Map<String, BeanDeclaration> beans = new HashMap<>();
+        Map<String, List<String>> implementations = new HashMap<>();
+        for (Map<String, BeanDeclaration> fileBeans : this.cache.getValuesByFile().values()) {
+            fileBeans.forEach((className, declaration) -> {
+                beans.put(className, declaration);
+                for (List<String> superType : declaration.superTypes()) {
+                    for (String candidate : superType) {
+                        implementations.computeIfAbsent(candidate, key -> new ArrayList<>()).add(className);
+                    }
+                }
+            });
+        }
+
+        // 1. 构建邻接表，边上记录是否为字段注入
+        Map<String, Map<String, Boolean>> edges = new HashMap<>();
+        beans.forEach((className, declaration) -> {
+            Map<String, Boolean> targets = new LinkedHashMap<>();
+            for (BeanDependency dependency : declaration.dependencies()) {
+                boolean fieldInjection = !dependency.constructor();
+                if (fieldInjection && dependency.annotations().stream().noneMatch(shortNames::contains)) {
+                    continue;
+                }
+                String target = this.resolve(dependency, beans, implementations);
+                if (target != null) {
+                    targets.merge(target, fieldInjection, Boolean::logicalOr);
+                }
+            }
+            edges.put(className, targets);
+        });
+
+        // 2. 强连通分量中的每个环
+        List<Cycle> result = new ArrayList<>();
+        for (List<String> component : new Tarjan(edges).run()) {
+            String start = component.get(0);
+            if (component.size() == 1 && !edges.get(start).containsKey(start)) {
+                continue;
+            }
+            List<String> path = this.findCyclePath(start, new HashSet<>(component), edges);
+            boolean fieldInjection = false;
+            for (int i = 0; i + 1 < path.size(); i++) {
+                fieldInjection |= edges.get(path.get(i)).get(path.get(i + 1));
+            }
+            result.add(new Cycle(Set.copyOf(component), List.copyOf(path), fieldInjection));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private String resolve(BeanDependency dependency, Map<String, BeanDeclaration> beans,
+        Map<String, List<String>> implementations) {
+        for (String candidate : dependency.typeCandidates()) {
+            if (beans.containsKey(candidate)) {
+                return candidate;
+            }
+            // 依赖接口时只有唯一的实现才能确定
+            List<String> implementationNames = implementations.get(candidate);
+            if (implementationNames != null) {
+                return implementationNames.size() == 1 ? implementationNames.get(0) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在强连通分量中从 start 出发回到 start 的最短路径
+     */
+    private List<String> findCyclePath(String start, Set<String> component, Map<String, Map<String, Boolean>> edges) {
+        Map<String, String> previous = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            for (String next : edges.get(current).keySet()) {
+                if (next.equals(start)) {
+                    List<String> path = new ArrayList<>();
+                    path.add(start);
+                    for (String node = current; !node.equals(start); node = previous.get(node)) {
+                        path.add(1, node);
+                    }
+                    path.add(start);
+                    return path;
+                }
+                if (component.contains(next) && previous.putIfAbsent(next, current) == null) {
+                    queue.add(next);
+                }
+            }
+        }
+        return List.of(start, start);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @param beans          环所在的强连通分量
+     * @param path           经过第一个 bean 的一个最短环，首尾相同
+     * @param fieldInjection 环上是否有字段注入，转换成构造方法注入之后会在启动时失败
+     */
+    public record Cycle(Set<String> beans, List<String> path, boolean fieldInjection) {
+    }
+
+    /**
+     * 非递归的 Tarjan 算法，避免很长的依赖链导致栈溢出
+     */
+    private static final class Tarjan {
+
+        private final Map<String, Map<String, Boolean>> edges;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+        private final List<List<String>> components = new ArrayList<>();
+        private int index;
+
+        Tarjan(Map<String, Map<String, Boolean>> edges) {
+            this.edges = edges;
+        }
+
+        List<List<String>> run() {
+            for (String node : this.edges.keySet()) {
+                if (!this.indexes.containsKey(node)) {
+                    this.strongConnect(node);
+                }
+            }
+            return this.components;
+        }
+
+        private void strongConnect(String root) {
+            Deque<Map.Entry<String, Iterator<String>>> callStack = new ArrayDeque<>();
+            this.visit(root, callStack);
+            while (!callStack.isEmpty()) {
+                Map.Entry<String, Iterator<String>> frame = callStack.peek();
+                String node = frame.getKey();
+                Iterator<String> successors = frame.getValue();
+                if (successors.hasNext()) {
+                    String next = successors.next();
+                    if (!this.indexes.containsKey(next)) {
+                        this.visit(next, callStack);
+                    } else if (this.onStack.contains(next)) {
+                        this.lowLinks.put(node, Math.min(this.lowLinks.get(node), this.indexes.get(next)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    String parent = callStack.peek().getKey();
+                    this.lowLinks.put(parent, Math.min(this.lowLinks.get(parent), this.lowLinks.get(node)));
+                }
+                if (this.lowLinks.get(node).equals(this.indexes.get(node))) {
+                    List<String> component = new ArrayList<>();
+                    String member;
+                    do {
+                        member = this.stack.pop();
+                        this.onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(node));
+                    this.components.add(component);
+                }
+            }
+        }
+
+        private void visit(String node, Deque<Map.Entry<String, Iterator<String>>> callStack) {
+            this.indexes.put(node, this.index);
+            this.lowLinks.put(node, this.index);
+            this.index++;
+            this.stack.push(node);
+            this.onStack.add(node);
+            Map<String, Boolean> successors = this.edges.getOrDefault(node, Map.of());
+            callStack.push(Map.entry(node, successors.keySet().iterator()));
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.Set;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiForStatement;
+import com.intellij.psi.PsiForeachStatement;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiLoopStatement;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.InheritanceUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Spring bean lookups through {@code BeanFactory.getBean} or {@code ObjectProvider.getObject} on hot paths: in loops,
+ * in lambdas passed to streams or {@code forEach}, and in the methods of controllers and {@code @Scheduled} methods.
+ * <p>
+ * Every lookup goes through the bean definition map and the scope, while an injected reference is a field read. Calls
+ * are filtered by method name before resolving, so a file without lookups is checked without any resolve.
+ */
+public class BeanLookupInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    public static final String SHORT_NAME = "BeanLookup";
+
+    static final String BEAN_FACTORY = "org.springframework.beans.factory.BeanFactory";
+    static final String OBJECT_FACTORY = "org.springframework.beans.factory.ObjectFactory";
+
+    private static final Set<String> BEAN_FACTORY_METHODS = Set.of("getBean");
+    private static final Set<String> OBJECT_PROVIDER_METHODS = Set.of("getObject", "getIfAvailable", "getIfUnique");
+
+    private static final Set<String> CONTROLLER_ANNOTATIONS = Set.of(
+        "org.springframework.web.bind.annotation.RestController", "org.springframework.stereotype.Controller");
+    private static final String SCHEDULED = "org.springframework.scheduling.annotation.Scheduled";
+
+    /**
+     * 接收 lambda 时会对每个元素执行的方法，例如 stream().map(...) 和 forEach(...)
+     */
+    private static final Set<String> ITERATING_TYPES = Set.of("java.util.stream.BaseStream", "java.lang.Iterable",
+        "java.util.Map", "java.util.Optional");
+
+    private final HoistBeanLookupQuickFix hoistBeanLookupQuickFix = new HoistBeanLookupQuickFix();
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        // 测试中可以直接从 context 中查找 bean
+        if (TestSourceUtil.isInTestSourceContent(holder.getFile())) {
+            return PsiElementVisitor.EMPTY_VISITOR;
+        }
+
+        return new JavaElementVisitor() {
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                checkCall(expression, holder);
+            }
+        };
+    }
+
+    private void checkCall(PsiMethodCallExpression expression, ProblemsHolder holder) {
+        // 先按方法名过滤，只有可能是查找 bean 的调用才 resolve
+        String name = expression.getMethodExpression().getReferenceName();
+        if (name == null || (!BEAN_FACTORY_METHODS.contains(name) && !OBJECT_PROVIDER_METHODS.contains(name))) {
+            return;
+        }
+        String hotPath = getHotPath(expression);
+        if (hotPath == null || !isBeanLookup(expression, name)) {
+            return;
+        }
+
+        PsiElement anchor = expression.getMethodExpression().getReferenceNameElement();
+        String message = InspectionBundle.message("inspection.bean.lookup.problem.descriptor", name,
+            InspectionBundle.message(hotPath));
+        LocalQuickFix[] fixes = HoistBeanLookupQuickFix.isAvailable(expression)
+            ? new LocalQuickFix[] {this.hoistBeanLookupQuickFix} : LocalQuickFix.EMPTY_ARRAY;
+        holder.registerProblem(anchor != null ? anchor : expression, message, ProblemHighlightType.WARNING, fixes);
+    }
+
+    static boolean isBeanLookup(@NotNull PsiMethodCallExpression expression, @NotNull String name) {
+        PsiMethod method = expression.resolveMethod();
+        PsiClass containingClass = method == null ? null : method.getContainingClass();
+        // 非严格的判断包含类自身
+        return InheritanceUtil.isInheritor(containingClass, false,
+            BEAN_FACTORY_METHODS.contains(name) ? BEAN_FACTORY : OBJECT_FACTORY);
+    }
+
+    /**
+     * 调用所在的热点路径，先检查语法结构，最后才检查所在方法和类的注解
+     *
+     * @return 热点路径描述的 key，不在热点路径上时返回 null
+     */
+    private static @Nullable String getHotPath(PsiMethodCallExpression expression) {
+        PsiElement child = expression;
+        for (PsiElement parent = expression.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof PsiLoopStatement loop && isRepeated(loop, child)) {
+                return "inspection.bean.lookup.loop";
+            }
+            if (parent instanceof PsiLambdaExpression lambda && isIteratingLambda(lambda)) {
+                return "inspection.bean.lookup.stream";
+            }
+            if (parent instanceof PsiMethod method) {
+                return getHotMethod(method);
+            }
+            // 初始化块、字段初始值和内部类的成员只执行一次或者另外检查
+            if (parent instanceof PsiMember) {
+                return null;
+            }
+            child = parent;
+        }
+        return null;
+    }
+
+    /**
+     * 除了 for 的初始化和 for-each 遍历的集合，循环的其他部分每次迭代都执行
+     */
+    private static boolean isRepeated(PsiLoopStatement loop, PsiElement child) {
+        if (loop instanceof PsiForStatement forStatement) {
+            return child != forStatement.getInitialization();
+        }
+        if (loop instanceof PsiForeachStatement foreachStatement) {
+            return child != foreachStatement.getIteratedValue();
+        }
+        return true;
+    }
+
+    private static boolean isIteratingLambda(PsiLambdaExpression lambda) {
+        if (!(lambda.getParent() instanceof PsiExpressionList arguments)
+            || !(arguments.getParent() instanceof PsiMethodCallExpression call)) {
+            return false;
+        }
+        PsiMethod method = call.resolveMethod();
+        PsiClass containingClass = method == null ? null : method.getContainingClass();
+        return ITERATING_TYPES.stream().anyMatch(type -> InheritanceUtil.isInheritor(containingClass, false, type));
+    }
+
+    private static @Nullable String getHotMethod(PsiMethod method) {
+        if (method.isConstructor()) {
+            return null;
+        }
+        if (method.hasAnnotation(SCHEDULED)) {
+            return "inspection.bean.lookup.scheduled";
+        }
+        PsiClass containingClass = method.getContainingClass();
+        if (containingClass != null && CONTROLLER_ANNOTATIONS.stream().anyMatch(containingClass::hasAnnotation)) {
+            return "inspection.bean.lookup.controller";
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.mikan.intellij.plugin.inspection;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.mikan.intellij.plugin.intention.SpringTestConversion;
+import com.mikan.intellij.plugin.intention.SpringTestConverter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Convert a Spring test class to a plain Mockito unit test of its subject, so it starts no context at all.
+ * <p>
+ * Only the test classes {@link SpringTestConverter} can convert are converted: one injected subject and only
+ * {@code @MockBean} fields besides it. The fix is offered for every reported test class and checks this when applied.
+ */
+public class ConvertToMockitoTestQuickFix implements LocalQuickFix {
+
+    private static final SpringTestConverter CONVERTER = new SpringTestConverter();
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return InspectionBundle.message("inspection.test.context.convert.quickfix");
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return this.getName();
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiClass testClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class, false);
+        SpringTestConversion conversion = testClass == null ? null : CONVERTER.plan(testClass);
+        if (conversion == null) {
+            Messages.showErrorDialog(project, InspectionBundle.message("inspection.test.context.convert.unavailable"),
+                this.getName());
+            return;
+        }
+        WriteCommandAction.writeCommandAction(project).withName(this.getName())
+            .run(() -> CONVERTER.apply(conversion, testClass));
+    }
+
+}
@@ -1,229 +1,142 @@
 package com.mikan.intellij.plugin.inspection;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 
 import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
-import com.intellij.codeInspection.InspectionManager;
-import com.intellij.codeInspection.LocalQuickFix;
-import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.codeInspection.util.IntentionFamilyName;
-import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.options.OptPane;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.ProjectRootManager;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiAnnotation;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiCodeBlock;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiField;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiImportList;
-import com.intellij.psi.PsiImportStatement;
 import com.intellij.psi.PsiJavaFile;
-import com.intellij.psi.PsiKeyword;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifier;
-import com.intellij.psi.PsiModifierList;
-import com.intellij.psi.PsiParameterList;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.mikan.intellij.plugin.metrics.Metric;
+import com.mikan.intellij.plugin.metrics.PluginMetrics;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 /**
  * Field injection inspection
+ * <p>
+ * Runs in dumb mode too: while indexing the annotations are matched as text against the imports, without the quick
+ * fix. The daemon restarts when indexing finishes and the exact resolving check replaces it.
  *
  * @author mikan
  * @date 2024-07-28 16:03
  */
-public class FieldInjectionInspection extends AbstractBaseJavaLocalInspectionTool {
+public class FieldInjectionInspection extends AbstractBaseJavaLocalInspectionTool implements DumbAware {
 
-    private static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
-    private static final String RESOURCE = "javax.annotation.Resource";
+    static final String SHORT_NAME = "FieldInjection";
 
-    private static final List<String> ANNOTATIONS = List.of(AUTOWIRED, RESOURCE);
+    static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+    static final String RESOURCE = "javax.annotation.Resource";
 
-    private final FieldInjectionQuickFix fieldInjectionQuickFix = new FieldInjectionQuickFix();
-
-    @Override
-    public ProblemDescriptor @Nullable [] checkField(@NotNull PsiField field, @NotNull InspectionManager manager,
-        boolean isOnTheFly) {
-        boolean inTestSourceContent = ProjectRootManager.getInstance(manager.getProject())
-            .getFileIndex()
-            .isInTestSourceContent(field.getContainingFile().getVirtualFile());
-        if (inTestSourceContent) {
-            return null;
-        }
-
-        PsiAnnotation[] annotations = field.getAnnotations();
-        for (PsiAnnotation annotation : annotations) {
-            if (ANNOTATIONS.contains(annotation.getQualifiedName())) {
-                ProblemDescriptor problemDescriptor = manager.createProblemDescriptor(field,
-                    InspectionBundle.message("inspection.field.injection.problem.descriptor"),
-                    fieldInjectionQuickFix,
-                    ProblemHighlightType.WARNING,
-                    isOnTheFly);
-                return new ProblemDescriptor[] {problemDescriptor};
-            }
-        }
-
-        return null;
-    }
-
-    private static class FieldInjectionQuickFix implements LocalQuickFix {
-
-        @Override
-        public @IntentionName @NotNull String getName() {
-            return InspectionBundle.message("inspection.field.injection.use.quickfix");
-        }
-
-        @Override
-        public @IntentionFamilyName @NotNull String getFamilyName() {
-            return this.getName();
-        }
-
-        @Override
-        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-            PsiField psiField = (PsiField)descriptor.getPsiElement();
-            PsiClass containingClass = PsiTreeUtil.getParentOfType(psiField, PsiClass.class);
-            if (containingClass == null) {
-                return;
-            }
-
-            PsiMethod constructor = this.buildConstructor(project, containingClass);
-            containingClass.add(constructor);
-        }
-
-        private @NotNull PsiMethod buildConstructor(@NotNull Project project, PsiClass containingClass) {
-            String className = containingClass.getName();
-            assert className != null;
+    static final List<String> DEFAULT_ANNOTATIONS = List.of(AUTOWIRED, RESOURCE, "jakarta.annotation.Resource",
+        "javax.inject.Inject", "jakarta.inject.Inject");
 
-            PsiElementFactory factory = JavaPsiFacade.getInstance(project).getElementFactory();
-            PsiMethod constructor = factory.createConstructor(className);
-            this.addAutowiredAnnotation(containingClass, constructor, factory);
+    /**
+     * 注入注解的限定名，可以在 inspection 设置中修改
+     */
+    public List<String> annotations = new ArrayList<>(DEFAULT_ANNOTATIONS);
 
-            PsiParameterList parameterList = constructor.getParameterList();
-            PsiCodeBlock constructorBody = constructor.getBody();
-            assert constructorBody != null;
+    /**
+     * 是否同时检查被注入注解标注的注解
+     */
+    public boolean detectMetaAnnotations = false;
 
-            PsiField[] fields = containingClass.getFields();
-            for (PsiField field : fields) {
-                if (this.isStaticField(field)) {
-                    continue;
-                }
-                // 字段删除 @Autowired 或 @Resource 注解
-                this.deleteFiledInjectionAnnotation(field);
-                // 字段添加 private 和 final 修饰符
-                this.addPrivateModifier(field, factory);
-                this.addFinalModifier(field, factory);
-
-                String fieldName = field.getName();
-                // 添加构造方法参数
-                parameterList.add(factory.createParameter(fieldName, field.getType()));
-                // 添加构造方法参数赋值
-                constructorBody.add(factory.createStatementFromText(
-                    "this." + fieldName + " = " + fieldName + ";", null));
-            }
-
-            return constructor;
-        }
-
-        private void addAutowiredAnnotation(PsiClass containingClass, PsiMethod constructor,
-            PsiElementFactory factory) {
-            this.addAutowiredAnnotation(constructor, factory);
-            this.addAutowiredImport(containingClass, factory);
-        }
-
-        private void addAutowiredAnnotation(PsiMethod constructor, PsiElementFactory factory) {
-            PsiElement annotation = factory.createAnnotationFromText("@Autowired", null);
-            PsiModifierList modifierList = constructor.getModifierList();
-            PsiElement firstChild = modifierList.getFirstChild();
-            modifierList.addBefore(annotation, firstChild);
-        }
+    private final FieldInjectionQuickFix fieldInjectionQuickFix = new FieldInjectionQuickFix();
 
-        private void addAutowiredImport(PsiClass containingClass, PsiElementFactory factory) {
-            PsiFile psiFile = containingClass.getContainingFile();
-            if (!(psiFile instanceof PsiJavaFile containingFile)) {
-                return;
-            }
+    private volatile CompiledMatcher compiledMatcher;
 
-            PsiImportList importList = containingFile.getImportList();
-            if (importList == null) {
-                return;
-            }
+    @Override
+    public @NotNull OptPane getOptionsPane() {
+        return OptPane.pane(
+            OptPane.stringList("annotations",
+                InspectionBundle.message("inspection.field.injection.option.annotations")),
+            OptPane.checkbox("detectMetaAnnotations",
+                InspectionBundle.message("inspection.field.injection.option.meta.annotations")));
+    }
 
-            if (this.hasAutowiredImport(importList)) {
-                return;
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        // 每个文件只判断一次是否为测试源码
+        if (TestSourceUtil.isInTestSourceContent(holder.getFile())) {
+            return PsiElementVisitor.EMPTY_VISITOR;
+        }
+
+        InjectionAnnotationMatcher matcher = this.getMatcher();
+        if (DumbService.isDumb(holder.getProject()) && holder.getFile() instanceof PsiJavaFile javaFile) {
+            return this.buildSyntacticVisitor(holder, matcher, InjectionAnnotationMatcher.getImportedNames(javaFile));
+        }
+        return new JavaElementVisitor() {
+            @Override
+            public void visitField(@NotNull PsiField field) {
+                long start = PluginMetrics.start();
+                checkField(field, matcher, holder);
+                PluginMetrics.stop(Metric.INSPECTION_CHECK_FIELD, start);
             }
+        };
+    }
 
-            PsiImportStatement psiImportStatement = factory.createImportStatementOnDemand(AUTOWIRED);
-            importList.add(psiImportStatement);
-
-            JavaCodeStyleManager.getInstance(containingClass.getProject())
-                .optimizeImports(containingFile);
-        }
-
-        private boolean hasAutowiredImport(PsiImportList importList) {
-            for (PsiImportStatement importStatement : importList.getImportStatements()) {
-                if (AUTOWIRED.equals(importStatement.getQualifiedName())) {
-                    return true;
+    /**
+     * 索引不可用时的检查，不 resolve 注解，也不提供需要 resolve 的 quick fix
+     */
+    private PsiElementVisitor buildSyntacticVisitor(ProblemsHolder holder, InjectionAnnotationMatcher matcher,
+        Set<String> imports) {
+        return new JavaElementVisitor() {
+            @Override
+            public void visitField(@NotNull PsiField field) {
+                if (matcher.isSyntacticFieldInjection(field, imports)) {
+                    holder.registerProblem(field,
+                        InspectionBundle.message("inspection.field.injection.problem.descriptor"),
+                        ProblemHighlightType.WARNING);
                 }
             }
-            return false;
-        }
-
-        private boolean isStaticField(PsiField field) {
-            PsiModifierList modifierList = field.getModifierList();
-            if (modifierList == null) {
-                return false;
-            }
-            return modifierList.hasExplicitModifier(PsiModifier.STATIC);
-        }
-
-        private void addPrivateModifier(PsiField field, PsiElementFactory factory) {
-            if (!this.hasVisibleModifier(field)) {
-                Objects.requireNonNull(field.getModifierList()).add(factory.createKeyword(PsiKeyword.PRIVATE));
-            }
-        }
-
-        private boolean hasVisibleModifier(PsiField field) {
-            PsiModifierList modifierList = field.getModifierList();
-            if (modifierList == null) {
-                return true;
-            }
+        };
+    }
 
-            return modifierList.hasExplicitModifier(PsiModifier.PRIVATE)
-                || modifierList.hasExplicitModifier(PsiModifier.PROTECTED)
-                || modifierList.hasExplicitModifier(PsiModifier.PUBLIC);
-        }
-
-        private void addFinalModifier(PsiField field, PsiElementFactory factory) {
-            if (!this.hasFinalModifier(field)) {
-                Objects.requireNonNull(field.getModifierList()).add(factory.createKeyword(PsiKeyword.FINAL));
-            }
+    private void checkField(@NotNull PsiField field, @NotNull InjectionAnnotationMatcher matcher,
+        @NotNull ProblemsHolder holder) {
+        if (matcher.isFieldInjection(field)) {
+            // 从未读取的字段由 UnusedDependencyInspection 报告并提供删除的 quick fix
+            holder.registerProblem(field,
+                InspectionBundle.message("inspection.field.injection.problem.descriptor"),
+                ProblemHighlightType.WARNING, this.fieldInjectionQuickFix);
         }
+    }
 
-        private boolean hasFinalModifier(PsiField field) {
-            PsiModifierList modifierList = field.getModifierList();
-            if (modifierList == null) {
-                return true;
-            }
+    /**
+     * 配置编译后的匹配器，配置修改之后重新编译
+     */
+    @NotNull InjectionAnnotationMatcher getMatcher() {
+        CompiledMatcher compiled = this.compiledMatcher;
+        if (compiled == null || compiled.metaAnnotations() != this.detectMetaAnnotations
+            || !compiled.annotations().equals(this.annotations)) {
+            List<String> annotations = List.copyOf(this.annotations);
+            compiled = new CompiledMatcher(annotations, this.detectMetaAnnotations,
+                InjectionAnnotationMatcher.compile(annotations, this.detectMetaAnnotations));
+            this.compiledMatcher = compiled;
+        }
+        return compiled.matcher();
+    }
 
-            return modifierList.hasExplicitModifier(PsiModifier.FINAL);
-        }
+    /**
+     * 注入注解在索引中的短名，用于按注解名查询索引，需要在读操作中调用
+     */
+    public static @NotNull Set<String> getInjectionShortNames(@NotNull Project project) {
+        return InjectionAnnotationMatcher.getInstance(project).getIndexShortNames(project);
+    }
 
-        private void deleteFiledInjectionAnnotation(PsiField field) {
-            PsiAnnotation[] annotations = field.getAnnotations();
-            for (PsiAnnotation annotation : annotations) {
-                if (ANNOTATIONS.contains(annotation.getQualifiedName())) {
-                    annotation.delete();
-                }
-            }
-        }
+    public static boolean isFieldInjection(@NotNull PsiField field) {
+        return InjectionAnnotationMatcher.getInstance(field).isFieldInjection(field);
+    }
 
+    private record CompiledMatcher(List<String> annotations, boolean metaAnnotations,
+                                   InjectionAnnotationMatcher matcher) {
     }
 
 }
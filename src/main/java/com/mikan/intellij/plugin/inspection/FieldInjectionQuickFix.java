@@ -0,0 +1,321 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.intellij.codeInspection.BatchQuickFix;
+import com.intellij.codeInspection.CommonProblemDescriptor;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiKeyword;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.mikan.intellij.plugin.metrics.Metric;
+import com.mikan.intellij.plugin.metrics.PluginMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replace field injection with constructor injection.
+ * <p>
+ * One constructor is generated per class no matter how many of its fields are reported, both for a single
+ * descriptor and for a batch of descriptors from the inspection results view. Injected fields that are never read are
+ * left out of the constructor, see {@link UnusedDependencyAnalyzer}.
+ */
+public class FieldInjectionQuickFix implements LocalQuickFix, BatchQuickFix {
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return InspectionBundle.message("inspection.field.injection.use.quickfix");
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return this.getName();
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiElement element = descriptor.getPsiElement();
+        // 同一个类的字段已经随其它描述符一起转换过了
+        if (!(element instanceof PsiField psiField)
+            || !InjectionAnnotationMatcher.getInstance(psiField).isFieldInjection(psiField)) {
+            return;
+        }
+
+        PsiClass containingClass = psiField.getContainingClass();
+        if (containingClass == null) {
+            return;
+        }
+
+        long start = PluginMetrics.start();
+        String constructorText = this.buildConstructor(containingClass);
+        if (constructorText != null) {
+            this.applyConstructor(project, containingClass, constructorText);
+        }
+        PluginMetrics.stop(Metric.QUICK_FIX_APPLY, start);
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, CommonProblemDescriptor @NotNull [] descriptors,
+        @NotNull List<PsiElement> psiElementsToIgnore, @Nullable Runnable refreshViews) {
+        // 按类分组，每个类只生成一个构造方法
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
+        Set<SmartPsiElementPointer<PsiClass>> classPointers = new LinkedHashSet<>();
+        Set<PsiClass> classes = new LinkedHashSet<>();
+        for (CommonProblemDescriptor descriptor : descriptors) {
+            if (!(descriptor instanceof ProblemDescriptor problemDescriptor)) {
+                continue;
+            }
+            PsiElement element = problemDescriptor.getPsiElement();
+            if (!(element instanceof PsiField psiField) || psiElementsToIgnore.contains(psiField)) {
+                continue;
+            }
+            PsiClass containingClass = psiField.getContainingClass();
+            if (containingClass != null && classes.add(containingClass)) {
+                classPointers.add(pointerManager.createSmartPsiElementPointer(containingClass));
+            }
+        }
+        this.convertClasses(project, classPointers, refreshViews);
+    }
+
+    /**
+     * 在后台计算每个类的构造方法，然后在一个写命令中全部应用
+     */
+    public void convertClasses(@NotNull Project project,
+        @NotNull Collection<SmartPsiElementPointer<PsiClass>> classPointers, @Nullable Runnable onFinished) {
+        if (classPointers.isEmpty()) {
+            return;
+        }
+
+        new Task.Backgroundable(project, InspectionBundle.message("inspection.field.injection.batch.progress"), true) {
+
+            private final List<ConstructorPlan> plans = new ArrayList<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                // 在后台读操作中计算每个类的构造方法文本
+                indicator.setIndeterminate(false);
+                int index = 0;
+                for (SmartPsiElementPointer<PsiClass> classPointer : classPointers) {
+                    indicator.checkCanceled();
+                    indicator.setFraction((double)index++ / classPointers.size());
+                    long start = PluginMetrics.start();
+                    ConstructorPlan plan = ReadAction.compute(() -> buildPlan(classPointer));
+                    PluginMetrics.stop(Metric.QUICK_FIX_BATCH_PLAN, start);
+                    if (plan != null) {
+                        plans.add(plan);
+                    }
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                applyPlans(project, plans);
+                if (onFinished != null) {
+                    onFinished.run();
+                }
+            }
+        }.queue();
+    }
+
+    private @Nullable ConstructorPlan buildPlan(@NotNull SmartPsiElementPointer<PsiClass> classPointer) {
+        PsiClass containingClass = classPointer.getElement();
+        if (containingClass == null) {
+            return null;
+        }
+
+        String constructorText = this.buildConstructor(containingClass);
+        if (constructorText == null) {
+            return null;
+        }
+        return new ConstructorPlan(classPointer, containingClass.getContainingFile().getModificationStamp(),
+            constructorText);
+    }
+
+    private void applyPlans(@NotNull Project project, @NotNull List<ConstructorPlan> plans) {
+        // 所有类在一个写命令中完成，支持一次撤销
+        CommandProcessor.getInstance().executeCommand(project,
+            () -> ApplicationManagerEx.getApplicationEx().runWriteActionWithNonCancellableProgressInDispatchThread(
+                this.getName(), project, null, indicator -> {
+                    indicator.setIndeterminate(false);
+                    for (int i = 0; i < plans.size(); i++) {
+                        indicator.setFraction((double)i / plans.size());
+                        long start = PluginMetrics.start();
+                        this.applyPlan(project, plans.get(i));
+                        PluginMetrics.stop(Metric.QUICK_FIX_BATCH_APPLY, start);
+                    }
+                }),
+            this.getName(), null);
+    }
+
+    private void applyPlan(@NotNull Project project, @NotNull ConstructorPlan plan) {
+        PsiClass containingClass = plan.classPointer().getElement();
+        if (containingClass == null || !containingClass.isValid()) {
+            return;
+        }
+
+        String constructorText = plan.constructorText();
+        // 计算之后文件又被修改过，重新计算
+        if (containingClass.getContainingFile().getModificationStamp() != plan.modificationStamp()) {
+            constructorText = this.buildConstructor(containingClass);
+            if (constructorText == null) {
+                return;
+            }
+        }
+        this.applyConstructor(project, containingClass, constructorText);
+    }
+
+    /**
+     * 生成构造方法的文本，只读取 PSI，可以在后台读操作中执行
+     *
+     * @return 构造方法文本，没有需要转换的字段时返回 null
+     */
+    @Nullable String buildConstructor(@NotNull PsiClass containingClass) {
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.getInstance(containingClass);
+        if (this.getConstructorFields(containingClass).stream().noneMatch(matcher::isFieldInjection)) {
+            return null;
+        }
+        return this.buildConstructorText(containingClass);
+    }
+
+    /**
+     * 以所有需要构造的字段为参数的构造方法文本，不要求有字段注入
+     *
+     * @return 构造方法文本，匿名类返回 null
+     */
+    @Nullable String buildConstructorText(@NotNull PsiClass containingClass) {
+        String className = containingClass.getName();
+        if (className == null) {
+            return null;
+        }
+
+        List<PsiField> fields = this.getConstructorFields(containingClass);
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (PsiField field : fields) {
+            String fieldName = field.getName();
+            if (!parameters.isEmpty()) {
+                parameters.append(", ");
+            }
+            parameters.append(field.getType().getCanonicalText()).append(' ').append(fieldName);
+            assignments.append("this.").append(fieldName).append(" = ").append(fieldName).append(";\n");
+        }
+
+        return "@" + FieldInjectionInspection.AUTOWIRED + "\n"
+            + "public " + className + "(" + parameters + ") {\n"
+            + assignments
+            + "}";
+    }
+
+    /**
+     * 添加构造方法，字段删除注入注解并改为 private final，需要在写操作中调用
+     */
+    void applyConstructor(@NotNull Project project, @NotNull PsiClass containingClass,
+        @NotNull String constructorText) {
+        PsiElementFactory factory = JavaPsiFacade.getInstance(project).getElementFactory();
+        PsiMethod constructor = factory.createMethodFromText(constructorText, containingClass);
+
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.getInstance(containingClass);
+        for (PsiField field : this.getConstructorFields(containingClass)) {
+            // 字段删除 @Autowired、@Resource 等注入注解
+            this.deleteFiledInjectionAnnotation(field, matcher);
+            // 字段添加 private 和 final 修饰符
+            this.addPrivateModifier(field, factory);
+            this.addFinalModifier(field, factory);
+        }
+
+        PsiElement addedConstructor = containingClass.add(constructor);
+        // 只处理新增的构造方法，不对整个文件做 optimizeImports
+        PsiElement shortenedConstructor = JavaCodeStyleManager.getInstance(project)
+            .shortenClassReferences(addedConstructor);
+        CodeStyleManager.getInstance(project).reformat(shortenedConstructor);
+    }
+
+    private List<PsiField> getConstructorFields(PsiClass containingClass) {
+        // 有初始值的字段不能再在构造方法中赋值，从未读取的注入字段不加入构造方法，由 UnusedDependencyInspection 删除
+        Set<PsiField> unusedFields = UnusedDependencyAnalyzer.analyze(containingClass).fields();
+        return Arrays.stream(containingClass.getFields())
+            .filter(field -> !this.isStaticField(field) && field.getInitializer() == null
+                && !unusedFields.contains(field))
+            .toList();
+    }
+
+    private boolean isStaticField(PsiField field) {
+        PsiModifierList modifierList = field.getModifierList();
+        if (modifierList == null) {
+            return false;
+        }
+        return modifierList.hasExplicitModifier(PsiModifier.STATIC);
+    }
+
+    private void addPrivateModifier(PsiField field, PsiElementFactory factory) {
+        if (!this.hasVisibleModifier(field)) {
+            Objects.requireNonNull(field.getModifierList()).add(factory.createKeyword(PsiKeyword.PRIVATE));
+        }
+    }
+
+    private boolean hasVisibleModifier(PsiField field) {
+        PsiModifierList modifierList = field.getModifierList();
+        if (modifierList == null) {
+            return true;
+        }
+
+        return modifierList.hasExplicitModifier(PsiModifier.PRIVATE)
+            || modifierList.hasExplicitModifier(PsiModifier.PROTECTED)
+            || modifierList.hasExplicitModifier(PsiModifier.PUBLIC);
+    }
+
+    private void addFinalModifier(PsiField field, PsiElementFactory factory) {
+        if (!this.hasFinalModifier(field)) {
+            Objects.requireNonNull(field.getModifierList()).add(factory.createKeyword(PsiKeyword.FINAL));
+        }
+    }
+
+    private boolean hasFinalModifier(PsiField field) {
+        PsiModifierList modifierList = field.getModifierList();
+        if (modifierList == null) {
+            return true;
+        }
+
+        return modifierList.hasExplicitModifier(PsiModifier.FINAL);
+    }
+
+    private void deleteFiledInjectionAnnotation(PsiField field, InjectionAnnotationMatcher matcher) {
+        PsiAnnotation[] annotations = field.getAnnotations();
+        for (PsiAnnotation annotation : annotations) {
+            if (matcher.isInjectionAnnotation(annotation)) {
+                annotation.delete();
+            }
+        }
+    }
+
+    private record ConstructorPlan(SmartPsiElementPointer<PsiClass> classPointer, long modificationStamp,
+                                   String constructorText) {
+    }
+
+}
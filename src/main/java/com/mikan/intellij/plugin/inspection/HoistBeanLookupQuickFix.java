@@ -0,0 +1,322 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiCall;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassObjectAccessExpression;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.codeStyle.VariableKind;
+import com.intellij.psi.search.searches.MethodReferencesSearch;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replace a bean lookup with a constructor-injected final field of the looked up type.
+ * <p>
+ * A non-static field of the same type is reused. Otherwise the field is added to the single constructor of the class,
+ * or to the constructor generated by {@link FieldInjectionQuickFix#buildConstructorText}, which also converts the
+ * field injection of the class. Classes with a Lombok generated constructor only get the final field.
+ * <p>
+ * Every call of the constructor found by {@link MethodReferencesSearch}, e.g. in tests, gets a new argument: a mock in
+ * test sources with Mockito, {@code null} otherwise. A class without a constructor that is created or extended
+ * elsewhere is not changed. An injected bean is looked up once, so the fix is not offered for lookups of beans whose
+ * class declares a scope other than singleton.
+ */
+public class HoistBeanLookupQuickFix implements LocalQuickFix {
+
+    private static final String SCOPE = "org.springframework.context.annotation.Scope";
+
+    /**
+     * 不是单例的作用域注解，@ApplicationScope 每个 context 只有一个实例，可以注入
+     */
+    private static final Set<String> SCOPE_ANNOTATIONS = Set.of(
+        "org.springframework.web.context.annotation.RequestScope",
+        "org.springframework.web.context.annotation.SessionScope");
+
+    private static final String MOCKITO = "org.mockito.Mockito";
+
+    private final FieldInjectionQuickFix fieldInjectionQuickFix = new FieldInjectionQuickFix();
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return InspectionBundle.message("inspection.bean.lookup.hoist.quickfix");
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return this.getName();
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    /**
+     * 查找的类型确定并且不是多例或者请求作用域的 bean，所在的类是可以构造注入的 Spring bean
+     */
+    static boolean isAvailable(@NotNull PsiMethodCallExpression expression) {
+        PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+        String name = expression.getMethodExpression().getReferenceName();
+        // getBean(Foo.class) 和 getObject()，按名称查找、带构造参数和可选的查找不能替换为注入
+        boolean byType = "getBean".equals(name)
+            ? arguments.length == 1 && arguments[0] instanceof PsiClassObjectAccessExpression
+            : "getObject".equals(name) && arguments.length == 0;
+        PsiClassType type = byType ? getLookupType(expression) : null;
+        PsiClass beanClass = type == null ? null : type.resolve();
+        if (beanClass == null || isScopedBean(beanClass)) {
+            return false;
+        }
+
+        PsiMethod method = PsiTreeUtil.getParentOfType(expression, PsiMethod.class);
+        PsiClass containingClass = method == null ? null : method.getContainingClass();
+        if (containingClass == null || method.hasModifierProperty(PsiModifier.STATIC)
+            || containingClass.getQualifiedName() == null || !SpringBeanUtil.isSpringBean(containingClass)) {
+            return false;
+        }
+        // 新参数不能添加在可变参数之后
+        PsiMethod[] constructors = containingClass.getConstructors();
+        return constructors.length == 0 || (constructors.length == 1 && !constructors[0].isVarArgs());
+    }
+
+    private static @Nullable PsiClassType getLookupType(PsiMethodCallExpression expression) {
+        if (!(expression.getType() instanceof PsiClassType classType)) {
+            return null;
+        }
+        PsiClass psiClass = classType.resolve();
+        return psiClass == null || psiClass instanceof PsiTypeParameter
+            || "java.lang.Object".equals(psiClass.getQualifiedName()) ? null : classType;
+    }
+
+    /**
+     * 类上声明了单例以外的作用域，无法计算的作用域名也按非单例处理
+     */
+    private static boolean isScopedBean(PsiClass beanClass) {
+        if (SCOPE_ANNOTATIONS.stream().anyMatch(beanClass::hasAnnotation)) {
+            return true;
+        }
+        PsiAnnotation scope = beanClass.getAnnotation(SCOPE);
+        if (scope == null) {
+            return false;
+        }
+        for (String attribute : List.of("value", "scopeName")) {
+            PsiAnnotationMemberValue value = scope.findDeclaredAttributeValue(attribute);
+            if (value != null) {
+                Object scopeName = JavaPsiFacade.getInstance(beanClass.getProject()).getConstantEvaluationHelper()
+                    .computeConstantExpression(value);
+                return !(scopeName instanceof String name) || (!name.isEmpty() && !"singleton".equals(name));
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiMethodCallExpression expression = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(),
+            PsiMethodCallExpression.class, false);
+        if (expression == null || !isAvailable(expression)) {
+            return;
+        }
+        PsiClassType type = getLookupType(expression);
+        PsiClass containingClass = PsiTreeUtil.getParentOfType(expression, PsiClass.class);
+        assert type != null && containingClass != null;
+
+        // 1. 需要新的构造参数时先在进度条中查找构造方法的调用，Lombok 构造方法的调用交给编译器
+        List<Caller> callers = List.of();
+        if (findField(containingClass, type) == null
+            && !SpringBeanUtil.hasLombokConstructor(containingClass)) {
+            PsiMethod[] constructors = containingClass.getConstructors();
+            if (constructors.length == 0) {
+                boolean created = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    (ThrowableComputable<Boolean, RuntimeException>)() -> ReadAction.compute(
+                        () -> isCreatedOrExtended(containingClass)),
+                    this.getName(), true, project);
+                if (created) {
+                    Messages.showErrorDialog(project, InspectionBundle.message(
+                        "inspection.bean.lookup.hoist.default.constructor", containingClass.getName()), this.getName());
+                    return;
+                }
+            } else {
+                callers = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    (ThrowableComputable<List<Caller>, RuntimeException>)() -> ReadAction.compute(
+                        () -> findCallers(constructors[0], type)),
+                    this.getName(), true, project);
+            }
+        }
+
+        // 2. 在一个写命令中注入字段，并在每个调用中添加实参
+        List<Caller> constructorCallers = callers;
+        WriteCommandAction.writeCommandAction(project).withName(this.getName()).run(() -> {
+            this.hoist(project, expression, type);
+            PsiElementFactory factory = JavaPsiFacade.getElementFactory(project);
+            JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
+            for (Caller caller : constructorCallers) {
+                if (caller.argumentList().isValid()) {
+                    codeStyleManager.shortenClassReferences(caller.argumentList().add(
+                        factory.createExpressionFromText(caller.argumentText(), caller.argumentList())));
+                }
+            }
+        });
+    }
+
+    @Override
+    public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project,
+        @NotNull ProblemDescriptor previewDescriptor) {
+        // 预览只显示当前文件中的修改
+        PsiMethodCallExpression expression = PsiTreeUtil.getParentOfType(previewDescriptor.getPsiElement(),
+            PsiMethodCallExpression.class, false);
+        PsiClassType type = expression == null || !isAvailable(expression) ? null : getLookupType(expression);
+        if (type == null) {
+            return IntentionPreviewInfo.EMPTY;
+        }
+        this.hoist(project, expression, type);
+        return IntentionPreviewInfo.DIFF;
+    }
+
+    /**
+     * 替换查找并在构造方法中注入，不修改构造方法的调用，需要在写操作中调用
+     */
+    private void hoist(Project project, PsiMethodCallExpression expression, PsiClassType type) {
+        PsiClass containingClass = PsiTreeUtil.getParentOfType(expression, PsiClass.class);
+        assert containingClass != null;
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(project);
+        PsiField existingField = findField(containingClass, type);
+        if (existingField != null) {
+            expression.replace(factory.createExpressionFromText("this." + existingField.getName(), expression));
+            return;
+        }
+
+        // 1. 添加 final 字段，查找替换为字段
+        JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
+        String fieldName = codeStyleManager.suggestUniqueVariableName(
+            codeStyleManager.suggestVariableName(VariableKind.FIELD, null, null, type).names[0], containingClass,
+            true);
+        PsiField field = factory.createField(fieldName, type);
+        PsiField[] fields = containingClass.getFields();
+        PsiElement anchor = fields.length == 0 ? containingClass.getLBrace() : fields[fields.length - 1];
+        field = (PsiField)(anchor == null ? containingClass.add(field) : containingClass.addAfter(field, anchor));
+        PsiUtil.setModifierProperty(field, PsiModifier.FINAL, true);
+        codeStyleManager.shortenClassReferences(field);
+        expression.replace(factory.createExpressionFromText("this." + fieldName, expression));
+
+        // 2. 在构造方法中注入
+        if (SpringBeanUtil.hasLombokConstructor(containingClass)) {
+            return;
+        }
+        PsiMethod[] constructors = containingClass.getConstructors();
+        if (constructors.length == 0) {
+            String constructorText = this.fieldInjectionQuickFix.buildConstructorText(containingClass);
+            if (constructorText != null) {
+                this.fieldInjectionQuickFix.applyConstructor(project, containingClass, constructorText);
+            }
+            return;
+        }
+        PsiMethod constructor = constructors[0];
+        PsiCodeBlock body = constructor.getBody();
+        if (body != null) {
+            codeStyleManager.shortenClassReferences(
+                constructor.getParameterList().add(factory.createParameter(fieldName, type)));
+            body.add(factory.createStatementFromText("this." + fieldName + " = " + fieldName + ";", constructor));
+        }
+    }
+
+    /**
+     * 同类型的非静态字段，可以直接使用
+     */
+    private static @Nullable PsiField findField(PsiClass containingClass, PsiType type) {
+        for (PsiField field : containingClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC) && type.equals(field.getType())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 构造方法的调用，包括 new、匿名类和子类的 super(...)，需要在读操作中调用
+     */
+    private static List<Caller> findCallers(PsiMethod constructor, PsiClassType type) {
+        List<Caller> callers = new ArrayList<>();
+        for (PsiReference reference : MethodReferencesSearch.search(constructor).findAll()) {
+            PsiElement parent = reference.getElement().getParent();
+            if (parent instanceof PsiAnonymousClass) {
+                parent = parent.getParent();
+            }
+            PsiExpressionList argumentList = parent instanceof PsiCall call ? call.getArgumentList() : null;
+            if (argumentList != null) {
+                callers.add(new Caller(argumentList, getArgumentText(argumentList, type)));
+            }
+        }
+        return callers;
+    }
+
+    /**
+     * 测试中可以使用 Mockito 时传入 mock，否则传入 null
+     */
+    private static String getArgumentText(PsiExpressionList argumentList, PsiClassType type) {
+        boolean mockito = TestSourceUtil.isInTestSourceContent(argumentList.getContainingFile())
+            && JavaPsiFacade.getInstance(argumentList.getProject())
+            .findClass(MOCKITO, argumentList.getResolveScope()) != null;
+        return mockito ? MOCKITO + ".mock(" + TypeConversionUtil.erasure(type).getCanonicalText() + ".class)" : "null";
+    }
+
+    /**
+     * 没有构造方法的类是否在其他地方通过默认构造方法创建或者被继承，生成的构造方法会破坏这些代码，需要在读操作中调用
+     */
+    private static boolean isCreatedOrExtended(PsiClass containingClass) {
+        for (PsiReference reference : ReferencesSearch.search(containingClass).findAll()) {
+            PsiElement parent = reference.getElement().getParent();
+            if (parent instanceof PsiNewExpression || parent instanceof PsiAnonymousClass
+                || (parent instanceof PsiMethodReferenceExpression methodReference && methodReference.isConstructor())
+                || (parent instanceof PsiReferenceList list && list.getRole() == PsiReferenceList.Role.EXTENDS_LIST)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param argumentText 添加到调用末尾的实参，使用限定名
+     */
+    private record Caller(PsiExpressionList argumentList, String argumentText) {
+    }
+
+}
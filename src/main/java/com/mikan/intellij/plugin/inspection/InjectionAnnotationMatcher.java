@@ -0,0 +1,252 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.intellij.codeInspection.ex.InspectionProfileImpl;
+import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.impl.source.tree.JavaSourceUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The configured injection annotations of {@link FieldInjectionInspection}, compiled for fast matching.
+ * <p>
+ * An annotation is matched by its unresolved short name first and then by a hash lookup of its qualified name, so a
+ * long list costs no more per field than a short one. With meta-annotations enabled, an annotation that does not
+ * match directly is resolved only when its short name is one of the {@link #getIndexShortNames(Project) meta-annotated
+ * short names}; its meta-annotations are then searched and the result is cached per annotation class. In dumb mode
+ * annotations are only matched as text against the imports of the file.
+ */
+public final class InjectionAnnotationMatcher {
+
+    static final InjectionAnnotationMatcher DEFAULT = compile(FieldInjectionInspection.DEFAULT_ANNOTATIONS, false);
+
+    private static final String JAVA_LANG_ANNOTATION = "java.lang.annotation.";
+
+    /**
+     * 元注解展开后的短名，按项目缓存，配置的限定名 -> 用于查询索引的短名
+     */
+    private static final Key<CachedValue<ConcurrentMap<Set<String>, Set<String>>>> INDEX_SHORT_NAMES_KEY =
+        Key.create("InjectionAnnotationMatcher.indexShortNames");
+
+    private final Set<String> shortNames;
+    private final Set<String> qualifiedNames;
+    private final boolean metaAnnotations;
+
+    private InjectionAnnotationMatcher(Set<String> shortNames, Set<String> qualifiedNames, boolean metaAnnotations) {
+        this.shortNames = shortNames;
+        this.qualifiedNames = qualifiedNames;
+        this.metaAnnotations = metaAnnotations;
+    }
+
+    static @NotNull InjectionAnnotationMatcher compile(@NotNull Collection<String> annotations,
+        boolean metaAnnotations) {
+        Set<String> shortNames = new HashSet<>();
+        Set<String> qualifiedNames = new HashSet<>();
+        for (String annotation : annotations) {
+            String qualifiedName = annotation.trim();
+            if (!qualifiedName.isEmpty()) {
+                qualifiedNames.add(qualifiedName);
+                shortNames.add(StringUtil.getShortName(qualifiedName));
+            }
+        }
+        return new InjectionAnnotationMatcher(Set.copyOf(shortNames), Set.copyOf(qualifiedNames), metaAnnotations);
+    }
+
+    /**
+     * 当前 inspection profile 中 {@link FieldInjectionInspection} 的配置
+     */
+    public static @NotNull InjectionAnnotationMatcher getInstance(@NotNull PsiElement context) {
+        InspectionProfileImpl profile = InspectionProjectProfileManager.getInstance(context.getProject())
+            .getCurrentProfile();
+        return profile.getUnwrappedTool(FieldInjectionInspection.SHORT_NAME, context)
+            instanceof FieldInjectionInspection inspection ? inspection.getMatcher() : DEFAULT;
+    }
+
+    public static @NotNull InjectionAnnotationMatcher getInstance(@NotNull Project project) {
+        InspectionProfileImpl profile = InspectionProjectProfileManager.getInstance(project).getCurrentProfile();
+        InspectionToolWrapper<?, ?> toolWrapper = profile.getInspectionTool(FieldInjectionInspection.SHORT_NAME,
+            project);
+        return toolWrapper != null && toolWrapper.getTool() instanceof FieldInjectionInspection inspection
+            ? inspection.getMatcher() : DEFAULT;
+    }
+
+    public boolean isFieldInjection(@NotNull PsiField field) {
+        for (PsiAnnotation annotation : field.getAnnotations()) {
+            if (this.isInjectionAnnotation(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 不做 resolve 的判断，可以在 dumb mode 中使用：注解的引用文本与配置的限定名、文件的 import 和包名比较
+     *
+     * @param imports 文件的 import 文本，按需 import 以 .* 结尾，参考 {@link #getImportedNames(PsiJavaFile)}
+     */
+    public boolean isSyntacticFieldInjection(@NotNull PsiField field, @NotNull Set<String> imports) {
+        for (PsiAnnotation annotation : field.getAnnotations()) {
+            PsiJavaCodeReferenceElement referenceElement = annotation.getNameReferenceElement();
+            if (referenceElement == null || !this.shortNames.contains(referenceElement.getReferenceName())) {
+                continue;
+            }
+            if (referenceElement.isQualified()) {
+                if (this.qualifiedNames.contains(JavaSourceUtil.getReferenceText(referenceElement))) {
+                    return true;
+                }
+                continue;
+            }
+            for (String qualifiedName : this.qualifiedNames) {
+                if (StringUtil.getShortName(qualifiedName).equals(referenceElement.getReferenceName())
+                    && (imports.contains(qualifiedName)
+                    || imports.contains(StringUtil.getPackageName(qualifiedName) + ".*"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 文件的单类 import 和按需 import 的文本，文件所在的包作为按需 import
+     */
+    public static @NotNull Set<String> getImportedNames(@NotNull PsiJavaFile file) {
+        Set<String> imports = new HashSet<>();
+        imports.add(file.getPackageName() + ".*");
+        PsiImportList importList = file.getImportList();
+        if (importList != null) {
+            for (PsiImportStatement statement : importList.getImportStatements()) {
+                PsiJavaCodeReferenceElement reference = statement.getImportReference();
+                if (reference != null) {
+                    String text = JavaSourceUtil.getReferenceText(reference);
+                    imports.add(statement.isOnDemand() ? text + ".*" : text);
+                }
+            }
+        }
+        return imports;
+    }
+
+    public boolean isInjectionAnnotation(@NotNull PsiAnnotation annotation) {
+        PsiJavaCodeReferenceElement referenceElement = annotation.getNameReferenceElement();
+        if (referenceElement == null) {
+            return false;
+        }
+        // 先用短名过滤，避免对无关注解做 resolve
+        if (this.shortNames.contains(referenceElement.getReferenceName())
+            && this.qualifiedNames.contains(annotation.getQualifiedName())) {
+            return true;
+        }
+        // 元注解展开后的短名中没有的注解不可能被配置的注解标注，不需要 resolve
+        if (!this.metaAnnotations
+            || !this.getIndexShortNames(annotation.getProject()).contains(referenceElement.getReferenceName())) {
+            return false;
+        }
+
+        return referenceElement.resolve() instanceof PsiClass annotationClass && annotationClass.isAnnotationType()
+            && this.isMetaAnnotated(annotationClass);
+    }
+
+    /**
+     * 注解在索引中可能出现的短名，启用元注解时包含被配置的注解标注的注解，需要在读操作中调用
+     */
+    public @NotNull Set<String> getIndexShortNames(@NotNull Project project) {
+        if (!this.metaAnnotations) {
+            return this.shortNames;
+        }
+        // 每次修改配置都会编译新的 matcher，相同配置的结果共享
+        ConcurrentMap<Set<String>, Set<String>> cache = CachedValuesManager.getManager(project).getCachedValue(
+            project, INDEX_SHORT_NAMES_KEY, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+                PsiModificationTracker.MODIFICATION_COUNT), false);
+        return cache.computeIfAbsent(this.qualifiedNames, key -> this.findMetaAnnotatedShortNames(project));
+    }
+
+    private Set<String> findMetaAnnotatedShortNames(Project project) {
+        Set<String> shortNames = new HashSet<>(this.shortNames);
+        Set<String> visited = new HashSet<>(this.qualifiedNames);
+        Deque<String> queue = new ArrayDeque<>(this.qualifiedNames);
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        while (!queue.isEmpty()) {
+            PsiClass annotationClass = facade.findClass(queue.poll(), scope);
+            if (annotationClass == null || !annotationClass.isAnnotationType()) {
+                continue;
+            }
+            for (PsiClass annotated : AnnotatedElementsSearch.searchPsiClasses(annotationClass, scope).findAll()) {
+                String qualifiedName = annotated.getQualifiedName();
+                if (annotated.isAnnotationType() && qualifiedName != null && visited.add(qualifiedName)) {
+                    shortNames.add(annotated.getName());
+                    queue.add(qualifiedName);
+                }
+            }
+        }
+        return Set.copyOf(shortNames);
+    }
+
+    private boolean isMetaAnnotated(PsiClass annotationClass) {
+        // 同一个注解类的结果按配置缓存，直到下一次 PSI 修改
+        Map<Set<String>, Boolean> cache = CachedValuesManager.getCachedValue(annotationClass,
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+                PsiModificationTracker.MODIFICATION_COUNT));
+        Boolean metaAnnotated = cache.get(this.qualifiedNames);
+        if (metaAnnotated == null) {
+            metaAnnotated = this.findMetaAnnotation(annotationClass, new LinkedHashSet<>());
+            cache.put(this.qualifiedNames, metaAnnotated);
+        }
+        return metaAnnotated;
+    }
+
+    private boolean findMetaAnnotation(PsiClass annotationClass, Set<PsiClass> visited) {
+        // 注解之间可能互相标注，例如 @Documented
+        if (!visited.add(annotationClass)) {
+            return false;
+        }
+        PsiModifierList modifierList = annotationClass.getModifierList();
+        if (modifierList == null) {
+            return false;
+        }
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            String qualifiedName = annotation.getQualifiedName();
+            if (qualifiedName == null || qualifiedName.startsWith(JAVA_LANG_ANNOTATION)) {
+                continue;
+            }
+            if (this.qualifiedNames.contains(qualifiedName)) {
+                return true;
+            }
+            PsiJavaCodeReferenceElement referenceElement = annotation.getNameReferenceElement();
+            if (referenceElement != null && referenceElement.resolve() instanceof PsiClass metaAnnotation
+                && metaAnnotation.isAnnotationType() && this.findMetaAnnotation(metaAnnotation, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
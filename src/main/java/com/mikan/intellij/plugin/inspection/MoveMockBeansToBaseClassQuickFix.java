@@ -0,0 +1,217 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.mikan.intellij.plugin.index.TestContextIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Move the {@code @MockBean} and {@code @SpyBean} fields of the subclasses of a base test class into the base class.
+ * <p>
+ * The test classes extending the base class then share one set of mock bean definitions and one cached context. The
+ * union of the mock bean fields of all direct subclasses is moved, so a subclass that did not mock a bean gets a mock
+ * instead of the real bean in its context; the fix lists these added mocks and asks before moving them. Subclasses
+ * declaring the same field name with a different type or annotation cannot share a context and are not changed. A base
+ * class field with the same name is kept, the moved fields become {@code protected} in the base class.
+ */
+public class MoveMockBeansToBaseClassQuickFix implements LocalQuickFix {
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return InspectionBundle.message("inspection.test.context.move.mocks.quickfix");
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return this.getName();
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    /**
+     * 测试类有 mock bean 字段，父类是项目中可写的测试类，不查找其他子类
+     */
+    static boolean isAvailable(@NotNull PsiClass testClass) {
+        PsiClass baseClass = testClass.getSuperClass();
+        return baseClass != null && baseClass.isWritable() && !getMockBeanFields(testClass).isEmpty()
+            && TestSourceUtil.isInTestSourceContent(baseClass.getContainingFile());
+    }
+
+    /**
+     * 父类的所有直接子类和它们的 mock bean 字段的并集，需要在读操作中调用
+     *
+     * @param subclasses  父类的直接子类
+     * @param mockBeans   key 到第一个声明它的字段，例如 MockBean com.foo.PaymentClient paymentClient
+     * @param addedMocks  每个子类原来没有声明、移动后会增加的 mock bean，例如 OrderTest: PaymentClient paymentClient
+     * @param conflict    不同的子类声明了同名但类型或注解不同的字段时的字段名，这时不能移动
+     */
+    private record Move(List<PsiClass> subclasses, Map<String, PsiField> mockBeans, List<String> addedMocks,
+                        @Nullable String conflict) {
+    }
+
+    private static Move findMove(PsiClass baseClass) {
+        List<PsiClass> subclasses = List.copyOf(ClassInheritorsSearch.search(baseClass, false).findAll());
+        Map<String, PsiField> mockBeans = new LinkedHashMap<>();
+        Map<String, String> keysByName = new HashMap<>();
+        String conflict = null;
+        for (PsiClass subclass : subclasses) {
+            for (PsiField field : getMockBeanFields(subclass)) {
+                String key = getMockBeanKey(field);
+                String existing = keysByName.putIfAbsent(field.getName(), key);
+                if (existing != null && !existing.equals(key)) {
+                    conflict = field.getName();
+                }
+                mockBeans.putIfAbsent(key, field);
+            }
+        }
+
+        List<String> addedMocks = new ArrayList<>();
+        for (PsiClass subclass : subclasses) {
+            Set<String> keys = new HashSet<>();
+            for (PsiField field : getMockBeanFields(subclass)) {
+                keys.add(getMockBeanKey(field));
+            }
+            for (Map.Entry<String, PsiField> entry : mockBeans.entrySet()) {
+                if (!keys.contains(entry.getKey())) {
+                    PsiField field = entry.getValue();
+                    addedMocks.add(subclass.getName() + ": " + field.getType().getPresentableText() + " "
+                        + field.getName());
+                }
+            }
+        }
+        return new Move(subclasses, mockBeans, addedMocks, conflict);
+    }
+
+    /**
+     * mock bean 字段的注解、类型和名称，例如 MockBean com.foo.PaymentClient paymentClient
+     */
+    private static String getMockBeanKey(PsiField field) {
+        PsiAnnotation annotation = getMockBeanAnnotation(field);
+        PsiJavaCodeReferenceElement reference = annotation == null ? null : annotation.getNameReferenceElement();
+        return (reference == null ? "" : reference.getReferenceName()) + " " + field.getType().getCanonicalText()
+            + " " + field.getName();
+    }
+
+    static @NotNull List<PsiField> getMockBeanFields(@NotNull PsiClass psiClass) {
+        List<PsiField> fields = new ArrayList<>();
+        for (PsiField field : psiClass.getFields()) {
+            if (getMockBeanAnnotation(field) != null) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    static @Nullable PsiAnnotation getMockBeanAnnotation(@NotNull PsiField field) {
+        PsiModifierList modifierList = field.getModifierList();
+        if (modifierList == null) {
+            return null;
+        }
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+            String name = reference == null ? null : reference.getReferenceName();
+            if (name != null && TestContextIndex.MOCK_BEAN_ANNOTATIONS.contains(name)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiClass testClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class, false);
+        if (testClass == null || !isAvailable(testClass)) {
+            Messages.showErrorDialog(project,
+                InspectionBundle.message("inspection.test.context.move.mocks.unavailable"), this.getName());
+            return;
+        }
+        PsiClass baseClass = testClass.getSuperClass();
+        assert baseClass != null;
+
+        // 1. 先在进度条中查找父类的直接子类和它们的 mock bean
+        Move move = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+            (ThrowableComputable<Move, RuntimeException>)() -> ReadAction.compute(() -> findMove(baseClass)),
+            this.getName(), true, project);
+        if (move.conflict() != null) {
+            Messages.showErrorDialog(project, InspectionBundle.message("inspection.test.context.move.mocks.conflict",
+                move.conflict(), baseClass.getName()), this.getName());
+            return;
+        }
+        if (!move.addedMocks().isEmpty()) {
+            // 其他子类原来使用的是真实的 bean，移动后变成 mock，需要确认
+            int answer = Messages.showYesNoDialog(project, InspectionBundle.message(
+                    "inspection.test.context.move.mocks.confirm", move.addedMocks().size(),
+                    String.join("\n", move.addedMocks())), this.getName(), Messages.getWarningIcon());
+            if (answer != Messages.YES) {
+                return;
+            }
+        }
+
+        // 2. 在一个写命令中把字段添加在父类已有字段之后，同名字段保留父类中的，再删除所有子类中的 mock bean 字段
+        WriteCommandAction.writeCommandAction(project).withName(this.getName()).run(() -> {
+            List<PsiElement> addedFields = new ArrayList<>();
+            PsiField[] baseFields = baseClass.getFields();
+            PsiElement anchor = baseFields.length == 0 ? baseClass.getLBrace() : baseFields[baseFields.length - 1];
+            for (PsiField field : move.mockBeans().values()) {
+                if (field.isValid() && baseClass.findFieldByName(field.getName(), false) == null) {
+                    PsiField copy = (PsiField)field.copy();
+                    PsiModifierList modifierList = copy.getModifierList();
+                    if (modifierList != null) {
+                        modifierList.setModifierProperty(PsiModifier.PROTECTED, true);
+                    }
+                    anchor = anchor == null ? baseClass.add(copy) : baseClass.addAfter(copy, anchor);
+                    addedFields.add(anchor);
+                }
+            }
+            for (PsiClass subclass : move.subclasses()) {
+                if (subclass.isValid() && subclass.isWritable()) {
+                    getMockBeanFields(subclass).forEach(PsiElement::delete);
+                }
+            }
+
+            JavaCodeStyleManager codeStyleManager = JavaCodeStyleManager.getInstance(project);
+            for (PsiElement field : addedFields) {
+                codeStyleManager.shortenClassReferences(field);
+            }
+        });
+    }
+
+    @Override
+    public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project,
+        @NotNull ProblemDescriptor previewDescriptor) {
+        // 修改的是父类所在的文件，没有预览
+        return IntentionPreviewInfo.EMPTY;
+    }
+
+}
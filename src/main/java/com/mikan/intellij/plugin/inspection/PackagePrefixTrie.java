@@ -0,0 +1,72 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Trie of package names by segment, answers whether a qualified name lies in one of the packages.
+ * <p>
+ * Matching walks the name once segment by segment, so {@code org.junit} matches {@code org.junit.jupiter.api.Test}
+ * but not {@code org.junitx.Foo}, and the cost does not depend on the number of packages.
+ */
+final class PackagePrefixTrie {
+
+    private final Node root = new Node();
+
+    PackagePrefixTrie(@NotNull Collection<String> packageNames) {
+        for (String packageName : packageNames) {
+            String name = packageName.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Node node = this.root;
+            for (String segment : name.split("\\.")) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * 第一段是否可能匹配，用于在拼接完整的限定名之前快速过滤
+     */
+    boolean hasFirstSegment(@Nullable String segment) {
+        return segment != null && this.root.children.containsKey(segment);
+    }
+
+    /**
+     * @return 匹配到的包名，不在任何包中时返回 null
+     */
+    @Nullable String findPackage(@NotNull String qualifiedName) {
+        Node node = this.root;
+        int start = 0;
+        while (true) {
+            int dot = qualifiedName.indexOf('.', start);
+            int end = dot < 0 ? qualifiedName.length() : dot;
+            node = node.children.get(qualifiedName.substring(start, end));
+            if (node == null) {
+                return null;
+            }
+            if (node.terminal) {
+                return qualifiedName.substring(0, end);
+            }
+            if (dot < 0) {
+                return null;
+            }
+            start = dot + 1;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        private boolean terminal;
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiCall;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.search.searches.MethodReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remove an injected dependency that is never read, see {@link UnusedDependencyAnalyzer}.
+ * <p>
+ * The field is removed with its assignments in the constructors. For constructor injection the parameter is removed
+ * too, and the argument of every call of the constructor found by {@link MethodReferencesSearch}, e.g. in tests. The
+ * search runs under a progress before the write command. Callers of a Lombok generated constructor are left to the
+ * compiler.
+ */
+public class RemoveUnusedDependencyQuickFix implements LocalQuickFix {
+
+    @Override
+    public @IntentionName @NotNull String getName() {
+        return InspectionBundle.message("inspection.unused.dependency.remove.quickfix");
+    }
+
+    @Override
+    public @IntentionFamilyName @NotNull String getFamilyName() {
+        return this.getName();
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        Removal removal = getRemoval(descriptor.getPsiElement());
+        if (removal == null) {
+            return;
+        }
+
+        // 1. 先在进度条中查找构造方法的调用，再在一个写命令中删除实参和依赖
+        PsiParameter parameter = removal.parameter();
+        List<PsiExpression> arguments = parameter == null ? List.of()
+            : ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                (ThrowableComputable<List<PsiExpression>, RuntimeException>)() -> ReadAction.compute(
+                    () -> findArguments(parameter)),
+                this.getName(), true, project);
+        WriteCommandAction.writeCommandAction(project).withName(this.getName()).run(() -> {
+            for (PsiExpression argument : arguments) {
+                if (argument.isValid()) {
+                    argument.delete();
+                }
+            }
+            remove(removal);
+        });
+    }
+
+    @Override
+    public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project,
+        @NotNull ProblemDescriptor previewDescriptor) {
+        // 预览只显示当前文件中的修改
+        Removal removal = getRemoval(previewDescriptor.getPsiElement());
+        if (removal == null) {
+            return IntentionPreviewInfo.EMPTY;
+        }
+        remove(removal);
+        return IntentionPreviewInfo.DIFF;
+    }
+
+    /**
+     * 需要删除的赋值语句、字段和构造参数，依赖已经被读取时返回 null
+     */
+    private static @Nullable Removal getRemoval(PsiElement element) {
+        PsiVariable variable = PsiTreeUtil.getParentOfType(element, PsiVariable.class, false);
+        PsiClass psiClass = PsiTreeUtil.getParentOfType(variable, PsiClass.class);
+        if (psiClass == null) {
+            return null;
+        }
+
+        UnusedDependencyAnalyzer.UnusedDependencies dependencies = UnusedDependencyAnalyzer.analyze(psiClass);
+        PsiParameter parameter = null;
+        Set<PsiField> fields = Set.of();
+        if (variable instanceof PsiParameter psiParameter && dependencies.parameters().contains(psiParameter)) {
+            parameter = psiParameter;
+            fields = dependencies.assignedFields().get(psiParameter);
+        } else if (variable instanceof PsiField field && dependencies.fields().contains(field)) {
+            // 构造注入的字段同时删除参数，参数赋值的其他字段也一起删除
+            for (PsiParameter candidate : dependencies.parameters()) {
+                if (dependencies.assignedFields().get(candidate).contains(field)) {
+                    parameter = candidate;
+                }
+            }
+            fields = parameter == null ? Set.of(field) : dependencies.assignedFields().get(parameter);
+        } else {
+            return null;
+        }
+
+        List<PsiElement> elements = new ArrayList<>();
+        for (PsiMethod constructor : psiClass.getConstructors()) {
+            PsiCodeBlock body = constructor.getBody();
+            if (body == null) {
+                continue;
+            }
+            for (PsiStatement statement : body.getStatements()) {
+                if (isFieldAssignment(statement, fields)) {
+                    elements.add(statement);
+                }
+            }
+        }
+        elements.addAll(fields);
+        return new Removal(elements, parameter);
+    }
+
+    private static boolean isFieldAssignment(PsiStatement statement, Set<PsiField> fields) {
+        return statement instanceof PsiExpressionStatement expressionStatement
+            && expressionStatement.getExpression() instanceof PsiAssignmentExpression assignment
+            && PsiUtil.skipParenthesizedExprDown(assignment.getLExpression()) instanceof PsiReferenceExpression lhs
+            && lhs.resolve() instanceof PsiField field && fields.contains(field);
+    }
+
+    /**
+     * 构造方法的调用中对应参数的实参，包括 new、匿名类和子类的 super(...)，需要在读操作中调用
+     */
+    private static List<PsiExpression> findArguments(PsiParameter parameter) {
+        if (!(parameter.getDeclarationScope() instanceof PsiMethod constructor)) {
+            return List.of();
+        }
+        int index = constructor.getParameterList().getParameterIndex(parameter);
+        int parametersCount = constructor.getParameterList().getParametersCount();
+
+        List<PsiExpression> arguments = new ArrayList<>();
+        for (PsiReference reference : MethodReferencesSearch.search(constructor).findAll()) {
+            PsiElement parent = reference.getElement().getParent();
+            if (parent instanceof PsiAnonymousClass) {
+                parent = parent.getParent();
+            }
+            PsiExpressionList argumentList = parent instanceof PsiCall call ? call.getArgumentList() : null;
+            PsiExpression[] expressions = argumentList == null ? PsiExpression.EMPTY_ARRAY
+                : argumentList.getExpressions();
+            // 可变参数的调用数量不一致，不修改
+            if (expressions.length == parametersCount) {
+                arguments.add(expressions[index]);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * 需要在写操作中调用
+     */
+    private static void remove(Removal removal) {
+        for (PsiElement element : removal.elements()) {
+            if (element.isValid()) {
+                element.delete();
+            }
+        }
+        if (removal.parameter() != null && removal.parameter().isValid()) {
+            removal.parameter().delete();
+        }
+    }
+
+    private record Removal(List<PsiElement> elements, @Nullable PsiParameter parameter) {
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.Set;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiModifierListOwner;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Spring bean classification shared by the inspections, quick fixes and test conversion: Spring annotations and
+ * Lombok generated constructors.
+ */
+public final class SpringBeanUtil {
+
+    /**
+     * 生成注入构造方法的 Lombok 注解
+     */
+    public static final Set<String> LOMBOK_CONSTRUCTORS = Set.of("lombok.RequiredArgsConstructor",
+        "lombok.AllArgsConstructor");
+
+    private static final String SPRING_PACKAGE = "org.springframework.";
+
+    private SpringBeanUtil() {
+    }
+
+    /**
+     * 类上有 Spring 的注解，例如 @Service、@Component、@Configuration
+     */
+    public static boolean isSpringBean(@NotNull PsiClass psiClass) {
+        return hasSpringAnnotation(psiClass);
+    }
+
+    public static boolean hasSpringAnnotation(@NotNull PsiModifierListOwner owner) {
+        for (PsiAnnotation annotation : owner.getAnnotations()) {
+            String qualifiedName = annotation.getQualifiedName();
+            if (qualifiedName != null && qualifiedName.startsWith(SPRING_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean hasLombokConstructor(@NotNull PsiClass psiClass) {
+        return LOMBOK_CONSTRUCTORS.stream().anyMatch(psiClass::hasAnnotation);
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.List;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.reference.RefElement;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Spring test classes that start a context of their own instead of reusing a cached one.
+ * <p>
+ * Every distinct combination of context annotations and {@code @MockBean} or {@code @SpyBean} definitions makes the
+ * TestContext framework start another application context. The contexts are grouped by {@link SpringTestContexts}, the
+ * project gets a summary of how many contexts the suite starts and every test class outside the most shared context
+ * is reported with the difference that splits it off.
+ */
+public class SpringTestContextInspection extends GlobalInspectionTool {
+
+    public static final String SHORT_NAME = "SpringTestContextCache";
+
+    /**
+     * 问题描述中最多列出的差异数量
+     */
+    private static final int MAX_DIFFERENCES = 3;
+
+    @Override
+    public void runInspection(@NotNull AnalysisScope scope, @NotNull InspectionManager manager,
+        @NotNull GlobalInspectionContext globalContext, @NotNull ProblemDescriptionsProcessor processor) {
+        Project project = globalContext.getProject();
+        List<SpringTestContexts.Context> contexts = SpringTestContexts.getInstance(project).getContexts();
+        if (contexts.size() < 2) {
+            return;
+        }
+
+        // 1. 项目级别的汇总
+        int testClassCount = contexts.stream().mapToInt(context -> context.testClasses().size()).sum();
+        processor.addProblemElement(globalContext.getRefManager().getRefProject(), manager.createProblemDescriptor(
+            InspectionBundle.message("inspection.test.context.summary", contexts.size(), testClassCount)));
+
+        // 2. 不在共享最多的 context 中的测试类
+        SpringTestContexts.Context shared = contexts.get(0);
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope testScope = GlobalSearchScopesCore.projectTestScope(project);
+        for (SpringTestContexts.Context context : contexts.subList(1, contexts.size())) {
+            String message = InspectionBundle.message("inspection.test.context.problem.descriptor", contexts.size(),
+                shared.testClasses().size(), toString(SpringTestContexts.getDifference(shared, context)));
+            for (String testClassName : context.testClasses()) {
+                PsiClass testClass = facade.findClass(testClassName, testScope);
+                if (testClass == null || !scope.contains(testClass)) {
+                    continue;
+                }
+                RefElement refElement = globalContext.getRefManager().getReference(testClass);
+                if (refElement == null) {
+                    continue;
+                }
+                PsiElement anchor = testClass.getNameIdentifier() != null ? testClass.getNameIdentifier() : testClass;
+                ProblemDescriptor descriptor = manager.createProblemDescriptor(anchor, message, false,
+                    getFixes(), ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+                processor.addProblemElement(refElement, descriptor);
+            }
+        }
+    }
+
+    /**
+     * 查找子类和生成转换计划的代价较大，quick fix 不在检查每个测试类时判断，而是在应用时检查
+     */
+    private static LocalQuickFix[] getFixes() {
+        return new LocalQuickFix[] {new MoveMockBeansToBaseClassQuickFix(), new ConvertToMockitoTestQuickFix()};
+    }
+
+    /**
+     * 例如 +@MockBean PaymentClient, -@ActiveProfiles("it"), ...
+     */
+    private static String toString(List<String> difference) {
+        String text = String.join(", ", difference.subList(0, Math.min(MAX_DIFFERENCES, difference.size())));
+        return difference.size() > MAX_DIFFERENCES ? text + ", ..." : text;
+    }
+
+    @Override
+    public boolean isGraphNeeded() {
+        // context 由 SpringTestContexts 分组，不需要构建 reference graph
+        return false;
+    }
+
+    @Override
+    public @NotNull String getShortName() {
+        return SHORT_NAME;
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.mikan.intellij.plugin.index.PerFileIndexCache;
+import com.mikan.intellij.plugin.index.TestContextDeclaration;
+import com.mikan.intellij.plugin.index.TestContextIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The Spring test contexts the test suite starts, with the test classes sharing each of them.
+ * <p>
+ * The Spring TestContext framework caches a context per distinct configuration: the bootstrap annotation with its
+ * attributes, the active profiles, the test properties, the imports, the auto configurations and the set of
+ * {@code @MockBean} and {@code @SpyBean} definitions. The key of a test class is approximated from the text of these
+ * annotations and fields, merged along its base classes the way Spring inherits them. The declarations are read from
+ * {@link TestContextIndex} into a {@link PerFileIndexCache}, so the next query after an edit re-reads only the
+ * changed files and regroups the classes in linear time.
+ */
+@Service(Service.Level.PROJECT)
+public final class SpringTestContexts implements Disposable {
+
+    /**
+     * 子类中的声明与父类中的合并，其他注解以最近的声明为准
+     */
+    private static final Set<String> ACCUMULATED_ANNOTATIONS = Set.of("ActiveProfiles", "TestPropertySource",
+        "TestPropertySources", "Import", "MockBean", "MockBeans", "SpyBean", "SpyBeans");
+
+    private final PerFileIndexCache<TestContextDeclaration> cache;
+
+    private List<Context> contexts;
+
+    public SpringTestContexts(@NotNull Project project) {
+        this.cache = new PerFileIndexCache<>(project, TestContextIndex.NAME, GlobalSearchScopesCore::projectTestScope,
+            this);
+    }
+
+    public static @NotNull SpringTestContexts getInstance(@NotNull Project project) {
+        return project.getService(SpringTestContexts.class);
+    }
+
+    /**
+     * 所有的 context，按共享的测试类数量从多到少排序，只重新读取变化的文件，需要在 smart mode 的读操作中调用
+     */
+    public synchronized @NotNull List<Context> getContexts() {
+        if (this.cache.update() || this.contexts == null) {
+            this.contexts = this.group();
+        }
+        return this.contexts;
+    }
+
+    private List<Context> group() {
+        Map<String, TestContextDeclaration> declarations = new HashMap<>();
+        for (Map<String, TestContextDeclaration> fileDeclarations : this.cache.getValuesByFile().values()) {
+            declarations.putAll(fileDeclarations);
+        }
+
+        // 相同配置的测试类共享一个 context，每个类的配置只合并一次
+        Map<String, Configuration> merged = new HashMap<>();
+        Map<Set<String>, List<String>> testClassesByKey = new LinkedHashMap<>();
+        declarations.forEach((className, declaration) -> {
+            if (declaration.isAbstract()) {
+                return;
+            }
+            Configuration configuration = this.merge(className, declarations, merged, new HashSet<>());
+            if (configuration.isSpringTest()) {
+                testClassesByKey.computeIfAbsent(configuration.key(), key -> new ArrayList<>()).add(className);
+            }
+        });
+
+        List<Context> result = new ArrayList<>();
+        testClassesByKey.forEach((key, testClasses) -> {
+            Collections.sort(testClasses);
+            result.add(new Context(key, List.copyOf(testClasses)));
+        });
+        result.sort(Comparator.comparingInt((Context context) -> -context.testClasses().size())
+            .thenComparing(context -> context.testClasses().get(0)));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 类和它的父类合并之后的配置，父类不在索引中时只使用类自己的声明
+     */
+    private Configuration merge(String className, Map<String, TestContextDeclaration> declarations,
+        Map<String, Configuration> merged, Set<String> visiting) {
+        Configuration configuration = merged.get(className);
+        TestContextDeclaration declaration = declarations.get(className);
+        if (configuration != null || declaration == null || !visiting.add(className)) {
+            return configuration != null ? configuration : Configuration.EMPTY;
+        }
+
+        Configuration parent = Configuration.EMPTY;
+        for (String candidate : declaration.superClass()) {
+            if (declarations.containsKey(candidate)) {
+                parent = this.merge(candidate, declarations, merged, visiting);
+                break;
+            }
+        }
+
+        Map<String, String> annotations = new TreeMap<>(parent.annotations());
+        for (String annotation : declaration.annotations()) {
+            String name = getAnnotationName(annotation);
+            annotations.put(ACCUMULATED_ANNOTATIONS.contains(name) ? annotation : name, annotation);
+        }
+        Set<String> mockBeans = new TreeSet<>(parent.mockBeans());
+        mockBeans.addAll(declaration.mockBeans());
+        configuration = new Configuration(annotations, mockBeans);
+        merged.put(className, configuration);
+        return configuration;
+    }
+
+    /**
+     * 例如 @org.springframework.boot.test.context.SpringBootTest(classes=App.class) -> SpringBootTest
+     */
+    private static String getAnnotationName(String annotation) {
+        int parenthesis = annotation.indexOf('(');
+        return StringUtil.getShortName(annotation.substring(1, parenthesis < 0 ? annotation.length() : parenthesis));
+    }
+
+    /**
+     * 从 shared 到 context 的差异，例如 +@MockBean PaymentClient, -@ActiveProfiles("it")
+     */
+    public static @NotNull List<String> getDifference(@NotNull Context shared, @NotNull Context context) {
+        List<String> difference = new ArrayList<>();
+        for (String element : context.key()) {
+            if (!shared.key().contains(element)) {
+                difference.add("+" + element);
+            }
+        }
+        for (String element : shared.key()) {
+            if (!context.key().contains(element)) {
+                difference.add("-" + element);
+            }
+        }
+        return difference;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @param annotations 注解名 -> 注解的文本，合并的注解以文本为 key
+     */
+    private record Configuration(Map<String, String> annotations, Set<String> mockBeans) {
+
+        static final Configuration EMPTY = new Configuration(Map.of(), Set.of());
+
+        boolean isSpringTest() {
+            return this.annotations.values().stream()
+                .anyMatch(annotation -> TestContextIndex.BOOTSTRAP_ANNOTATIONS.contains(getAnnotationName(annotation)));
+        }
+
+        Set<String> key() {
+            Set<String> key = new TreeSet<>(this.annotations.values());
+            key.addAll(this.mockBeans);
+            return Collections.unmodifiableSet(key);
+        }
+
+    }
+
+    /**
+     * @param key         context 的缓存 key 的近似，注解和 mock 字段的文本
+     * @param testClasses 共享这个 context 的测试类的限定名
+     */
+    public record Context(@NotNull Set<String> key, @NotNull List<String> testClasses) {
+
+        public @Nullable String getFirstTestClass() {
+            return this.testClasses.isEmpty() ? null : this.testClasses.get(0);
+        }
+
+    }
+
+}
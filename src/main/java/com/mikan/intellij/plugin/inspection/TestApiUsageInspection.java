@@ -0,0 +1,163 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.codeInspection.options.OptPane;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiImportStatementBase;
+import com.intellij.psi.PsiImportStaticStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiPackageStatement;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.impl.source.tree.JavaSourceUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Test API used in production code: imports and fully qualified references into test packages.
+ * <p>
+ * Names are matched as text against a {@link PackagePrefixTrie} of the configured test packages, only the matching
+ * fully qualified references are resolved to make sure the qualifier is a package. A file without test imports is
+ * checked without any resolve.
+ */
+public class TestApiUsageInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    public static final String SHORT_NAME = "TestApiUsage";
+
+    static final List<String> DEFAULT_TEST_PACKAGES = List.of("org.junit", "junit", "org.mockito", "org.assertj",
+        "org.hamcrest", "org.springframework.test", "org.springframework.boot.test", "org.testng");
+
+    /**
+     * 测试相关的包，可以在 inspection 设置中修改
+     */
+    public List<String> testPackages = new ArrayList<>(DEFAULT_TEST_PACKAGES);
+
+    private volatile CompiledTrie compiledTrie;
+
+    @Override
+    public @NotNull OptPane getOptionsPane() {
+        return OptPane.pane(OptPane.stringList("testPackages",
+            InspectionBundle.message("inspection.test.api.option.packages")));
+    }
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        // 测试源码中可以使用测试 API
+        if (TestSourceUtil.isInTestSourceContent(holder.getFile())) {
+            return PsiElementVisitor.EMPTY_VISITOR;
+        }
+
+        return this.createVisitor((element, qualifiedName) -> holder.registerProblem(element,
+            InspectionBundle.message("inspection.test.api.problem.descriptor", qualifiedName),
+            ProblemHighlightType.WARNING));
+    }
+
+    /**
+     * 不依赖 {@link ProblemsHolder} 的访问器，也用于 headless 扫描
+     *
+     * @param consumer 接收使用了测试 API 的元素和对应的限定名
+     */
+    public @NotNull PsiElementVisitor createVisitor(@NotNull BiConsumer<PsiElement, String> consumer) {
+        PackagePrefixTrie trie = this.getTrie();
+        return new JavaElementVisitor() {
+            @Override
+            public void visitImportStatement(@NotNull PsiImportStatement statement) {
+                checkImport(statement, trie, consumer);
+            }
+
+            @Override
+            public void visitImportStaticStatement(@NotNull PsiImportStaticStatement statement) {
+                checkImport(statement, trie, consumer);
+            }
+
+            @Override
+            public void visitReferenceElement(@NotNull PsiJavaCodeReferenceElement reference) {
+                checkQualifiedReference(reference, trie, consumer);
+            }
+
+            @Override
+            public void visitReferenceExpression(@NotNull PsiReferenceExpression expression) {
+                checkQualifiedReference(expression, trie, consumer);
+            }
+        };
+    }
+
+    private void checkImport(PsiImportStatementBase statement, PackagePrefixTrie trie,
+        BiConsumer<PsiElement, String> consumer) {
+        PsiJavaCodeReferenceElement reference = statement.getImportReference();
+        if (reference == null) {
+            return;
+        }
+        // import 中的名字都是限定名，按文本匹配，不需要 resolve
+        String qualifiedName = JavaSourceUtil.getReferenceText(reference);
+        if (trie.findPackage(qualifiedName) != null) {
+            consumer.accept(statement, qualifiedName);
+        }
+    }
+
+    private void checkQualifiedReference(PsiJavaCodeReferenceElement reference, PackagePrefixTrie trie,
+        BiConsumer<PsiElement, String> consumer) {
+        // 只检查最外层的引用
+        if (!reference.isQualified() || reference.getParent() instanceof PsiJavaCodeReferenceElement) {
+            return;
+        }
+
+        PsiJavaCodeReferenceElement first = getFirstQualifier(reference);
+        if (first == null || !trie.hasFirstSegment(first.getReferenceName())) {
+            return;
+        }
+        // import 已经单独检查过，package 语句不是使用
+        if (PsiTreeUtil.getParentOfType(reference, PsiImportStatementBase.class, PsiPackageStatement.class) != null) {
+            return;
+        }
+        String qualifiedName = JavaSourceUtil.getReferenceText(reference);
+        if (trie.findPackage(qualifiedName) == null) {
+            return;
+        }
+        // 只对文本匹配的候选 resolve 一次，确认第一段是包而不是同名的变量或者类
+        if (first.resolve() instanceof PsiPackage) {
+            consumer.accept(reference, qualifiedName);
+        }
+    }
+
+    private static @Nullable PsiJavaCodeReferenceElement getFirstQualifier(PsiJavaCodeReferenceElement reference) {
+        PsiJavaCodeReferenceElement current = reference;
+        while (true) {
+            PsiElement qualifier = current.getQualifier();
+            if (qualifier == null) {
+                return current;
+            }
+            if (!(qualifier instanceof PsiJavaCodeReferenceElement qualifierReference)) {
+                return null;
+            }
+            current = qualifierReference;
+        }
+    }
+
+    /**
+     * 配置编译后的前缀树，配置修改之后重新编译
+     */
+    @NotNull PackagePrefixTrie getTrie() {
+        CompiledTrie compiled = this.compiledTrie;
+        if (compiled == null || !compiled.testPackages().equals(this.testPackages)) {
+            List<String> testPackages = List.copyOf(this.testPackages);
+            compiled = new CompiledTrie(testPackages, new PackagePrefixTrie(testPackages));
+            this.compiledTrie = compiled;
+        }
+        return compiled.trie();
+    }
+
+    private record CompiledTrie(List<String> testPackages, PackagePrefixTrie trie) {
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.mikan.intellij.plugin.inspection;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Main/test source classification of a file, computed once per file and cached until the project roots change.
+ */
+public final class TestSourceUtil {
+
+    private TestSourceUtil() {
+    }
+
+    public static boolean isInTestSourceContent(@NotNull PsiFile file) {
+        PsiFile originalFile = file.getOriginalFile();
+        return CachedValuesManager.getCachedValue(originalFile, () -> {
+            ProjectRootManager projectRootManager = ProjectRootManager.getInstance(originalFile.getProject());
+            VirtualFile virtualFile = originalFile.getVirtualFile();
+            boolean inTestSourceContent = virtualFile != null
+                && projectRootManager.getFileIndex().isInTestSourceContent(virtualFile);
+            return CachedValueProvider.Result.create(inTestSourceContent, originalFile, projectRootManager);
+        });
+    }
+
+}
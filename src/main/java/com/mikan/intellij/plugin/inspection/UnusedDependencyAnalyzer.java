@@ -0,0 +1,218 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Finds the injected dependencies of a class that are never read: private fields with field injection, private final
+ * fields of a Spring bean with a Lombok generated constructor, and the parameters of the injection constructor of a
+ * Spring bean that are not used or only assigned to fields that are never read. Final primitive fields of a Lombok
+ * constructor are values rather than beans and are left out.
+ * <p>
+ * Private fields can only be read in the top level class, so one walk of it finds all reads, instead of a
+ * {@code ReferencesSearch} per field. References are filtered by name before they are resolved. Classes with Lombok
+ * getters are skipped, the generated getters read the fields. The result is cached on the class until the next PSI
+ * modification.
+ */
+public final class UnusedDependencyAnalyzer {
+
+    private static final Key<CachedValue<UnusedDependencies>> DEPENDENCIES_KEY =
+        Key.create("UnusedDependencyAnalyzer.dependencies");
+
+    private static final String AUTOWIRED = FieldInjectionInspection.AUTOWIRED;
+
+    /**
+     * 生成 getter 的 Lombok 注解，getter 会读取字段
+     */
+    private static final Set<String> LOMBOK_GETTERS = Set.of("lombok.Getter", "lombok.Data", "lombok.Value");
+
+    private UnusedDependencyAnalyzer() {
+    }
+
+    /**
+     * 类中从未读取的依赖，需要在 smart mode 的读操作中调用
+     */
+    public static @NotNull UnusedDependencies analyze(@NotNull PsiClass psiClass) {
+        return CachedValuesManager.getManager(psiClass.getProject()).getCachedValue(psiClass, DEPENDENCIES_KEY,
+            () -> CachedValueProvider.Result.create(collect(psiClass), PsiModificationTracker.MODIFICATION_COUNT),
+            false);
+    }
+
+    /**
+     * 只有一个构造方法时使用它，否则使用 @Autowired 的构造方法，不是 Spring bean 时返回 null
+     */
+    public static @Nullable PsiMethod findInjectionConstructor(@NotNull PsiClass psiClass) {
+        if (!SpringBeanUtil.isSpringBean(psiClass)) {
+            return null;
+        }
+        PsiMethod[] constructors = psiClass.getConstructors();
+        if (constructors.length == 1) {
+            return constructors[0];
+        }
+        for (PsiMethod constructor : constructors) {
+            if (constructor.hasAnnotation(AUTOWIRED)) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private static UnusedDependencies collect(PsiClass psiClass) {
+        if (psiClass.isInterface() || psiClass.isRecord() || hasLombokGetter(psiClass)) {
+            return UnusedDependencies.EMPTY;
+        }
+
+        // 1. 字段注入和 Lombok 构造方法注入的私有字段，Lombok 构造方法的基本类型字段是配置的值，不是 bean
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.getInstance(psiClass);
+        boolean lombokConstructor = SpringBeanUtil.isSpringBean(psiClass)
+            && SpringBeanUtil.hasLombokConstructor(psiClass);
+        Map<String, PsiField> candidates = new LinkedHashMap<>();
+        for (PsiField field : psiClass.getFields()) {
+            if (!isPrivateInstanceField(field, psiClass) || hasLombokGetter(field)) {
+                continue;
+            }
+            if (matcher.isFieldInjection(field) || (lombokConstructor && field.hasModifierProperty(PsiModifier.FINAL)
+                && field.getInitializer() == null && !(field.getType() instanceof PsiPrimitiveType))) {
+                candidates.put(field.getName(), field);
+            }
+        }
+
+        // 2. 注入构造方法的参数，只赋值给私有字段的参数在字段没有读取时也是未使用的
+        PsiMethod constructor = findInjectionConstructor(psiClass);
+        PsiCodeBlock body = constructor == null ? null : constructor.getBody();
+        Map<PsiParameter, Set<PsiField>> assignedFields = new LinkedHashMap<>();
+        Set<PsiParameter> readParameters = new HashSet<>();
+        if (body != null) {
+            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+                assignedFields.put(parameter, new LinkedHashSet<>());
+            }
+            body.accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitReferenceExpression(@NotNull PsiReferenceExpression expression) {
+                    super.visitReferenceExpression(expression);
+                    if (!(expression.resolve() instanceof PsiParameter parameter)
+                        || !assignedFields.containsKey(parameter)) {
+                        return;
+                    }
+                    PsiField field = getAssignedField(expression, psiClass);
+                    if (field != null && !hasLombokGetter(field)) {
+                        assignedFields.get(parameter).add(field);
+                        candidates.put(field.getName(), field);
+                    } else {
+                        readParameters.add(parameter);
+                    }
+                }
+            });
+        }
+        if (candidates.isEmpty() && assignedFields.isEmpty()) {
+            return UnusedDependencies.EMPTY;
+        }
+
+        // 3. 在顶层类中查找字段的读取，先按名称过滤再 resolve
+        Set<PsiField> readFields = new HashSet<>();
+        PsiClass topLevelClass = PsiUtil.getTopLevelClass(psiClass);
+        (topLevelClass != null ? topLevelClass : psiClass).accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceExpression(@NotNull PsiReferenceExpression expression) {
+                super.visitReferenceExpression(expression);
+                PsiField candidate = candidates.get(expression.getReferenceName());
+                if (candidate != null && !readFields.contains(candidate) && PsiUtil.isAccessedForReading(expression)
+                    && candidate.equals(expression.resolve())) {
+                    readFields.add(candidate);
+                }
+            }
+        });
+
+        // 4. 参数的字段都没有读取时参数未使用，从参数赋值的字段只在参数未使用时才是未使用的依赖
+        Set<PsiField> parameterFields = new HashSet<>();
+        assignedFields.values().forEach(parameterFields::addAll);
+        assignedFields.entrySet().removeIf(entry -> readParameters.contains(entry.getKey())
+            || entry.getValue().stream().anyMatch(readFields::contains));
+        Set<PsiField> unusedParameterFields = new HashSet<>();
+        assignedFields.values().forEach(unusedParameterFields::addAll);
+        Set<PsiField> fields = new LinkedHashSet<>();
+        for (PsiField field : candidates.values()) {
+            if (!readFields.contains(field)
+                && (!parameterFields.contains(field) || unusedParameterFields.contains(field))) {
+                fields.add(field);
+            }
+        }
+        Set<PsiParameter> parameters = new LinkedHashSet<>(assignedFields.keySet());
+        return new UnusedDependencies(Collections.unmodifiableSet(fields), Collections.unmodifiableSet(parameters),
+            Collections.unmodifiableMap(assignedFields));
+    }
+
+    /**
+     * 参数作为赋值的右边，例如 this.orderService = orderService
+     *
+     * @return 被赋值的私有字段，参数被其他方式读取时返回 null
+     */
+    private static @Nullable PsiField getAssignedField(PsiReferenceExpression expression, PsiClass psiClass) {
+        if (!(expression.getParent() instanceof PsiAssignmentExpression assignment)
+            || assignment.getRExpression() != expression) {
+            return null;
+        }
+        IElementType operation = assignment.getOperationTokenType();
+        if (operation != JavaTokenType.EQ
+            || !(PsiUtil.skipParenthesizedExprDown(assignment.getLExpression()) instanceof PsiReferenceExpression lhs)
+            || !(lhs.resolve() instanceof PsiField field)) {
+            return null;
+        }
+        return isPrivateInstanceField(field, psiClass) ? field : null;
+    }
+
+    private static boolean isPrivateInstanceField(PsiField field, PsiClass psiClass) {
+        return psiClass.equals(field.getContainingClass()) && field.hasModifierProperty(PsiModifier.PRIVATE)
+            && !field.hasModifierProperty(PsiModifier.STATIC);
+    }
+
+    private static boolean hasLombokGetter(PsiField field) {
+        return field.hasAnnotation("lombok.Getter");
+    }
+
+    private static boolean hasLombokGetter(PsiClass psiClass) {
+        return LOMBOK_GETTERS.stream().anyMatch(psiClass::hasAnnotation);
+    }
+
+    /**
+     * @param fields         从未读取的注入字段，包括只从未使用的构造参数赋值的字段
+     * @param parameters     注入构造方法中未使用的参数
+     * @param assignedFields 未使用的参数 -> 从它赋值的字段
+     */
+    public record UnusedDependencies(@NotNull Set<PsiField> fields, @NotNull Set<PsiParameter> parameters,
+                                     @NotNull Map<PsiParameter, Set<PsiField>> assignedFields) {
+
+        static final UnusedDependencies EMPTY = new UnusedDependencies(Set.of(), Set.of(), Map.of());
+
+        public boolean isEmpty() {
+            return this.fields.isEmpty() && this.parameters.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiVariable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Injected dependencies that are never read, see {@link UnusedDependencyAnalyzer}. Each of them is initialized with
+ * the bean, widens the dependency graph and slows down the context startup.
+ * <p>
+ * Fields with field injection or a Lombok generated constructor are reported on the field, constructor injection is
+ * reported on the parameter of the injection constructor.
+ */
+public class UnusedDependencyInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    public static final String SHORT_NAME = "UnusedDependency";
+
+    private final RemoveUnusedDependencyQuickFix removeUnusedDependencyQuickFix = new RemoveUnusedDependencyQuickFix();
+
+    @Override
+    public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+        // 测试中注入的 bean 可能只为了触发初始化
+        if (TestSourceUtil.isInTestSourceContent(holder.getFile())) {
+            return PsiElementVisitor.EMPTY_VISITOR;
+        }
+
+        return new JavaElementVisitor() {
+            @Override
+            public void visitClass(@NotNull PsiClass aClass) {
+                super.visitClass(aClass);
+                checkClass(aClass, holder);
+            }
+        };
+    }
+
+    private void checkClass(PsiClass psiClass, ProblemsHolder holder) {
+        UnusedDependencyAnalyzer.UnusedDependencies dependencies = UnusedDependencyAnalyzer.analyze(psiClass);
+        if (dependencies.isEmpty()) {
+            return;
+        }
+
+        // 从构造参数赋值的字段随参数一起报告
+        Set<PsiField> parameterFields = new HashSet<>();
+        dependencies.assignedFields().values().forEach(parameterFields::addAll);
+        for (PsiField field : dependencies.fields()) {
+            if (!parameterFields.contains(field)) {
+                this.registerProblem(field, "inspection.unused.dependency.field.problem.descriptor", holder);
+            }
+        }
+        for (PsiParameter parameter : dependencies.parameters()) {
+            this.registerProblem(parameter, "inspection.unused.dependency.parameter.problem.descriptor", holder);
+        }
+    }
+
+    private void registerProblem(PsiVariable variable, String key, ProblemsHolder holder) {
+        PsiElement anchor = variable.getNameIdentifier();
+        holder.registerProblem(anchor != null ? anchor : variable, InspectionBundle.message(key, variable.getName()),
+            ProblemHighlightType.LIKE_UNUSED_SYMBOL, this.removeUnusedDependencyQuickFix);
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.mikan.intellij.plugin.intention;
+
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.IncorrectOperationException;
+import com.mikan.intellij.plugin.inspection.TestSourceUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Convert the Spring test class at the caret into a Mockito unit test of its subject, see {@link SpringTestConverter}.
+ * <p>
+ * Availability only looks at the annotations of the class, the conversion is planned when the intention is invoked.
+ */
+public class ConvertToMockitoTestIntentionAction extends PsiElementBaseIntentionAction {
+
+    private final SpringTestConverter converter = new SpringTestConverter();
+
+    @Override
+    public @NotNull @IntentionName String getText() {
+        return "Convert to Mockito unit test.";
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return this.getText();
+    }
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, @NotNull PsiElement element) {
+        PsiClass testClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        return testClass != null && this.converter.isCandidate(testClass)
+            && TestSourceUtil.isInTestSourceContent(testClass.getContainingFile());
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, @NotNull PsiElement element)
+        throws IncorrectOperationException {
+        PsiClass testClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        SpringTestConversion conversion = testClass == null ? null : this.converter.plan(testClass);
+        if (conversion == null) {
+            if (editor != null) {
+                HintManager.getInstance().showErrorHint(editor, "Only a test class with one injected subject and "
+                    + "only @MockBean fields besides it can be converted.");
+            }
+            return;
+        }
+        this.converter.apply(conversion, testClass);
+    }
+
+}
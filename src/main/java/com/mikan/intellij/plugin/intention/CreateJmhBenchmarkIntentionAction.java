@@ -0,0 +1,175 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.io.IOException;
+
+import com.intellij.codeInsight.CodeInsightUtil;
+import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
+import com.intellij.codeInspection.util.IntentionFamilyName;
+import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.ide.util.DirectoryUtil;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.IncorrectOperationException;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mikan.intellij.plugin.inspection.TestSourceUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Create a JMH benchmark for the class at the caret in the {@code src/jmh/java} source set of its module.
+ * <p>
+ * When the Gradle or Maven build file of the module has no JMH setup yet, offers to add it first.
+ */
+public class CreateJmhBenchmarkIntentionAction extends PsiElementBaseIntentionAction {
+
+    private static final Logger LOG = Logger.getInstance(CreateJmhBenchmarkIntentionAction.class);
+
+    private final JmhBenchmarkGenerator generator = new JmhBenchmarkGenerator(new Junit5MockitoTestGenerator());
+
+    @Override
+    public @NotNull @IntentionName String getText() {
+        return "Create JMH benchmark.";
+    }
+
+    @Override
+    public @NotNull @IntentionFamilyName String getFamilyName() {
+        return this.getText();
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public boolean isAvailable(@NotNull Project project, Editor editor, @NotNull PsiElement element) {
+        PsiClass containingClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        if (containingClass == null || containingClass.isInterface() || containingClass.isAnnotationType()) {
+            return false;
+        }
+
+        return !TestSourceUtil.isInTestSourceContent(containingClass.getContainingFile());
+    }
+
+    @Override
+    public void invoke(@NotNull Project project, Editor editor, @NotNull PsiElement element)
+        throws IncorrectOperationException {
+        PsiClass srcClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
+        if (srcClass == null) {
+            return;
+        }
+        VirtualFile moduleDirectory = findModuleDirectory(srcClass);
+        if (moduleDirectory == null) {
+            return;
+        }
+
+        // 1. 构建文件中没有 JMH 配置时询问是否添加
+        this.offerBuildSetup(project, moduleDirectory);
+
+        // 2. 在后台非阻塞读操作中生成文本，再在写命令中创建文件
+        String packageName = ((PsiJavaFile)srcClass.getContainingFile()).getPackageName();
+        String className = JmhBenchmarkGenerator.getBenchmarkClassName(srcClass);
+        SmartPsiElementPointer<PsiClass> srcClassPointer = SmartPointerManager.createPointer(srcClass);
+        ReadAction.nonBlocking(() -> {
+                PsiClass psiClass = srcClassPointer.getElement();
+                return psiClass == null ? null : this.generator.generateText(psiClass);
+            })
+            .inSmartMode(project)
+            .expireWith(project)
+            .coalesceBy(this, srcClassPointer)
+            .finishOnUiThread(ModalityState.defaultModalityState(),
+                text -> this.createBenchmark(project, moduleDirectory, packageName, className, text))
+            .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * 模块目录，源码根目录是标准的 src/main/java 时为它的上三级目录
+     */
+    private static @Nullable VirtualFile findModuleDirectory(PsiClass srcClass) {
+        VirtualFile file = srcClass.getContainingFile().getVirtualFile();
+        VirtualFile sourceRoot = file == null ? null
+            : ProjectFileIndex.getInstance(srcClass.getProject()).getSourceRootForFile(file);
+        if (sourceRoot != null && sourceRoot.getPath().endsWith("/src/main/java")) {
+            return sourceRoot.getParent().getParent().getParent();
+        }
+        Module module = ModuleUtilCore.findModuleForPsiElement(srcClass);
+        return module == null ? null : ProjectUtil.guessModuleDir(module);
+    }
+
+    private void offerBuildSetup(Project project, VirtualFile moduleDirectory) {
+        VirtualFile buildFile = JmhBuildSetup.findBuildFile(moduleDirectory);
+        Document document = buildFile == null ? null : FileDocumentManager.getInstance().getDocument(buildFile);
+        if (document == null || JmhBuildSetup.hasJmh(document.getText())) {
+            return;
+        }
+
+        int answer = Messages.showYesNoDialog(project,
+            buildFile.getName() + " has no JMH setup. Add it? Reload the project afterwards.",
+            "Create JMH Benchmark", Messages.getQuestionIcon());
+        if (answer != Messages.YES) {
+            return;
+        }
+        WriteCommandAction.writeCommandAction(project)
+            .withName("Add JMH Setup")
+            .run(() -> document.setText(JmhBuildSetup.addJmh(buildFile.getName(), document.getText())));
+        FileDocumentManager.getInstance().saveDocument(document);
+    }
+
+    private void createBenchmark(Project project, VirtualFile moduleDirectory, String packageName, String className,
+        @Nullable String text) {
+        if (text == null || !moduleDirectory.isValid()) {
+            return;
+        }
+
+        PsiJavaFile benchmarkFile;
+        try {
+            benchmarkFile = WriteCommandAction.writeCommandAction(project)
+                .withName(this.getText())
+                .compute(() -> {
+                    VirtualFile sourceRoot = VfsUtil.createDirectoryIfMissing(moduleDirectory,
+                        JmhBuildSetup.SOURCE_ROOT);
+                    PsiDirectory rootDirectory = PsiManager.getInstance(project).findDirectory(sourceRoot);
+                    assert rootDirectory != null;
+                    PsiDirectory targetDirectory = packageName.isEmpty() ? rootDirectory
+                        : DirectoryUtil.createSubdirectories(packageName, rootDirectory, ".");
+
+                    // 文件已经存在时直接打开
+                    PsiFile existingFile = targetDirectory.findFile(className + ".java");
+                    return existingFile instanceof PsiJavaFile existingJavaFile ? existingJavaFile
+                        : this.generator.apply(className, text, targetDirectory);
+                });
+        } catch (IOException e) {
+            LOG.warn("cannot create " + JmhBuildSetup.SOURCE_ROOT + " in " + moduleDirectory.getPath(), e);
+            Messages.showErrorDialog(project, "Cannot create " + JmhBuildSetup.SOURCE_ROOT + ": " + e.getMessage(),
+                "Create JMH Benchmark");
+            return;
+        }
+
+        if (benchmarkFile != null && benchmarkFile.getClasses().length > 0) {
+            CodeInsightUtil.positionCursorAtLBrace(project, benchmarkFile, benchmarkFile.getClasses()[0]);
+        }
+    }
+
+}
@@ -1,63 +1,56 @@
 package com.mikan.intellij.plugin.intention;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
 
-import com.google.common.collect.Lists;
 import com.intellij.codeInsight.CodeInsightUtil;
-import com.intellij.codeInsight.FileModificationService;
 import com.intellij.codeInsight.intention.PsiElementBaseIntentionAction;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.NonBlockingReadAction;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.ProjectRootManager;
-import com.intellij.psi.JavaDirectoryService;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiAnnotation;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.wm.StatusBar;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiCodeBlock;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiElementFactory;
-import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiImportList;
-import com.intellij.psi.PsiImportStatement;
 import com.intellij.psi.PsiJavaFile;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifier;
-import com.intellij.psi.PsiModifierList;
-import com.intellij.psi.PsiPackage;
-import com.intellij.psi.PsiPackageStatement;
-import com.intellij.psi.PsiParameterList;
-import com.intellij.psi.PsiParserFacade;
-import com.intellij.psi.PsiStatement;
-import com.intellij.psi.PsiTypes;
-import com.intellij.psi.codeStyle.CodeStyleManager;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.testIntegration.createTest.CreateTestUtils;
 import com.intellij.util.IncorrectOperationException;
-import org.apache.commons.lang3.StringUtils;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mikan.intellij.plugin.inspection.TestSourceUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
+ * Create a junit5 test with mockito for the class at the caret, or sync the existing one.
+ * <p>
+ * Available while indexing: in dumb mode the test file skeleton is created without resolving anything, syncing an
+ * existing test class waits for smart mode.
+ *
  * @author mikan
  * @date 2024-07-28 11:50
  */
-public class CreateJunit5TestWithMockitoIntentionAction extends PsiElementBaseIntentionAction {
+public class CreateJunit5TestWithMockitoIntentionAction extends PsiElementBaseIntentionAction implements DumbAware {
 
     private static final Logger LOG = Logger.getInstance(CreateJunit5TestWithMockitoIntentionAction.class);
 
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    private final Junit5MockitoTestSynchronizer synchronizer = new Junit5MockitoTestSynchronizer(this.generator);
+
     @Override
     public @NotNull @IntentionName String getText() {
         return "Create junit5 test with mockito.";
@@ -68,18 +61,20 @@ public class CreateJunit5TestWithMockitoIntentionAction extends PsiElementBaseIn
         return this.getText();
     }
 
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
     @Override
     public boolean isAvailable(@NotNull Project project, Editor editor, @NotNull PsiElement element) {
+        // 每次移动光标都会调用，测试源码的判断按文件缓存
         PsiClass containingClass = PsiTreeUtil.getParentOfType(element, PsiClass.class);
         if (containingClass == null) {
             return false;
         }
 
-        boolean inTestSourceContent = ProjectRootManager.getInstance(project)
-            .getFileIndex()
-            .isInTestSourceContent(containingClass.getContainingFile().getVirtualFile());
-
-        return !inTestSourceContent;
+        return !TestSourceUtil.isInTestSourceContent(containingClass.getContainingFile());
     }
 
     @Override
@@ -90,286 +85,138 @@ public class CreateJunit5TestWithMockitoIntentionAction extends PsiElementBaseIn
             return;
         }
 
-        WriteCommandAction.runWriteCommandAction(project, () -> createTestJavaFile(containingClass));
+        createTestJavaFile(containingClass);
     }
 
     private void createTestJavaFile(PsiClass srcClass) {
         Project project = srcClass.getProject();
-        PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(project);
 
         PsiJavaFile srcJavaFile = (PsiJavaFile)srcClass.getContainingFile();
         final Module srcModule = ModuleUtilCore.findModuleForPsiElement(srcClass);
         assert srcModule != null;
 
+        // 1. 选择目标目录，可能弹出对话框，需要在 EDT 中执行
         PsiDirectory targetDirectory = CreateTestUtils.selectTargetDirectory(srcJavaFile.getPackageName(),
             project, srcModule);
-        assert targetDirectory != null;
+        if (targetDirectory == null) {
+            return;
+        }
 
-        // 1. 创建文件
-        String className = srcClass.getName() + "Test";
-        String fileName = className + ".java";
+        String fileName = Junit5MockitoTestGenerator.getTestClassName(srcClass) + ".java";
         PsiFile expectFile = targetDirectory.findFile(fileName);
-        if (expectFile != null) {
-            LOG.info("junit5 test file " + fileName + " already exists, open it directly.");
-            // 文件已经存在，直接打开文件
-            PsiJavaFile expectJavaFile = (PsiJavaFile)expectFile;
-            CodeInsightUtil.positionCursorAtLBrace(project, expectFile, expectJavaFile.getClasses()[0]);
+        SmartPsiElementPointer<PsiClass> srcClassPointer = SmartPointerManager.createPointer(srcClass);
+        if (expectFile instanceof PsiJavaFile expectJavaFile && expectJavaFile.getClasses().length > 0) {
+            // 文件已经存在，同步缺少的成员之后打开文件
+            PsiClass testClass = expectJavaFile.getClasses()[0];
+            this.syncTestClass(project, srcClassPointer, SmartPointerManager.createPointer(testClass));
             return;
         }
 
-        PsiFile targetFile = targetDirectory.createFile(fileName);
-        PsiJavaFile targetJavaFile = (PsiJavaFile)targetFile;
-
-        // 2. 生成 package
-        this.generatePackageStatement(targetJavaFile, srcJavaFile);
-
-        List<String> imports = Lists.newArrayList();
-
-        // 3. 生成类的内容
-        PsiClass targetClass = this.generateClass(elementFactory, className, srcClass, project, imports);
-        assert targetClass != null;
-        targetJavaFile.add(targetClass);
-
-        // 4. 添加 import
-        this.generateImportList(imports, targetJavaFile, project);
-
-        // 5. 格式化
-        JavaCodeStyleManager.getInstance(project).optimizeImports(targetJavaFile);
-        CodeStyleManager.getInstance(project).reformat(targetJavaFile);
-
-        // 6. 打开测试文件，并将光标定位到左括号 { 的位置，但这里有问题，定位不到 { 的位置
-        CodeInsightUtil.positionCursorAtLBrace(project, targetJavaFile, targetClass);
-    }
-
-    private void generatePackageStatement(PsiJavaFile targetJavaFile, PsiJavaFile srcJavaFile) {
-        PsiPackageStatement packageStatement = srcJavaFile.getPackageStatement();
-        assert packageStatement != null;
-        targetJavaFile.addBefore(packageStatement.copy(), targetJavaFile.getFirstChild());
-    }
-
-    private void generateImportList(List<String> imports, PsiJavaFile targetJavaFile, Project project) {
-        for (String anImport : imports) {
-            PsiImportStatement dynamicImport = this.generateDynamicImport(project, anImport);
-            this.addImport(targetJavaFile, dynamicImport);
-        }
-    }
-
-    private PsiClass generateClass(PsiElementFactory elementFactory, String className,
-        PsiClass srcClass, Project project, List<String> imports) {
-        PsiDirectory targetDirectory = srcClass.getContainingFile().getContainingDirectory();
-        final PsiPackage aPackage = JavaDirectoryService.getInstance().getPackage(targetDirectory);
-        if (aPackage != null) {
-            final GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(targetDirectory, false);
-            final PsiClass[] classes = aPackage.findClassByShortName(className, scope);
-            if (classes.length > 0) {
-                if (!FileModificationService.getInstance().preparePsiElementForWrite(classes[0])) {
-                    return null;
-                }
-                return classes[0];
+        // 2. 在后台非阻塞读操作中生成计划，期间有修改会自动取消并重新计算，索引不可用时只生成骨架
+        boolean dumb = DumbService.isDumb(project);
+        NonBlockingReadAction<TestGenerationPlan> planAction = ReadAction.nonBlocking(() -> {
+            PsiClass element = srcClassPointer.getElement();
+            if (element == null) {
+                return null;
             }
+            return dumb ? this.generator.planSkeleton(element) : this.generator.plan(element);
+        });
+        if (!dumb) {
+            planAction = planAction.inSmartMode(project);
         }
-        // 创建类
-        PsiClass targetClass = elementFactory.createClass(className);
-        // --PsiClass psiClass = JavaDirectoryService.getInstance().createClass(directory, className);--
-
-        // 1. 生成类注解
-        this.generateClassAnnotation(elementFactory, targetClass, imports);
-
-        // 2. 生成 mock 字段
-        List<PsiField> generatedFields = this.generateMockFields(elementFactory, srcClass, targetClass, imports);
-
-        this.generateEmptyLineBefore(targetClass, project, targetClass.getRBrace());
-
-        boolean hasAvailableConstructor = this.hasAvailableConstructor(srcClass, generatedFields.size());
-        if (hasAvailableConstructor) {
-            // 3. 生成测试目标字段
-            PsiField generateTargetField = this.generateTargetField(elementFactory, srcClass, targetClass);
-
-            // 4. 生成 setUp 方法
-            this.generateSetUpMethod(elementFactory, targetClass, srcClass, generatedFields,
-                generateTargetField, imports);
-        }
-
-        // 5. 生成测试方法
-        this.generateTestMethod(elementFactory, srcClass, targetClass, imports);
-
-        // 添加空行
-        this.generateEmptyLineAfter(targetClass, project, targetClass.getLBrace());
-        this.generateEmptyLineBefore(targetClass, project, targetClass.getRBrace());
-
-        return targetClass;
+        planAction
+            .expireWith(project)
+            .coalesceBy(this, srcClassPointer)
+            .finishOnUiThread(ModalityState.defaultModalityState(),
+                plan -> this.applyPlan(project, plan, targetDirectory))
+            .submit(AppExecutorUtil.getAppExecutorService());
     }
 
-    private void generateClassAnnotation(PsiElementFactory elementFactory, PsiClass targetClass, List<String> imports) {
-        PsiAnnotation extendWithAnnotation = elementFactory.createAnnotationFromText(
-            "@ExtendWith(MockitoExtension.class)", targetClass);
-        PsiModifierList modifierList = targetClass.getModifierList();
-        assert modifierList != null;
-        modifierList.addBefore(extendWithAnnotation, modifierList.getFirstChild());
-        // 删除 public 修饰符
-        modifierList.setModifierProperty(PsiModifier.PUBLIC, false);
-
-        imports.add("org.junit.jupiter.api.extension.ExtendWith");
-        imports.add("org.mockito.junit.jupiter.MockitoExtension");
-    }
-
-    private void generateEmptyLineBefore(PsiClass targetClass, Project project, PsiElement anchor) {
-        PsiParserFacade psiParserFacade = PsiParserFacade.getInstance(project);
-        PsiElement whiteSpace = psiParserFacade.createWhiteSpaceFromText("\n\n");
-        targetClass.addBefore(whiteSpace, anchor);
-    }
-
-    private void generateEmptyLineAfter(PsiClass targetClass, Project project, PsiElement anchor) {
-        PsiParserFacade psiParserFacade = PsiParserFacade.getInstance(project);
-        PsiElement whiteSpace = psiParserFacade.createWhiteSpaceFromText("\n\n");
-        targetClass.addAfter(whiteSpace, anchor);
-    }
-
-    private void generateSetUpMethod(PsiElementFactory elementFactory, PsiClass targetClass,
-        PsiClass srcClass, List<PsiField> generatedFields, PsiField targetField, List<String> imports) {
-        PsiMethod setUp = elementFactory.createMethod("setUp", PsiTypes.voidType());
-
-        PsiModifierList modifierList = setUp.getModifierList();
-        modifierList.setModifierProperty(PsiModifier.PUBLIC, false);
-
-        PsiAnnotation beforeEachAnnotation = elementFactory.createAnnotationFromText("@BeforeEach", setUp);
-        modifierList.addBefore(beforeEachAnnotation, modifierList.getFirstChild());
-
-        PsiCodeBlock methodBody = setUp.getBody();
-        assert methodBody != null;
-
-        PsiMethod constructor = this.getConstructor(srcClass, generatedFields.size());
-        assert constructor != null;
-        if (!this.isPrivateMethod(constructor)) {
-            String fieldNames = generatedFields.stream()
-                .map(PsiField::getName)
-                .collect(Collectors.joining(", "));
-
-            PsiStatement statement = elementFactory.createStatementFromText("this." + targetField.getName()
-                + " = new " + srcClass.getName() + "(" + fieldNames + ");", setUp);
-            methodBody.add(statement);
-
-            targetClass.add(setUp);
+    private void applyPlan(Project project, @Nullable TestGenerationPlan plan, PsiDirectory targetDirectory) {
+        if (plan == null || !targetDirectory.isValid()) {
+            return;
         }
 
-        imports.add("org.junit.jupiter.api.BeforeEach");
-    }
-
-    private void generateTestMethod(PsiElementFactory elementFactory, PsiClass srcClass,
-        PsiClass targetClass, List<String> imports) {
-        PsiMethod[] methods = srcClass.getMethods();
-        List<PsiMethod> testMethods = Arrays.stream(methods)
-            .filter(method -> !method.hasModifierProperty(PsiModifier.PRIVATE)
-                && !method.isConstructor())
-            .map(method -> this.generateTestMethod(elementFactory, method))
-            .peek(targetClass::add)
-            .toList();
-
-        if (!testMethods.isEmpty()) {
-            imports.add("org.junit.jupiter.api.Test");
+        // 3. 在短暂的写操作中创建文件
+        PsiJavaFile targetJavaFile = WriteCommandAction.writeCommandAction(project)
+            .withName(this.getText())
+            .compute(() -> this.generator.apply(plan, targetDirectory));
+        if (targetJavaFile == null) {
+            return;
         }
-    }
-
-    private PsiMethod generateTestMethod(PsiElementFactory elementFactory, PsiMethod method) {
-        String methodName = method.getName();
-        String testMethodName = "should_" + methodName + "_successfully";
-        PsiMethod testMethod = elementFactory.createMethod(testMethodName, PsiTypes.voidType());
-
-        PsiModifierList modifierList = testMethod.getModifierList();
-        modifierList.setModifierProperty(PsiModifier.PUBLIC, false);
-
-        PsiAnnotation testAnnotation = elementFactory.createAnnotationFromText("@Test", testMethod);
-        modifierList.addBefore(testAnnotation, modifierList.getFirstChild());
-
-        //PsiCodeBlock methodBody = elementFactory.createCodeBlockFromText("{\n System.out.println(\"This is a test
-        // method\");\n}", method);
-        //method.getBody().replace(methodBody);
 
-        return testMethod;
-    }
-
-    private List<PsiField> generateMockFields(PsiElementFactory elementFactory, PsiClass srcClass,
-        PsiClass targetClass, List<String> imports) {
-        PsiField[] fields = srcClass.getFields();
-        List<PsiField> needMockFields = Arrays.stream(fields)
-            .filter(field -> !field.hasModifierProperty(PsiModifier.STATIC))
-            .toList();
-        List<PsiField> generatedFields = needMockFields.stream()
-            .map(field -> {
-                PsiAnnotation mockAnnotation = elementFactory.createAnnotationFromText("@Mock", field);
-                PsiField psiField = elementFactory.createField(field.getName(), field.getType());
-                PsiModifierList fieldModifierList = psiField.getModifierList();
-                assert fieldModifierList != null;
-                fieldModifierList.addBefore(mockAnnotation, fieldModifierList.getFirstChild());
-                targetClass.add(psiField);
-
-                imports.add(field.getType().getCanonicalText());
-
-                return psiField;
-            })
-            .toList();
-
-        if (!generatedFields.isEmpty()) {
-            imports.add("org.mockito.Mock");
+        if (plan.savedMocks() > 0) {
+            StatusBar.Info.set("Used real values for value types, saved about " + plan.savedMocks()
+                + " mock creation(s) per test run.", project);
         }
 
-        return generatedFields;
-    }
-
-    private PsiField generateTargetField(PsiElementFactory elementFactory, PsiClass srcClass, PsiClass targetClass) {
-        String className = srcClass.getName();
-        String fieldName = StringUtils.uncapitalize(className);
-        PsiField psiField = elementFactory.createFieldFromText("private " + className + " " + fieldName + ";",
-            targetClass);
-        targetClass.add(psiField);
-
-        return psiField;
-    }
-
-    private PsiImportStatement generateDynamicImport(Project project, String qualifiedName) {
-        PsiElementFactory elementFactory = JavaPsiFacade.getElementFactory(project);
-        PsiClass importClass = JavaPsiFacade.getInstance(project)
-            .findClass(qualifiedName, GlobalSearchScope.allScope(project));
-        if (importClass == null) {
-            return null;
+        // 4. 测试类可以并发执行时，询问是否添加并发执行的配置
+        if (plan.concurrent()) {
+            this.offerParallelConfig(project, targetDirectory);
         }
-        return elementFactory.createImportStatement(importClass);
+
+        // 5. 打开测试文件，并将光标定位到左括号 { 的位置，但这里有问题，定位不到 { 的位置
+        CodeInsightUtil.positionCursorAtLBrace(project, targetJavaFile, targetJavaFile.getClasses()[0]);
     }
 
-    private void addImport(PsiJavaFile targetJavaFile, PsiImportStatement extendWithImport) {
-        if (extendWithImport == null) {
+    private void offerParallelConfig(Project project, PsiDirectory targetDirectory) {
+        TestGenerationSettings settings = TestGenerationSettings.getInstance(project);
+        Module module = ModuleUtilCore.findModuleForPsiElement(targetDirectory);
+        // 查找已有的配置需要索引
+        if (settings.isParallelConfigOffered() || module == null || DumbService.isDumb(project)
+            || JunitParallelSetup.hasConfig(module)) {
             return;
         }
 
-        PsiImportList importList = targetJavaFile.getImportList();
-        assert importList != null;
-        importList.add(extendWithImport);
-    }
-
-    private boolean hasAvailableConstructor(PsiClass srcClass, int expectParameterCount) {
-        PsiMethod constructor = this.getConstructor(srcClass, expectParameterCount);
-        if (constructor == null) {
-            return false;
+        settings.setParallelConfigOffered(true);
+        String message = "The generated test can run in parallel. Add " + JunitParallelSetup.FILE_NAME
+            + " enabling parallel execution for the tests annotated with @Execution(CONCURRENT)?";
+        int answer = Messages.showYesNoDialog(project, message, "Create Junit5 Test With Mockito",
+            Messages.getQuestionIcon());
+        if (answer != Messages.YES) {
+            return;
         }
-
-        return !this.isPrivateMethod(constructor);
-    }
-
-    private @Nullable PsiMethod getConstructor(PsiClass srcClass, int expectParameterCount) {
-        PsiMethod[] constructors = srcClass.getConstructors();
-        for (PsiMethod constructor : constructors) {
-            PsiParameterList parameterList = constructor.getParameterList();
-            int parametersCount = parameterList.getParametersCount();
-            if (parametersCount == expectParameterCount) {
-                return constructor;
-            }
+        try {
+            WriteCommandAction.writeCommandAction(project)
+                .withName("Add " + JunitParallelSetup.FILE_NAME)
+                .run(() -> JunitParallelSetup.createConfig(module, targetDirectory.getVirtualFile()));
+        } catch (IOException e) {
+            LOG.warn("cannot create " + JunitParallelSetup.FILE_NAME + " in module " + module.getName(), e);
+            Messages.showErrorDialog(project, "Cannot create " + JunitParallelSetup.FILE_NAME + ": " + e.getMessage(),
+                "Create Junit5 Test With Mockito");
         }
-        return null;
     }
 
-    private boolean isPrivateMethod(PsiMethod psiMethod) {
-        PsiModifierList modifierList = psiMethod.getModifierList();
-        return modifierList.hasExplicitModifier(PsiModifier.PRIVATE);
+    private void syncTestClass(Project project, SmartPsiElementPointer<PsiClass> srcClassPointer,
+        SmartPsiElementPointer<PsiClass> testClassPointer) {
+        // 比较需要 resolve 类型，等待索引完成
+        ReadAction.nonBlocking(() -> {
+                PsiClass srcClass = srcClassPointer.getElement();
+                PsiClass testClass = testClassPointer.getElement();
+                return srcClass == null || testClass == null ? null : this.synchronizer.plan(srcClass, testClass);
+            })
+            .inSmartMode(project)
+            .expireWith(project)
+            .coalesceBy(this, srcClassPointer)
+            .finishOnUiThread(ModalityState.defaultModalityState(), plan -> {
+                PsiClass srcClass = srcClassPointer.getElement();
+                PsiClass testClass = testClassPointer.getElement();
+                if (srcClass == null || testClass == null) {
+                    return;
+                }
+                if (plan == null) {
+                    LOG.info("junit5 test class " + testClass.getName() + " is up to date, open it directly.");
+                } else if (plan.isEmpty()) {
+                    // 测试类没有缺少的成员，只记录指纹，不需要写命令
+                    TestSyncFingerprints.getInstance(project).update(plan.sourceClassName(), plan.fingerprint());
+                } else {
+                    WriteCommandAction.writeCommandAction(project)
+                        .withName(this.getText())
+                        .run(() -> this.synchronizer.apply(plan, srcClass, testClass));
+                }
+                CodeInsightUtil.positionCursorAtLBrace(project, testClass.getContainingFile(), testClass);
+            })
+            .submit(AppExecutorUtil.getAppExecutorService());
     }
 
 }
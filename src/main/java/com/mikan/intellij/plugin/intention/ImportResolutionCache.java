@@ -0,0 +1,79 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caches the classes looked up by qualified name for the imports of generated tests.
+ * <p>
+ * Resolved classes are kept as smart pointers until the project roots change and are verified on every hit.
+ * Misses are remembered until the next PSI modification, so a class added later is still found.
+ */
+@Service(Service.Level.PROJECT)
+public final class ImportResolutionCache {
+
+    private final Project project;
+
+    private final CachedValue<Map<String, SmartPsiElementPointer<PsiClass>>> resolved;
+
+    private final CachedValue<Set<String>> unresolved;
+
+    public ImportResolutionCache(@NotNull Project project) {
+        this.project = project;
+        CachedValuesManager cachedValuesManager = CachedValuesManager.getManager(project);
+        this.resolved = cachedValuesManager.createCachedValue(
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(),
+                ProjectRootManager.getInstance(project)), false);
+        this.unresolved = cachedValuesManager.createCachedValue(
+            () -> CachedValueProvider.Result.create(ConcurrentHashMap.newKeySet(),
+                PsiModificationTracker.MODIFICATION_COUNT), false);
+    }
+
+    public static @NotNull ImportResolutionCache getInstance(@NotNull Project project) {
+        return project.getService(ImportResolutionCache.class);
+    }
+
+    public @Nullable PsiClass findClass(@NotNull String qualifiedName) {
+        Map<String, SmartPsiElementPointer<PsiClass>> resolvedClasses = this.resolved.getValue();
+        SmartPsiElementPointer<PsiClass> pointer = resolvedClasses.get(qualifiedName);
+        if (pointer != null) {
+            PsiClass psiClass = pointer.getElement();
+            // 类可能已经被删除或者重命名
+            if (psiClass != null && qualifiedName.equals(psiClass.getQualifiedName())) {
+                return psiClass;
+            }
+            resolvedClasses.remove(qualifiedName);
+        }
+
+        Set<String> unresolvedNames = this.unresolved.getValue();
+        if (unresolvedNames.contains(qualifiedName)) {
+            return null;
+        }
+
+        PsiClass psiClass = JavaPsiFacade.getInstance(this.project)
+            .findClass(qualifiedName, GlobalSearchScope.allScope(this.project));
+        if (psiClass == null) {
+            unresolvedNames.add(qualifiedName);
+        } else {
+            resolvedClasses.put(qualifiedName, SmartPointerManager.createPointer(psiClass));
+        }
+        return psiClass;
+    }
+
+}
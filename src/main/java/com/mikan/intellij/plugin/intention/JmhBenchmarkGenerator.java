@@ -0,0 +1,133 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypes;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Generate a JMH benchmark class for a source class.
+ * <p>
+ * The benchmark class is its own {@code @State}: {@code setUp} constructs the source class through the constructor
+ * the test generator would use, with real values for the value type fields and {@code mock()} for the collaborators.
+ * Every non-private method gets a {@code @Benchmark} method whose result is consumed by a {@code Blackhole}, so the
+ * JIT can not eliminate the call. Instance methods are skipped when the source class can not be constructed.
+ */
+public class JmhBenchmarkGenerator {
+
+    private static final String JMH = "org.openjdk.jmh.annotations.";
+
+    private static final String CLASS_ANNOTATIONS = "@" + JMH + "State(" + JMH + "Scope.Benchmark)\n"
+        + "@" + JMH + "BenchmarkMode(" + JMH + "Mode.AverageTime)\n"
+        + "@" + JMH + "OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)\n"
+        + "@" + JMH + "Fork(1)\n"
+        + "@" + JMH + "Warmup(iterations = 3, time = 1)\n"
+        + "@" + JMH + "Measurement(iterations = 5, time = 1)\n";
+
+    private final Junit5MockitoTestGenerator testGenerator;
+
+    public JmhBenchmarkGenerator(@NotNull Junit5MockitoTestGenerator testGenerator) {
+        this.testGenerator = testGenerator;
+    }
+
+    public static @NotNull String getBenchmarkClassName(@NotNull PsiClass srcClass) {
+        return srcClass.getName() + "Benchmark";
+    }
+
+    /**
+     * 生成基准测试文件的文本，类型使用限定名，只读取 PSI，需要在 smart mode 的读操作中调用
+     */
+    public @NotNull String generateText(@NotNull PsiClass srcClass) {
+        String packageName = ((PsiJavaFile)srcClass.getContainingFile()).getPackageName();
+        StringBuilder text = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            text.append("package ").append(packageName).append(";\n\n");
+        }
+        text.append(CLASS_ANNOTATIONS).append("public class ").append(getBenchmarkClassName(srcClass)).append(" {\n\n");
+
+        // 1. 有可用的构造方法时，在 setUp 中构造被测试的实例
+        List<PsiField> dependencyFields = this.testGenerator.getDependencyFields(srcClass);
+        Set<PsiField> unusedFields = this.testGenerator.getUnusedFields(srcClass);
+        String targetFieldName = null;
+        if (this.testGenerator.hasAvailableConstructor(srcClass, dependencyFields.size())) {
+            targetFieldName = Junit5MockitoTestGenerator.getTargetFieldName(srcClass);
+            text.append("private ").append(srcClass.getQualifiedName()).append(' ').append(targetFieldName)
+                .append(";\n\n")
+                .append("@").append(JMH).append("Setup\n")
+                .append("public void setUp() {\n")
+                .append("this.").append(targetFieldName).append(" = new ").append(srcClass.getQualifiedName())
+                .append(dependencyFields.stream()
+                    .map(field -> unusedFields.contains(field) ? RealValues.forUnusedDependency(field.getType())
+                        : getArgument(field.getType(), "org.mockito.Mockito.mock("
+                        + TypeConversionUtil.erasure(field.getType()).getCanonicalText() + ".class)"))
+                    .collect(Collectors.joining(", ", "(", ")")))
+                .append(";\n}\n\n");
+        }
+
+        // 2. 每个非私有方法一个基准测试方法，返回值交给 Blackhole，重载的方法按序号区分
+        Map<String, Integer> overloads = new HashMap<>();
+        for (PsiMethod method : this.testGenerator.getTestedMethods(srcClass)) {
+            boolean isStatic = method.hasModifierProperty(PsiModifier.STATIC);
+            if (!isStatic && targetFieldName == null) {
+                continue;
+            }
+            String call = (isStatic ? srcClass.getQualifiedName() : "this." + targetFieldName) + "."
+                + method.getName() + Arrays.stream(method.getParameterList().getParameters())
+                .map(parameter -> getArgument(parameter.getType(), "null"))
+                .collect(Collectors.joining(", ", "(", ")"));
+            int overload = overloads.merge(method.getName(), 1, Integer::sum);
+            boolean isVoid = PsiTypes.voidType().equals(method.getReturnType());
+            text.append("@").append(JMH).append("Benchmark\n")
+                .append("public void ").append(method.getName()).append(overload == 1 ? "" : overload)
+                .append(isVoid ? "() {\n" : "(org.openjdk.jmh.infra.Blackhole blackhole) {\n")
+                .append(isVoid ? call : "blackhole.consume(" + call + ")").append(";\n}\n\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static String getArgument(PsiType type, String defaultValue) {
+        RealValues.RealValue value = RealValues.forType(type);
+        return value == null ? defaultValue : value.qualifiedText();
+    }
+
+    /**
+     * 创建基准测试文件，缩短限定名并格式化，需要在写操作中调用
+     *
+     * @return 生成的文件，文件已经存在时返回 null
+     */
+    public @Nullable PsiJavaFile apply(@NotNull String className, @NotNull String text,
+        @NotNull PsiDirectory targetDirectory) {
+        String fileName = className + ".java";
+        if (targetDirectory.findFile(fileName) != null) {
+            return null;
+        }
+
+        Project project = targetDirectory.getProject();
+        PsiFile file = PsiFileFactory.getInstance(project).createFileFromText(fileName, JavaFileType.INSTANCE, text);
+        PsiJavaFile javaFile = (PsiJavaFile)targetDirectory.add(file);
+        CodeStyleManager.getInstance(project)
+            .reformat(JavaCodeStyleManager.getInstance(project).shortenClassReferences(javaFile));
+        return javaFile;
+    }
+
+}
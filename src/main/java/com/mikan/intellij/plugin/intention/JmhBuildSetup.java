@@ -0,0 +1,221 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The JMH setup of a Gradle or Maven module, benchmarks live in the {@code src/jmh/java} source set.
+ * <p>
+ * Gradle gets the {@code me.champeau.jmh} plugin, which adds the JMH dependencies and the source set by itself, and
+ * Mockito for the collaborators created in {@code setUp}. Maven gets the JMH dependencies and Mockito in test scope
+ * and {@code src/jmh/java} as a test source root through the build helper plugin, so the JMH annotation processor runs
+ * in test-compile. The build file is only edited as text, existing {@code plugins} and {@code dependencies} blocks
+ * are extended, and the module has to be reloaded afterwards.
+ */
+final class JmhBuildSetup {
+
+    static final String SOURCE_ROOT = "src/jmh/java";
+
+    private static final List<String> BUILD_FILES = List.of("build.gradle.kts", "build.gradle", "pom.xml");
+
+    private static final String GRADLE_PLUGIN_ID = "me.champeau.jmh";
+    private static final String GRADLE_PLUGIN_VERSION = "0.7.2";
+    private static final String MOCKITO_GROUP_ID = "org.mockito";
+    private static final String MOCKITO_ARTIFACT_ID = "mockito-core";
+    private static final String MOCKITO_VERSION = "5.12.0";
+    private static final String MOCKITO = MOCKITO_GROUP_ID + ":" + MOCKITO_ARTIFACT_ID + ":" + MOCKITO_VERSION;
+    private static final String JMH_GROUP_ID = "org.openjdk.jmh";
+    private static final String JMH_VERSION = "1.37";
+
+    private static final Pattern GRADLE_PLUGINS = Pattern.compile("(?m)^plugins\\s*\\{");
+
+    /**
+     * 顶层的 dependencies 块，buildscript 中缩进的块不算
+     */
+    private static final Pattern GRADLE_DEPENDENCIES = Pattern.compile("(?m)^dependencies\\s*\\{");
+
+    /**
+     * XML 注释、块注释和行首或空白之后的行注释，URL 中的 // 不是注释
+     */
+    private static final Pattern COMMENTS = Pattern.compile("(?s)<!--.*?-->|/\\*.*?\\*/|(?<!\\S)//[^\\n]*");
+
+    private JmhBuildSetup() {
+    }
+
+    /**
+     * 模块目录下的构建文件，Gradle 优先
+     */
+    static @Nullable VirtualFile findBuildFile(@NotNull VirtualFile moduleDirectory) {
+        for (String name : BUILD_FILES) {
+            VirtualFile buildFile = moduleDirectory.findChild(name);
+            if (buildFile != null && !buildFile.isDirectory()) {
+                return buildFile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 忽略注释，注释掉的 JMH 配置不算
+     */
+    static boolean hasJmh(@NotNull String buildFileText) {
+        String text = COMMENTS.matcher(buildFileText).replaceAll("");
+        return text.contains(GRADLE_PLUGIN_ID) || text.contains("jmh-core");
+    }
+
+    /**
+     * @return 添加了 JMH 配置的构建文件的文本
+     */
+    static @NotNull String addJmh(@NotNull String buildFileName, @NotNull String buildFileText) {
+        if ("pom.xml".equals(buildFileName)) {
+            return addMavenJmh(buildFileText);
+        }
+        return addGradleJmh(buildFileText, buildFileName.endsWith(".kts"));
+    }
+
+    private static String addGradleJmh(String text, boolean kotlin) {
+        String plugin = kotlin ? "    id(\"" + GRADLE_PLUGIN_ID + "\") version \"" + GRADLE_PLUGIN_VERSION + "\"\n"
+            : "    id '" + GRADLE_PLUGIN_ID + "' version '" + GRADLE_PLUGIN_VERSION + "'\n";
+        String dependency = kotlin ? "    jmh(\"" + MOCKITO + "\")\n" : "    jmh '" + MOCKITO + "'\n";
+
+        // 插件添加在 plugins 块中，没有时在文件开头新建；依赖添加在顶层的 dependencies 块中，没有时在文件末尾新建
+        Matcher plugins = GRADLE_PLUGINS.matcher(text);
+        String withPlugin = plugins.find() ? addToBlock(text, plugins.end(), plugin) : null;
+        if (withPlugin == null) {
+            withPlugin = "plugins {\n" + plugin + "}\n\n" + text;
+        }
+        Matcher dependencies = GRADLE_DEPENDENCIES.matcher(withPlugin);
+        String withDependency = dependencies.find() ? addToBlock(withPlugin, dependencies.end(), dependency) : null;
+        return withDependency != null ? withDependency
+            : withPlugin + (withPlugin.endsWith("\n") ? "" : "\n") + "\ndependencies {\n" + dependency + "}\n";
+    }
+
+    /**
+     * 在块的末尾添加一行，块只有一行时把右括号换到新的一行
+     *
+     * @param blockStart 左括号之后的位置
+     * @return 添加后的文本，括号不匹配时返回 null
+     */
+    private static @Nullable String addToBlock(String text, int blockStart, String line) {
+        int blockEnd = findBlockEnd(text, blockStart);
+        if (blockEnd < 0) {
+            return null;
+        }
+        String beforeEnd = text.substring(0, blockEnd);
+        int lineStart = beforeEnd.lastIndexOf('\n') + 1;
+        return beforeEnd.substring(lineStart).isBlank()
+            ? text.substring(0, lineStart) + line + text.substring(lineStart)
+            : beforeEnd.stripTrailing() + "\n" + line + text.substring(blockEnd);
+    }
+
+    /**
+     * 从左括号之后开始查找匹配的右括号
+     *
+     * @return 右括号的位置，括号不匹配时返回 -1
+     */
+    private static int findBlockEnd(String text, int from) {
+        int depth = 1;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String addMavenJmh(String text) {
+        // 已经依赖 Mockito 时不重复添加
+        boolean hasMockito = COMMENTS.matcher(text).replaceAll("")
+            .contains("<artifactId>" + MOCKITO_ARTIFACT_ID + "</artifactId>");
+        String dependencies = mavenDependency(JMH_GROUP_ID, "jmh-core", JMH_VERSION)
+            + mavenDependency(JMH_GROUP_ID, "jmh-generator-annprocess", JMH_VERSION)
+            + (hasMockito ? "" : mavenDependency(MOCKITO_GROUP_ID, MOCKITO_ARTIFACT_ID, MOCKITO_VERSION));
+        String plugin = """
+                    <plugin>
+                        <groupId>org.codehaus.mojo</groupId>
+                        <artifactId>build-helper-maven-plugin</artifactId>
+                        <version>3.6.0</version>
+                        <executions>
+                            <execution>
+                                <id>add-jmh-source</id>
+                                <phase>generate-test-sources</phase>
+                                <goals>
+                                    <goal>add-test-source</goal>
+                                </goals>
+                                <configuration>
+                                    <sources>
+                                        <source>%s</source>
+                                    </sources>
+                                </configuration>
+                            </execution>
+                        </executions>
+                    </plugin>
+        """.formatted(SOURCE_ROOT);
+
+        // 1. 依赖添加在项目的 dependencies 中，跳过 dependencyManagement
+        int dependenciesEnd = indexOutside(text, "</dependencies>", "<dependencyManagement>",
+            "</dependencyManagement>");
+        String result = dependenciesEnd < 0
+            ? insertAtLine(text, text.lastIndexOf("</project>"),
+            "    <dependencies>\n" + dependencies + "    </dependencies>\n")
+            : insertAtLine(text, dependenciesEnd, dependencies);
+
+        // 2. 插件添加在 build 的 plugins 中，跳过 pluginManagement
+        int buildStart = result.indexOf("<build>");
+        int buildEnd = result.indexOf("</build>", Math.max(0, buildStart));
+        if (buildStart < 0 || buildEnd < 0) {
+            return insertAtLine(result, result.lastIndexOf("</project>"),
+                "    <build>\n        <plugins>\n" + plugin + "        </plugins>\n    </build>\n");
+        }
+        String build = result.substring(buildStart, buildEnd);
+        int pluginsEnd = indexOutside(build, "</plugins>", "<pluginManagement>", "</pluginManagement>");
+        return pluginsEnd < 0
+            ? insertAtLine(result, buildEnd, "        <plugins>\n" + plugin + "        </plugins>\n")
+            : insertAtLine(result, buildStart + pluginsEnd, plugin);
+    }
+
+    private static String mavenDependency(String groupId, String artifactId, String version) {
+        return """
+                    <dependency>
+                        <groupId>%s</groupId>
+                        <artifactId>%s</artifactId>
+                        <version>%s</version>
+                        <scope>test</scope>
+                    </dependency>
+            """.formatted(groupId, artifactId, version);
+    }
+
+    /**
+     * token 在 excludedStart 和 excludedEnd 之外第一次出现的位置
+     */
+    private static int indexOutside(String text, String token, String excludedStart, String excludedEnd) {
+        int excludedFrom = text.indexOf(excludedStart);
+        int excludedTo = excludedFrom < 0 ? -1 : text.indexOf(excludedEnd, excludedFrom);
+        for (int index = text.indexOf(token); index >= 0; index = text.indexOf(token, index + 1)) {
+            if (index < excludedFrom || index > excludedTo) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在 index 所在的行之前插入，index 小于 0 时添加在文本末尾
+     */
+    private static String insertAtLine(String text, int index, String content) {
+        if (index < 0) {
+            return text + content;
+        }
+        int lineStart = text.lastIndexOf('\n', index) + 1;
+        return text.substring(0, lineStart) + content + text.substring(lineStart);
+    }
+
+}
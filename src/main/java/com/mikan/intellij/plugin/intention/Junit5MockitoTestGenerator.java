@@ -0,0 +1,765 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeElement;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.PsiWildcardType;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.impl.source.tree.JavaSourceUtil;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.intellij.util.io.DigestUtil;
+import org.apache.commons.lang3.StringUtils;
+import com.mikan.intellij.plugin.inspection.UnusedDependencyAnalyzer;
+import com.mikan.intellij.plugin.metrics.Metric;
+import com.mikan.intellij.plugin.metrics.PluginMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Generate a junit5 test class with mockito for a source class.
+ * <p>
+ * Does not depend on an editor, so it can be used by the intention as well as by bulk generation. The whole file is
+ * rendered as text from {@link TestClassTemplate} and created at once, only the generated parts are reformatted. The
+ * calls on the mocked fields found by {@link MockInteractionAnalyzer} are stubbed and verified in the test methods.
+ * <p>
+ * Only the collaborators are mocked, fields of a value type get a real value from {@link RealValues}. With
+ * {@link TestGenerationSettings#isPlainMocks() plain mocks} the mocks are created with {@code mock()} in
+ * {@code setUp} instead of by the {@code MockitoExtension}. Injected dependencies that are never read, found by
+ * {@link UnusedDependencyAnalyzer}, get no field and are constructed with {@code null}.
+ * <p>
+ * When the types resolve, the test class runs with {@code @Execution(CONCURRENT)} if the source class shares no state
+ * between tests. Otherwise it keeps the default execution mode and gets a {@code @ResourceLock} for every state
+ * found by {@link SharedStateAnalyzer}.
+ */
+public class Junit5MockitoTestGenerator {
+
+    private static final String MOCKITO = "org.mockito.Mockito";
+    private static final String ARGUMENT_MATCHERS = "org.mockito.ArgumentMatchers";
+
+    /**
+     * 参数类型的擦除 -> 参数匹配器，其他类型使用 any()
+     */
+    private static final Map<String, String> MATCHERS = Map.of("int", "anyInt", "long", "anyLong",
+        "boolean", "anyBoolean", "double", "anyDouble", "float", "anyFloat", "short", "anyShort", "byte", "anyByte",
+        "char", "anyChar", "java.lang.String", "anyString");
+
+    public static @NotNull String getTestClassName(@NotNull PsiClass srcClass) {
+        return srcClass.getName() + "Test";
+    }
+
+    /**
+     * 生成测试类，需要在写操作中调用
+     *
+     * @return 生成的测试文件，测试文件已经存在时返回 null
+     */
+    public @Nullable PsiJavaFile generate(@NotNull PsiClass srcClass, @NotNull PsiDirectory targetDirectory) {
+        TestGenerationPlan plan = this.plan(srcClass);
+        return plan == null ? null : this.apply(plan, targetDirectory);
+    }
+
+    /**
+     * 分析源类并生成测试文件的文本，只读取 PSI，可以在后台读操作中执行
+     *
+     * @return 生成计划，源目录下已经有测试类时返回 null
+     */
+    public @Nullable TestGenerationPlan plan(@NotNull PsiClass srcClass) {
+        String className = getTestClassName(srcClass);
+        if (this.hasTestClassInSourceDirectory(srcClass, className)) {
+            return null;
+        }
+
+        // 生成 package、类的内容和 import
+        RenderedTest rendered = this.render(srcClass, className, srcClass.getProject(), true);
+        return new TestGenerationPlan(srcClass.getQualifiedName(), this.fingerprint(srcClass), className,
+            className + ".java", rendered.text(), rendered.ranges(), rendered.savedMocks(), rendered.concurrent());
+    }
+
+    /**
+     * 索引不可用时生成测试文件的骨架，不做任何 resolve，可以在 dumb mode 中执行。
+     * mock 字段的类型按源文件的 import 文本导入，只有基本类型和 java.lang 中的类型使用真实的值。
+     * 不记录指纹，下次同步时会完整比较一次
+     */
+    public @NotNull TestGenerationPlan planSkeleton(@NotNull PsiClass srcClass) {
+        String className = getTestClassName(srcClass);
+        RenderedTest rendered = this.render(srcClass, className, srcClass.getProject(), false);
+        return new TestGenerationPlan(srcClass.getQualifiedName(), null, className, className + ".java",
+            rendered.text(), rendered.ranges(), rendered.savedMocks(), rendered.concurrent());
+    }
+
+    /**
+     * 根据生成计划创建测试文件，需要在写操作中调用
+     *
+     * @return 生成的测试文件，测试文件已经存在时返回 null
+     */
+    public @Nullable PsiJavaFile apply(@NotNull TestGenerationPlan plan, @NotNull PsiDirectory targetDirectory) {
+        // 1. 检查文件是否已经存在
+        if (targetDirectory.findFile(plan.fileName()) != null) {
+            return null;
+        }
+
+        // 2. 一次性创建文件
+        long start = PluginMetrics.start();
+        Project project = targetDirectory.getProject();
+        PsiFile file = PsiFileFactory.getInstance(project)
+            .createFileFromText(plan.fileName(), JavaFileType.INSTANCE, plan.text());
+        PsiJavaFile targetJavaFile = (PsiJavaFile)targetDirectory.add(file);
+        PluginMetrics.stop(Metric.GENERATOR_FILE_CREATION, start);
+
+        // 3. 只格式化生成的部分
+        start = PluginMetrics.start();
+        CodeStyleManager.getInstance(project).reformatText(targetJavaFile, plan.ranges());
+        PluginMetrics.stop(Metric.GENERATOR_REFORMAT, start);
+
+        // 4. 记录源类的指纹，源类没有变化时同步直接跳过
+        if (plan.sourceClassName() != null && plan.fingerprint() != null) {
+            TestSyncFingerprints.getInstance(project).update(plan.sourceClassName(), plan.fingerprint());
+        }
+
+        return targetJavaFile;
+    }
+
+    /**
+     * 在非物理文件中格式化生成计划的文本，不修改项目，可以在多个后台读操作中并行执行
+     */
+    public @NotNull String format(@NotNull TestGenerationPlan plan, @NotNull Project project) {
+        PsiFile file = PsiFileFactory.getInstance(project)
+            .createFileFromText(plan.fileName(), JavaFileType.INSTANCE, plan.text());
+        CodeStyleManager.getInstance(project).reformatText(file, plan.ranges());
+        return file.getText();
+    }
+
+    private RenderedTest render(PsiClass srcClass, String className, Project project,
+        boolean resolve) {
+        long start = PluginMetrics.start();
+        String packageName = ((PsiJavaFile)srcClass.getContainingFile()).getPackageName();
+        String packageStatement = packageName.isEmpty() ? "" : "package " + packageName + ";";
+        PluginMetrics.stop(Metric.GENERATOR_PACKAGE, start);
+
+        start = PluginMetrics.start();
+        Imports imports = new Imports(resolve ? null : (PsiJavaFile)srcClass.getContainingFile());
+        List<String> members = new ArrayList<>();
+
+        boolean plainMocks = TestGenerationSettings.getInstance(project).isPlainMocks();
+
+        // 1. 生成类注解，可以 resolve 时没有共享状态的测试类并发执行，有共享状态时对每个状态加锁
+        List<String> classAnnotations = new ArrayList<>();
+        if (!plainMocks) {
+            classAnnotations.add(this.generateClassAnnotation(imports));
+        }
+        boolean concurrent = false;
+        if (resolve) {
+            Set<String> resources = SharedStateAnalyzer.analyze(srcClass);
+            concurrent = resources.isEmpty();
+            this.generateExecutionAnnotations(resources, classAnnotations, imports);
+        }
+
+        // 2. 生成依赖字段，值类型的字段使用真实的值，其他的字段需要 mock，从未读取的依赖不生成字段
+        List<PsiField> dependencyFields = this.getDependencyFields(srcClass);
+        Set<PsiField> unusedFields = resolve ? this.getUnusedFields(srcClass) : Set.of();
+        List<PsiField> mockFields = this.generateDependencyFields(dependencyFields, unusedFields, members, imports,
+            resolve, plainMocks);
+
+        // 3. 生成测试目标字段
+        String targetFieldName = null;
+        if (this.hasAvailableConstructor(srcClass, dependencyFields.size())) {
+            targetFieldName = this.generateTargetField(srcClass, members);
+        }
+
+        // 4. 生成 setUp 方法，创建普通的 mock 和测试目标
+        List<String> mockCreations = plainMocks ? this.generateMockCreations(mockFields, imports) : List.of();
+        this.generateSetUpMethod(srcClass, dependencyFields, unusedFields, mockCreations, targetFieldName, members,
+            imports);
+
+        // 5. 生成测试方法，可以 resolve 时根据方法体中对 mock 字段的调用生成 stub 和 verify
+        this.generateTestMethod(srcClass, resolve ? mockFields : List.of(), targetFieldName, members, imports);
+        PluginMetrics.stop(Metric.GENERATOR_CLASS, start);
+
+        start = PluginMetrics.start();
+        String importList = resolve ? this.generateImportList(imports, packageName, project)
+            : this.generateImportList(imports.unresolvedImports(), imports.staticNames, packageName);
+        PluginMetrics.stop(Metric.GENERATOR_IMPORTS, start);
+
+        // 每个测试方法都会创建一次测试类的实例和其中的 mock
+        int savedMocks = (dependencyFields.size() - mockFields.size())
+            * Math.max(1, this.getTestedMethods(srcClass).size());
+
+        Map<String, String> values = new HashMap<>();
+        values.put(TestClassTemplate.PACKAGE_STATEMENT, packageStatement);
+        values.put(TestClassTemplate.IMPORTS, importList);
+        values.put(TestClassTemplate.CLASS_ANNOTATIONS, String.join("\n", classAnnotations));
+        values.put(TestClassTemplate.CLASS_NAME, className);
+        values.put(TestClassTemplate.MEMBERS, String.join("\n\n", members));
+        TestClassTemplate.Rendered rendered = TestClassTemplate.render(project, values);
+        return new RenderedTest(rendered.text(), rendered.ranges(), savedMocks, concurrent);
+    }
+
+    /**
+     * 源类中影响测试类的部分的指纹：依赖字段、构造方法和被测试的方法签名
+     */
+    @NotNull String fingerprint(@NotNull PsiClass srcClass) {
+        StringBuilder text = new StringBuilder();
+        Set<PsiField> unusedFields = this.getUnusedFields(srcClass);
+        for (PsiField field : this.getDependencyFields(srcClass)) {
+            text.append(unusedFields.contains(field) ? "U " : "F ").append(field.getType().getCanonicalText())
+                .append(' ').append(field.getName()).append('\n');
+        }
+        for (PsiMethod constructor : srcClass.getConstructors()) {
+            text.append("C ").append(this.isPrivateMethod(constructor) ? "private " : "")
+                .append(this.getParameterTypes(constructor)).append('\n');
+        }
+        for (PsiMethod method : this.getTestedMethods(srcClass)) {
+            text.append("M ").append(method.getName()).append(this.getParameterTypes(method)).append('\n');
+        }
+        return DigestUtil.sha256Hex(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String getParameterTypes(PsiMethod method) {
+        return Arrays.stream(method.getParameterList().getParameters())
+            .map(parameter -> parameter.getType().getCanonicalText())
+            .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private boolean hasTestClassInSourceDirectory(PsiClass srcClass, String className) {
+        PsiDirectory srcDirectory = srcClass.getContainingFile().getContainingDirectory();
+        final PsiPackage aPackage = srcDirectory == null ? null : JavaDirectoryService.getInstance()
+            .getPackage(srcDirectory);
+        if (aPackage == null) {
+            return false;
+        }
+        final GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(srcDirectory, false);
+        return aPackage.findClassByShortName(className, scope).length > 0;
+    }
+
+    private String generateImportList(Imports imports, String packageName, Project project) {
+        Set<String> importClasses = new TreeSet<>(imports.resolvedNames);
+        ImportResolutionCache importResolutionCache = ImportResolutionCache.getInstance(project);
+        for (String anImport : imports.names) {
+            PsiClass importClass = importResolutionCache.findClass(anImport);
+            if (importClass != null) {
+                importClasses.add(importClass.getQualifiedName());
+            }
+        }
+
+        return this.generateImportList(importClasses, imports.staticNames.stream()
+            .filter(staticName -> importResolutionCache.findClass(StringUtil.getPackageName(staticName)) != null)
+            .collect(Collectors.toSet()), packageName);
+    }
+
+    private String generateImportList(Set<String> importClasses, Set<String> staticNames, String packageName) {
+        String importList = importClasses.stream()
+            // 不需要导入 java.lang 和同一个包下的类
+            .filter(importClass -> {
+                String importPackage = StringUtil.getPackageName(importClass);
+                return !"java.lang".equals(importPackage) && !packageName.equals(importPackage);
+            })
+            .map(importClass -> "import " + importClass + ";")
+            .collect(Collectors.joining("\n"));
+        String staticImportList = staticNames.stream()
+            .sorted()
+            .map(staticName -> "import static " + staticName + ";")
+            .collect(Collectors.joining("\n"));
+        return staticImportList.isEmpty() ? importList : importList + "\n\n" + staticImportList;
+    }
+
+    private String generateClassAnnotation(Imports imports) {
+        imports.add("org.junit.jupiter.api.extension.ExtendWith");
+        imports.add("org.mockito.junit.jupiter.MockitoExtension");
+        return "@ExtendWith(MockitoExtension.class)";
+    }
+
+    /**
+     * 源类没有在测试之间共享的状态时，测试类在 JUnit 5 的并发模式下执行，否则按默认模式执行，并对
+     * {@link SharedStateAnalyzer} 找出的每个共享状态加锁
+     */
+    private void generateExecutionAnnotations(Set<String> resources, List<String> annotations, Imports imports) {
+        if (resources.isEmpty()) {
+            imports.add("org.junit.jupiter.api.parallel.Execution");
+            imports.add("org.junit.jupiter.api.parallel.ExecutionMode");
+            annotations.add("@Execution(ExecutionMode.CONCURRENT)");
+            return;
+        }
+        for (String resource : resources) {
+            imports.add("org.junit.jupiter.api.parallel.ResourceLock");
+            String junitResourceName = SharedStateAnalyzer.getJunitResourceName(resource);
+            if (junitResourceName == null) {
+                annotations.add("@ResourceLock(\"" + resource + "\")");
+            } else {
+                imports.add("org.junit.jupiter.api.parallel.Resources");
+                annotations.add("@ResourceLock(Resources." + junitResourceName + ")");
+            }
+        }
+    }
+
+    private void generateSetUpMethod(PsiClass srcClass, List<PsiField> dependencyFields, Set<PsiField> unusedFields,
+        List<String> mockCreations, @Nullable String targetFieldName, List<String> members, Imports imports) {
+        if (targetFieldName == null && mockCreations.isEmpty()) {
+            return;
+        }
+
+        members.add("@BeforeEach\n"
+            + this.generateSetUpMethodText(srcClass, dependencyFields, unusedFields, mockCreations, targetFieldName));
+        imports.add("org.junit.jupiter.api.BeforeEach");
+    }
+
+    /**
+     * @param unusedFields    从未读取的依赖字段，构造时传入 null，基本类型传入默认的值
+     * @param mockCreations   普通的 mock 的创建语句，使用 MockitoExtension 时为空
+     * @param targetFieldName 测试目标字段，没有可用的构造方法时为 null
+     */
+    @NotNull String generateSetUpMethodText(PsiClass srcClass, List<PsiField> dependencyFields,
+        Set<PsiField> unusedFields, List<String> mockCreations, @Nullable String targetFieldName) {
+        StringBuilder text = new StringBuilder("void setUp() {\n");
+        for (String mockCreation : mockCreations) {
+            text.append(mockCreation).append('\n');
+        }
+        if (targetFieldName != null) {
+            text.append("this.").append(targetFieldName).append(" = new ").append(srcClass.getName())
+                .append(this.generateConstructorArguments(dependencyFields, unusedFields)).append(";\n");
+        }
+        return text.append("}").toString();
+    }
+
+    private List<String> generateMockCreations(List<PsiField> mockFields, Imports imports) {
+        if (!mockFields.isEmpty()) {
+            imports.addStatic(MOCKITO + ".mock");
+        }
+        return mockFields.stream()
+            .map(field -> "this." + field.getName() + " = mock(" + getRawTypeText(imports.typeTexts.get(field))
+                + ".class);")
+            .toList();
+    }
+
+    /**
+     * 类型文本去掉泛型参数，例如 List<Foo> -> List
+     */
+    private static String getRawTypeText(String typeText) {
+        int index = typeText.indexOf('<');
+        return index < 0 ? typeText : typeText.substring(0, index);
+    }
+
+    @NotNull String generateConstructorArguments(List<PsiField> dependencyFields, Set<PsiField> unusedFields) {
+        return "(" + String.join(", ", this.generateConstructorArgumentList(dependencyFields, unusedFields)) + ")";
+    }
+
+    /**
+     * 构造方法的每个实参，顺序和依赖字段一致
+     */
+    @NotNull List<String> generateConstructorArgumentList(List<PsiField> dependencyFields,
+        Set<PsiField> unusedFields) {
+        return dependencyFields.stream()
+            .map(field -> unusedFields.contains(field) ? RealValues.forUnusedDependency(field.getType())
+                : field.getName())
+            .toList();
+    }
+
+    private void generateTestMethod(PsiClass srcClass, List<PsiField> mockFields, @Nullable String targetFieldName,
+        List<String> members, Imports imports) {
+        List<PsiMethod> testedMethods = this.getTestedMethods(srcClass);
+        Map<PsiMethod, List<MockCall>> calls = this.getMockCalls(srcClass, mockFields, testedMethods,
+            targetFieldName);
+        for (PsiMethod method : testedMethods) {
+            List<MockCall> methodCalls = calls.getOrDefault(method, List.of());
+            members.add("@Test\n" + this.generateTestMethodText(method, targetFieldName, methodCalls, false));
+            if (targetFieldName != null && !methodCalls.isEmpty()) {
+                this.addStubImports(method, methodCalls, imports);
+            }
+        }
+
+        if (!testedMethods.isEmpty()) {
+            imports.add("org.junit.jupiter.api.Test");
+        }
+    }
+
+    /**
+     * 被测试方法中对 mock 字段的调用，没有测试目标字段时无法调用被测试方法，不需要分析
+     */
+    @NotNull Map<PsiMethod, List<MockCall>> getMockCalls(@NotNull PsiClass srcClass, @NotNull List<PsiField> mockFields,
+        @NotNull List<PsiMethod> testedMethods, @Nullable String targetFieldName) {
+        if (targetFieldName == null || mockFields.isEmpty()) {
+            return Map.of();
+        }
+        return MockInteractionAnalyzer.analyze(srcClass, mockFields, testedMethods);
+    }
+
+    /**
+     * 测试方法，有对 mock 字段的调用时生成 stub、被测试方法的调用和 verify。不一定执行的调用使用 lenient 的 stub，
+     * 严格的 stub 未使用时会失败，verify 只要求一定执行的次数。被测试方法的参数使用真实的值或者 mock，不传入 null
+     *
+     * @param qualified 是否使用限定名，同步到已有测试类时由 shortenClassReferences 缩短
+     */
+    @NotNull String generateTestMethodText(PsiMethod method, @Nullable String targetFieldName, List<MockCall> calls,
+        boolean qualified) {
+        StringBuilder text = new StringBuilder("void ").append(getTestMethodName(method)).append("() {\n");
+        if (targetFieldName == null || calls.isEmpty()) {
+            return text.append("}").toString();
+        }
+
+        String mockito = qualified ? MOCKITO + "." : "";
+        List<MockCall> stubbedCalls = calls.stream().filter(call -> !call.isVoid()).toList();
+        if (!stubbedCalls.isEmpty()) {
+            text.append("// given\n");
+            for (MockCall call : stubbedCalls) {
+                text.append(mockito).append(call.times() == 0 ? "lenient().when(this." : "when(this.")
+                    .append(call.fieldName()).append('.').append(call.methodName())
+                    .append(generateMatchers(call, qualified)).append(").thenReturn(")
+                    .append(getDefaultValue(call.returnType(), qualified)).append(");\n");
+            }
+            text.append('\n');
+        }
+
+        text.append("// when\n").append("this.").append(targetFieldName).append('.').append(method.getName())
+            .append(Arrays.stream(method.getParameterList().getParameters())
+                .map(parameter -> generateArgument(parameter.getType(), qualified))
+                .collect(Collectors.joining(", ", "(", ")")))
+            .append(";\n\n");
+
+        text.append("// then\n");
+        for (MockCall call : calls) {
+            text.append(mockito).append("verify(this.").append(call.fieldName()).append(generateTimes(call, mockito))
+                .append(").").append(call.methodName()).append(generateMatchers(call, qualified)).append(";\n");
+        }
+        return text.append("}").toString();
+    }
+
+    /**
+     * verify 的次数，只验证一定执行的次数
+     */
+    private static String generateTimes(MockCall call, String mockito) {
+        if (call.conditional()) {
+            return ", " + mockito + "atLeast(" + call.times() + ")";
+        }
+        return call.times() == 1 ? "" : ", " + mockito + "times(" + call.times() + ")";
+    }
+
+    /**
+     * 被测试方法的实参，没有真实的值时使用 mock
+     */
+    private static String generateArgument(PsiType type, boolean qualified) {
+        RealValues.RealValue value = RealValues.forType(type);
+        if (value != null) {
+            return value.getText(qualified);
+        }
+        PsiType erasure = TypeConversionUtil.erasure(type);
+        return (qualified ? MOCKITO + ".mock(" + erasure.getCanonicalText() : "mock(" + erasure.getPresentableText())
+            + ".class)";
+    }
+
+    private void addStubImports(PsiMethod method, List<MockCall> calls, Imports imports) {
+        imports.addStatic(MOCKITO + ".verify");
+        for (MockCall call : calls) {
+            if (!call.isVoid()) {
+                imports.addStatic(MOCKITO + ".when");
+                if (call.times() == 0) {
+                    imports.addStatic(MOCKITO + ".lenient");
+                }
+                this.addDefaultValueImport(call.returnType(), imports);
+            }
+            if (call.conditional()) {
+                imports.addStatic(MOCKITO + ".atLeast");
+            } else if (call.times() != 1) {
+                imports.addStatic(MOCKITO + ".times");
+            }
+            for (String parameterType : call.parameterTypes()) {
+                imports.addStatic(ARGUMENT_MATCHERS + "." + MATCHERS.getOrDefault(parameterType, "any"));
+            }
+        }
+        for (PsiParameter parameter : method.getParameterList().getParameters()) {
+            RealValues.RealValue value = RealValues.forType(parameter.getType());
+            if (value != null) {
+                imports.resolvedNames.addAll(value.imports());
+            } else {
+                imports.addStatic(MOCKITO + ".mock");
+                imports.add(TypeConversionUtil.erasure(parameter.getType()));
+            }
+        }
+    }
+
+    private void addDefaultValueImport(String type, Imports imports) {
+        RealValues.RealValue value = RealValues.forErasure(type);
+        if (value != null) {
+            imports.resolvedNames.addAll(value.imports());
+        }
+    }
+
+    private static String generateMatchers(MockCall call, boolean qualified) {
+        String prefix = qualified ? ARGUMENT_MATCHERS + "." : "";
+        return call.parameterTypes().stream()
+            .map(type -> prefix + MATCHERS.getOrDefault(type, "any") + "()")
+            .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * 类型的默认值，没有合适的值时为 null
+     */
+    private static String getDefaultValue(String type, boolean qualified) {
+        RealValues.RealValue value = RealValues.forErasure(type);
+        return value == null ? "null" : value.getText(qualified);
+    }
+
+    static @NotNull String getTestMethodName(@NotNull PsiMethod method) {
+        return "should_" + method.getName() + "_successfully";
+    }
+
+    @NotNull List<PsiMethod> getTestedMethods(@NotNull PsiClass srcClass) {
+        return Arrays.stream(srcClass.getMethods())
+            .filter(method -> !method.hasModifierProperty(PsiModifier.PRIVATE)
+                && !method.isConstructor())
+            .toList();
+    }
+
+    /**
+     * @return 需要 mock 的字段
+     */
+    private List<PsiField> generateDependencyFields(List<PsiField> dependencyFields, Set<PsiField> unusedFields,
+        List<String> members, Imports imports, boolean resolve, boolean plainMocks) {
+        List<PsiField> mockFields = new ArrayList<>();
+        for (PsiField field : dependencyFields) {
+            if (unusedFields.contains(field)) {
+                continue;
+            }
+            String typeText = imports.add(field);
+            RealValues.RealValue value = resolve ? RealValues.forType(field.getType())
+                : RealValues.forUnresolvedField(field);
+            if (value != null) {
+                members.add("private final " + typeText + " " + field.getName() + " = " + value.text() + ";");
+                imports.resolvedNames.addAll(value.imports());
+            } else {
+                members.add((plainMocks ? "" : "@Mock\n") + "private " + typeText + " " + field.getName() + ";");
+                mockFields.add(field);
+            }
+        }
+
+        if (!plainMocks && !mockFields.isEmpty()) {
+            imports.add("org.mockito.Mock");
+        }
+
+        return mockFields;
+    }
+
+    /**
+     * 构造测试目标时传入的字段，即源类中所有的非静态字段
+     */
+    @NotNull List<PsiField> getDependencyFields(@NotNull PsiClass srcClass) {
+        return Arrays.stream(srcClass.getFields())
+            .filter(field -> !field.hasModifierProperty(PsiModifier.STATIC))
+            .toList();
+    }
+
+    /**
+     * 源类中从未读取的注入字段，测试中不需要 mock，需要在 smart mode 的读操作中调用
+     */
+    @NotNull Set<PsiField> getUnusedFields(@NotNull PsiClass srcClass) {
+        return UnusedDependencyAnalyzer.analyze(srcClass).fields();
+    }
+
+    /**
+     * 依赖字段中需要 mock 的字段，值类型的字段使用 {@link RealValues} 中的真实的值，需要在 smart mode 的读操作中调用
+     */
+    @NotNull List<PsiField> getMockFields(@NotNull List<PsiField> dependencyFields) {
+        return dependencyFields.stream()
+            .filter(field -> RealValues.forType(field.getType()) == null)
+            .toList();
+    }
+
+    private String generateTargetField(PsiClass srcClass, List<String> members) {
+        String fieldName = getTargetFieldName(srcClass);
+        members.add("private " + srcClass.getName() + " " + fieldName + ";");
+        return fieldName;
+    }
+
+    static @NotNull String getTargetFieldName(@NotNull PsiClass srcClass) {
+        return StringUtils.uncapitalize(srcClass.getName());
+    }
+
+    /**
+     * 是否可以用依赖字段构造被测试的实例，抽象类和枚举不能直接构造
+     */
+    boolean hasAvailableConstructor(PsiClass srcClass, int expectParameterCount) {
+        if (srcClass.isEnum() || srcClass.hasModifierProperty(PsiModifier.ABSTRACT)) {
+            return false;
+        }
+        PsiMethod constructor = this.getConstructor(srcClass, expectParameterCount);
+        if (constructor == null) {
+            return false;
+        }
+
+        return !this.isPrivateMethod(constructor);
+    }
+
+    private @Nullable PsiMethod getConstructor(PsiClass srcClass, int expectParameterCount) {
+        PsiMethod[] constructors = srcClass.getConstructors();
+        for (PsiMethod constructor : constructors) {
+            PsiParameterList parameterList = constructor.getParameterList();
+            int parametersCount = parameterList.getParametersCount();
+            if (parametersCount == expectParameterCount) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private boolean isPrivateMethod(PsiMethod psiMethod) {
+        PsiModifierList modifierList = psiMethod.getModifierList();
+        return modifierList.hasExplicitModifier(PsiModifier.PRIVATE);
+    }
+
+    /**
+     * 生成测试类需要的 import
+     */
+    private static final class Imports {
+
+        private static final Pattern IDENTIFIER = Pattern.compile("[\\p{javaJavaIdentifierStart}]"
+            + "[\\p{javaJavaIdentifierPart}]*");
+
+        /**
+         * 需要按限定名查找确认的类，例如 junit 和 mockito 的类
+         */
+        private final Set<String> names = new LinkedHashSet<>();
+
+        /**
+         * 已经从类型 resolve 得到的类，不需要再查找
+         */
+        private final Set<String> resolvedNames = new LinkedHashSet<>();
+
+        /**
+         * 静态 import 的成员，例如 org.mockito.Mockito.when
+         */
+        private final Set<String> staticNames = new LinkedHashSet<>();
+
+        /**
+         * 不能 resolve 时的源文件，字段类型按它的 import 文本导入
+         */
+        private final @Nullable PsiJavaFile unresolvedSourceFile;
+
+        /**
+         * 字段 -> 字段类型在测试类中的文本
+         */
+        private final Map<PsiField, String> typeTexts = new HashMap<>();
+
+        Imports(@Nullable PsiJavaFile unresolvedSourceFile) {
+            this.unresolvedSourceFile = unresolvedSourceFile;
+        }
+
+        void add(String qualifiedName) {
+            this.names.add(qualifiedName);
+        }
+
+        void addStatic(String memberName) {
+            this.staticNames.add(memberName);
+        }
+
+        /**
+         * @return 字段类型在测试类中的文本
+         */
+        String add(PsiField field) {
+            return this.typeTexts.computeIfAbsent(field, this::addFieldType);
+        }
+
+        private String addFieldType(PsiField field) {
+            PsiTypeElement typeElement = field.getTypeElement();
+            if (this.unresolvedSourceFile == null || typeElement == null) {
+                this.add(field.getType());
+                return field.getType().getPresentableText();
+            }
+
+            // 类型中的每个标识符找源文件中同名的单类 import，找不到时保留按需 import
+            PsiImportList importList = this.unresolvedSourceFile.getImportList();
+            String typeText = typeElement.getText();
+            Matcher identifiers = IDENTIFIER.matcher(typeText);
+            boolean unmatched = false;
+            while (importList != null && identifiers.find()) {
+                String identifier = identifiers.group();
+                boolean matched = false;
+                for (PsiImportStatement statement : importList.getImportStatements()) {
+                    PsiJavaCodeReferenceElement reference = statement.getImportReference();
+                    String importText = reference == null ? null : JavaSourceUtil.getReferenceText(reference);
+                    if (importText != null && !statement.isOnDemand()
+                        && identifier.equals(StringUtil.getShortName(importText))) {
+                        this.resolvedNames.add(importText);
+                        matched = true;
+                    }
+                }
+                unmatched |= !matched;
+            }
+            if (unmatched) {
+                for (PsiImportStatement statement : importList.getImportStatements()) {
+                    PsiJavaCodeReferenceElement reference = statement.getImportReference();
+                    if (statement.isOnDemand() && reference != null) {
+                        this.resolvedNames.add(JavaSourceUtil.getReferenceText(reference) + ".*");
+                    }
+                }
+            }
+            return typeText;
+        }
+
+        Set<String> unresolvedImports() {
+            Set<String> imports = new TreeSet<>(this.names);
+            imports.addAll(this.resolvedNames);
+            return imports;
+        }
+
+        void add(PsiType type) {
+            PsiType deepType = type.getDeepComponentType();
+            if (deepType instanceof PsiWildcardType wildcardType) {
+                PsiType bound = wildcardType.getBound();
+                if (bound != null) {
+                    this.add(bound);
+                }
+                return;
+            }
+            if (!(deepType instanceof PsiClassType classType)) {
+                return;
+            }
+
+            PsiClass psiClass = classType.resolve();
+            if (psiClass != null && !(psiClass instanceof PsiTypeParameter) && psiClass.getQualifiedName() != null) {
+                this.resolvedNames.add(psiClass.getQualifiedName());
+            }
+            // 泛型参数也需要导入，例如 List<Foo> 中的 Foo
+            for (PsiType parameter : classType.getParameters()) {
+                this.add(parameter);
+            }
+        }
+
+    }
+
+    private record RenderedTest(String text, List<TextRange> ranges, int savedMocks, boolean concurrent) {
+    }
+
+}
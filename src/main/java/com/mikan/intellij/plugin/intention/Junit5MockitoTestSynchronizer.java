@@ -0,0 +1,254 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionList;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.mikan.intellij.plugin.metrics.Metric;
+import com.mikan.intellij.plugin.metrics.PluginMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bring an existing junit5 test class up to date with its source class.
+ * <p>
+ * Only the missing mock and value fields, the missing arguments of the target constructed in {@code setUp} and the
+ * missing {@code should_x_successfully} methods are added, nothing in the test class is removed or replaced. A source
+ * class whose {@link Junit5MockitoTestGenerator#fingerprint fingerprint} is unchanged since the last generation or sync
+ * is skipped without reading its test class, so re-syncing a module costs in proportion to what changed. This also
+ * means that a test method or field the user deleted from the test class is not restored until the source class
+ * changes again. With {@link TestGenerationSettings#isPlainMocks() plain mocks} a missing mock field is initialized
+ * with {@code mock()}.
+ */
+public class Junit5MockitoTestSynchronizer {
+
+    private static final String SET_UP = "setUp";
+
+    private final Junit5MockitoTestGenerator generator;
+
+    public Junit5MockitoTestSynchronizer(@NotNull Junit5MockitoTestGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * 比较源类和测试类，只读取 PSI，可以在后台读操作中执行
+     *
+     * @return 同步计划，源类从上次生成或者同步之后没有变化时返回 null
+     */
+    public @Nullable TestSyncPlan plan(@NotNull PsiClass srcClass, @NotNull PsiClass testClass) {
+        long start = PluginMetrics.start();
+        TestSyncPlan plan = this.compare(srcClass, testClass);
+        PluginMetrics.stop(Metric.SYNC_PLAN, start);
+        return plan;
+    }
+
+    private @Nullable TestSyncPlan compare(PsiClass srcClass, PsiClass testClass) {
+        String sourceClassName = srcClass.getQualifiedName();
+        if (sourceClassName == null) {
+            return null;
+        }
+        String fingerprint = this.generator.fingerprint(srcClass);
+        if (TestSyncFingerprints.getInstance(srcClass.getProject()).isUpToDate(sourceClassName, fingerprint)) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        List<String> methods = new ArrayList<>();
+
+        // 1. 缺少的依赖字段，值类型的字段使用真实的值，从未读取的依赖不需要字段
+        List<PsiField> dependencyFields = this.generator.getDependencyFields(srcClass);
+        Set<PsiField> unusedFields = this.generator.getUnusedFields(srcClass);
+        List<PsiField> mockFields = this.generator.getMockFields(dependencyFields).stream()
+            .filter(field -> !unusedFields.contains(field))
+            .toList();
+        boolean plainMocks = TestGenerationSettings.getInstance(srcClass.getProject()).isPlainMocks();
+        for (PsiField field : dependencyFields) {
+            if (!unusedFields.contains(field) && testClass.findFieldByName(field.getName(), false) == null) {
+                fields.add(this.generateFieldText(field, mockFields.contains(field), plainMocks));
+            }
+        }
+
+        // 2. 测试目标字段和 setUp 方法，已经有 setUp 时只插入缺少的构造参数
+        Map<Integer, String> missingArguments = Map.of();
+        String targetFieldName = null;
+        if (this.generator.hasAvailableConstructor(srcClass, dependencyFields.size())) {
+            targetFieldName = Junit5MockitoTestGenerator.getTargetFieldName(srcClass);
+            PsiNewExpression newExpression = findTargetConstruction(testClass, srcClass);
+            if (newExpression == null) {
+                if (testClass.findFieldByName(targetFieldName, false) == null) {
+                    fields.add("private " + sourceClassName + " " + targetFieldName + ";");
+                }
+                if (testClass.findMethodsByName(SET_UP, false).length == 0) {
+                    methods.add("@org.junit.jupiter.api.BeforeEach\n"
+                        + this.generator.generateSetUpMethodText(srcClass, dependencyFields, unusedFields, List.of(),
+                        targetFieldName));
+                }
+            } else {
+                PsiExpressionList argumentList = newExpression.getArgumentList();
+                if (argumentList != null) {
+                    missingArguments = findMissingArguments(argumentList,
+                        this.generator.generateConstructorArgumentList(dependencyFields, unusedFields));
+                }
+            }
+        }
+
+        // 3. 缺少的测试方法
+        List<PsiMethod> testedMethods = this.generator.getTestedMethods(srcClass);
+        Map<PsiMethod, List<MockCall>> calls = null;
+        for (PsiMethod method : testedMethods) {
+            if (testClass.findMethodsByName(Junit5MockitoTestGenerator.getTestMethodName(method), false).length == 0) {
+                if (calls == null) {
+                    calls = this.generator.getMockCalls(srcClass, mockFields, testedMethods, targetFieldName);
+                }
+                methods.add("@org.junit.jupiter.api.Test\n" + this.generator.generateTestMethodText(method,
+                    targetFieldName, calls.getOrDefault(method, List.of()), true));
+            }
+        }
+
+        return new TestSyncPlan(sourceClassName, fingerprint, List.copyOf(fields), List.copyOf(methods),
+            missingArguments);
+    }
+
+    /**
+     * 按顺序对齐已有的实参和生成的实参，文本相同的实参保留，缺少的实参插入到对应的位置。已有的实参数量不少于
+     * 生成的实参时不修改，其中文本不同的实参是手动修改的，例如 spy 或者真实的值
+     *
+     * @return 实参在完整参数列表中的位置 -> 缺少的实参
+     */
+    private static Map<Integer, String> findMissingArguments(PsiExpressionList argumentList, List<String> arguments) {
+        PsiExpression[] expressions = argumentList.getExpressions();
+        int missingCount = arguments.size() - expressions.length;
+        if (missingCount <= 0) {
+            return Map.of();
+        }
+        Map<Integer, String> missingArguments = new LinkedHashMap<>();
+        int existing = 0;
+        for (int i = 0; i < arguments.size(); i++) {
+            if (existing < expressions.length && arguments.get(i).equals(expressions[existing].getText())) {
+                existing++;
+            } else if (missingArguments.size() < missingCount) {
+                missingArguments.put(i, arguments.get(i));
+            } else {
+                existing++;
+            }
+        }
+        return missingArguments;
+    }
+
+    /**
+     * 使用限定名的字段文本，添加之后由 shortenClassReferences 缩短
+     */
+    private String generateFieldText(PsiField field, boolean mock, boolean plainMocks) {
+        String typeText = field.getType().getCanonicalText();
+        if (!mock) {
+            RealValues.RealValue value = RealValues.forType(field.getType());
+            assert value != null;
+            return "private final " + typeText + " " + field.getName() + " = " + value.qualifiedText() + ";";
+        }
+        if (plainMocks) {
+            return "private " + typeText + " " + field.getName() + " = org.mockito.Mockito.mock("
+                + TypeConversionUtil.erasure(field.getType()).getCanonicalText() + ".class);";
+        }
+        return "@org.mockito.Mock\nprivate " + typeText + " " + field.getName() + ";";
+    }
+
+    /**
+     * 根据同步计划修改测试类，需要在写操作中调用
+     *
+     * @return 测试类是否被修改
+     */
+    public boolean apply(@NotNull TestSyncPlan plan, @NotNull PsiClass srcClass, @NotNull PsiClass testClass) {
+        long start = PluginMetrics.start();
+        boolean modified = this.addMissingMembers(plan, srcClass, testClass);
+        PluginMetrics.stop(Metric.SYNC_APPLY, start);
+        return modified;
+    }
+
+    private boolean addMissingMembers(TestSyncPlan plan, PsiClass srcClass, PsiClass testClass) {
+        Project project = testClass.getProject();
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(project);
+        List<PsiElement> addedMembers = new ArrayList<>();
+
+        // 1. 字段添加在已有字段之后，没有字段时添加在类的开头，字段之间空一行
+        PsiField[] existingFields = testClass.getFields();
+        PsiElement anchor = existingFields.length == 0
+            ? testClass.getLBrace() : existingFields[existingFields.length - 1];
+        PsiParserFacade parserFacade = PsiParserFacade.getInstance(project);
+        for (String fieldText : plan.fields()) {
+            PsiField field = factory.createFieldFromText(fieldText, testClass);
+            if (anchor instanceof PsiField) {
+                anchor = testClass.addAfter(parserFacade.createWhiteSpaceFromText("\n\n"), anchor);
+            }
+            anchor = anchor == null ? testClass.add(field) : testClass.addAfter(field, anchor);
+            addedMembers.add(anchor);
+        }
+
+        // 2. 方法添加在类的末尾
+        for (String methodText : plan.methods()) {
+            addedMembers.add(testClass.add(factory.createMethodFromText(methodText, testClass)));
+        }
+
+        // 3. 在 setUp 的构造参数中按位置升序插入缺少的实参，已有的实参不变
+        boolean constructorUpdated = false;
+        PsiNewExpression newExpression = plan.missingArguments().isEmpty() ? null
+            : findTargetConstruction(testClass, srcClass);
+        PsiExpressionList argumentList = newExpression == null ? null : newExpression.getArgumentList();
+        if (argumentList != null) {
+            for (Map.Entry<Integer, String> entry : plan.missingArguments().entrySet()) {
+                PsiExpression argument = factory.createExpressionFromText(entry.getValue(), newExpression);
+                PsiExpression[] expressions = argumentList.getExpressions();
+                int index = Math.min(entry.getKey(), expressions.length);
+                if (expressions.length == 0) {
+                    addedMembers.add(argumentList.add(argument));
+                } else if (index == 0) {
+                    addedMembers.add(argumentList.addBefore(argument, expressions[0]));
+                } else {
+                    addedMembers.add(argumentList.addAfter(argument, expressions[index - 1]));
+                }
+                constructorUpdated = true;
+            }
+        }
+
+        // 4. 只缩短和格式化新增的部分
+        JavaCodeStyleManager javaCodeStyleManager = JavaCodeStyleManager.getInstance(project);
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(project);
+        for (PsiElement member : addedMembers) {
+            codeStyleManager.reformat(javaCodeStyleManager.shortenClassReferences(member));
+        }
+
+        TestSyncFingerprints.getInstance(project).update(plan.sourceClassName(), plan.fingerprint());
+        return !plan.fields().isEmpty() || !plan.methods().isEmpty() || constructorUpdated;
+    }
+
+    private static @Nullable PsiNewExpression findTargetConstruction(PsiClass testClass, PsiClass srcClass) {
+        for (PsiMethod setUp : testClass.findMethodsByName(SET_UP, false)) {
+            for (PsiNewExpression newExpression : PsiTreeUtil.findChildrenOfType(setUp, PsiNewExpression.class)) {
+                PsiJavaCodeReferenceElement reference = newExpression.getClassReference();
+                if (reference != null && srcClass.getName() != null
+                    && srcClass.getName().equals(reference.getReferenceName())) {
+                    return newExpression;
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.model.java.JavaResourceRootType;
+
+/**
+ * The {@code junit-platform.properties} enabling parallel execution in the test resources of a module.
+ * <p>
+ * Parallel execution is enabled with {@code same_thread} as the default mode, so only the test classes annotated with
+ * {@code @Execution(CONCURRENT)} are forked. The other test classes still run one after another, but alongside the
+ * concurrent ones, and without a {@code @ResourceLock} they take no locks. The generator therefore marks only the
+ * test classes whose source class shares no state between tests as concurrent, and annotates the others with the
+ * locks of their shared state. Existing tests that change global state, e.g. system properties, need a
+ * {@code @ResourceLock} too. The dynamic strategy sizes the pool by the available cores, the test wall time scales
+ * with the CI machine.
+ */
+final class JunitParallelSetup {
+
+    static final String FILE_NAME = "junit-platform.properties";
+
+    private static final String TEXT = """
+        junit.jupiter.execution.parallel.enabled = true
+        junit.jupiter.execution.parallel.mode.default = same_thread
+        junit.jupiter.execution.parallel.mode.classes.default = same_thread
+        junit.jupiter.execution.parallel.config.strategy = dynamic
+        junit.jupiter.execution.parallel.config.dynamic.factor = 1
+        """;
+
+    private JunitParallelSetup() {
+    }
+
+    /**
+     * 模块的测试中是否已经有 junit-platform.properties，需要在读操作中调用
+     */
+    static boolean hasConfig(@NotNull Module module) {
+        return !FilenameIndex.getVirtualFilesByName(FILE_NAME, GlobalSearchScope.moduleScope(module).union(
+            module.getModuleTestsWithDependentsScope())).isEmpty();
+    }
+
+    /**
+     * 创建在模块的测试资源目录中，没有测试资源目录时创建在测试源码目录旁边的 resources 中，需要在写操作中调用
+     *
+     * @param testDirectory 测试类所在的目录
+     */
+    static @Nullable VirtualFile createConfig(@NotNull Module module, @NotNull VirtualFile testDirectory)
+        throws IOException {
+        List<VirtualFile> resourceRoots = ModuleRootManager.getInstance(module)
+            .getSourceRoots(JavaResourceRootType.TEST_RESOURCE);
+        VirtualFile resourceRoot = resourceRoots.isEmpty() ? null : resourceRoots.get(0);
+        if (resourceRoot == null) {
+            VirtualFile testSourceRoot = ProjectFileIndex.getInstance(module.getProject())
+                .getSourceRootForFile(testDirectory);
+            if (testSourceRoot == null || testSourceRoot.getParent() == null) {
+                return null;
+            }
+            resourceRoot = VfsUtil.createDirectoryIfMissing(testSourceRoot.getParent(), "resources");
+        }
+
+        VirtualFile config = resourceRoot.findChild(FILE_NAME);
+        if (config == null) {
+            config = resourceRoot.createChildData(JunitParallelSetup.class, FILE_NAME);
+            config.setBinaryContent(TEXT.getBytes(StandardCharsets.UTF_8));
+        }
+        return config;
+    }
+
+}
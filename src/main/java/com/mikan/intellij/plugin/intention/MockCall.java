@@ -0,0 +1,38 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+
+/**
+ * A call on a mocked field in a tested method, as collected by {@link MockInteractionAnalyzer}. The call sites with
+ * the same method and parameter types are merged into one call.
+ *
+ * @param fieldName      被 mock 的字段名
+ * @param methodName     调用的方法名
+ * @param parameterTypes 每个实参对应的形参类型的擦除，例如 {@code java.lang.String}、{@code int}
+ * @param returnType     返回类型的擦除，{@code void} 方法不需要 stub
+ * @param times          每次执行被测试方法时一定执行的次数，即顶层语句中调用的数量
+ * @param conditional    是否还有在分支、循环或者 lambda 中的调用，这些调用执行的次数不确定
+ */
+record MockCall(String fieldName, String methodName, List<String> parameterTypes, String returnType, int times,
+                boolean conditional) {
+
+    boolean isVoid() {
+        return "void".equals(this.returnType);
+    }
+
+    /**
+     * 同一个方法的调用合并时使用的 key
+     */
+    String signature() {
+        return this.fieldName + "." + this.methodName + this.parameterTypes;
+    }
+
+    /**
+     * 合并同一个方法的另一个调用
+     */
+    MockCall merge(MockCall other) {
+        return new MockCall(this.fieldName, this.methodName, this.parameterTypes, this.returnType,
+            this.times + other.times, this.conditional || other.conditional);
+    }
+
+}
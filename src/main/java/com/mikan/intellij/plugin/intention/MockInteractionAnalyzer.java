@@ -0,0 +1,222 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiConditionalExpression;
+import com.intellij.psi.PsiDeclarationStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiEllipsisType;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiExpressionStatement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiLambdaExpression;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiPolyadicExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiSwitchExpression;
+import com.intellij.psi.PsiThisExpression;
+import com.intellij.psi.PsiThrowStatement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the calls on the mocked fields of a source class per tested method, in a single pass over the class.
+ * <p>
+ * A call is resolved only when its qualifier names a mocked field, and each call site is resolved once. The results
+ * are cached on the source class until the next PSI modification, one per set of mocked fields and tested methods, so
+ * generating and syncing the test of the same class share the pass.
+ * <p>
+ * A call counts as executed once per call of the tested method only in an expression, declaration or return statement
+ * of the top level of the method body, before any top level statement that may return or throw, and not in a lambda,
+ * an anonymous class, the branches of a conditional or switch expression or the right operand of {@code &&} and
+ * {@code ||}. The other calls are marked as conditional.
+ */
+final class MockInteractionAnalyzer {
+
+    private static final Key<CachedValue<ConcurrentMap<CallsKey, Map<PsiMethod, List<MockCall>>>>> CALLS_KEY =
+        Key.create("MockInteractionAnalyzer.calls");
+
+    private MockInteractionAnalyzer() {
+    }
+
+    /**
+     * 每个被测试方法中对 mock 字段的调用，同一个方法的调用合并为一个，需要在 smart mode 的读操作中调用
+     */
+    static @NotNull Map<PsiMethod, List<MockCall>> analyze(@NotNull PsiClass srcClass,
+        @NotNull List<PsiField> mockFields, @NotNull List<PsiMethod> testedMethods) {
+        // 同一个类的 mock 字段和被测试方法可能不同，按参数分别缓存
+        ConcurrentMap<CallsKey, Map<PsiMethod, List<MockCall>>> callsByKey = CachedValuesManager.getManager(
+            srcClass.getProject()).getCachedValue(srcClass, CALLS_KEY, () -> CachedValueProvider.Result.create(
+            new ConcurrentHashMap<>(), PsiModificationTracker.MODIFICATION_COUNT), false);
+        return callsByKey.computeIfAbsent(new CallsKey(Set.copyOf(mockFields), Set.copyOf(testedMethods)),
+            key -> collect(srcClass, mockFields, testedMethods));
+    }
+
+    private static Map<PsiMethod, List<MockCall>> collect(PsiClass srcClass, List<PsiField> mockFields,
+        List<PsiMethod> testedMethods) {
+        Map<String, PsiField> mockFieldsByName = new HashMap<>();
+        for (PsiField field : mockFields) {
+            mockFieldsByName.put(field.getName(), field);
+        }
+        Set<PsiMethod> tested = Set.copyOf(testedMethods);
+        Map<PsiMethod, Map<String, MockCall>> calls = new HashMap<>();
+
+        srcClass.accept(new JavaRecursiveElementWalkingVisitor() {
+
+            private PsiMethod currentMethod;
+
+            /**
+             * 第一个可能 return 或者 throw 的顶层语句的偏移量，之后的调用不一定执行
+             */
+            private int exitOffset;
+
+            @Override
+            public void visitClass(@NotNull PsiClass aClass) {
+                // 内部类的方法不是被测试的方法，匿名类中的调用属于外层方法
+                if (aClass == srcClass || aClass instanceof PsiAnonymousClass) {
+                    super.visitClass(aClass);
+                }
+            }
+
+            @Override
+            public void visitMethod(@NotNull PsiMethod method) {
+                if (this.currentMethod != null || !tested.contains(method)) {
+                    super.visitMethod(method);
+                    return;
+                }
+                this.currentMethod = method;
+                this.exitOffset = getExitOffset(method);
+                super.visitMethod(method);
+                this.currentMethod = null;
+            }
+
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                if (this.currentMethod != null) {
+                    MockCall call = toMockCall(expression, mockFieldsByName,
+                        isUnconditional(expression, this.currentMethod, this.exitOffset));
+                    if (call != null) {
+                        calls.computeIfAbsent(this.currentMethod, key -> new LinkedHashMap<>())
+                            .merge(call.signature(), call, MockCall::merge);
+                    }
+                }
+            }
+        });
+
+        Map<PsiMethod, List<MockCall>> result = new HashMap<>();
+        calls.forEach((method, methodCalls) -> result.put(method, List.copyOf(methodCalls.values())));
+        return result;
+    }
+
+    private static int getExitOffset(PsiMethod method) {
+        PsiCodeBlock body = method.getBody();
+        if (body != null) {
+            for (PsiStatement statement : body.getStatements()) {
+                if (statement instanceof PsiReturnStatement || statement instanceof PsiThrowStatement
+                    || PsiTreeUtil.findChildOfAnyType(statement, PsiReturnStatement.class, PsiThrowStatement.class)
+                    != null) {
+                    return statement.getTextRange().getStartOffset();
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 调用是否在每次执行被测试方法时恰好执行一次
+     */
+    private static boolean isUnconditional(PsiMethodCallExpression expression, PsiMethod method, int exitOffset) {
+        PsiStatement statement = PsiTreeUtil.getParentOfType(expression, PsiStatement.class);
+        if (statement == null || statement.getParent() != method.getBody()
+            || statement.getTextRange().getStartOffset() > exitOffset
+            || !(statement instanceof PsiExpressionStatement || statement instanceof PsiDeclarationStatement
+            || statement instanceof PsiReturnStatement)) {
+            return false;
+        }
+        PsiElement child = expression;
+        for (PsiElement parent = expression.getParent(); parent != statement; parent = parent.getParent()) {
+            if (parent instanceof PsiLambdaExpression || parent instanceof PsiClass
+                || (parent instanceof PsiConditionalExpression conditional && child != conditional.getCondition())
+                || (parent instanceof PsiSwitchExpression switchExpression && child != switchExpression.getExpression())
+                || (parent instanceof PsiPolyadicExpression polyadic && isShortCircuit(polyadic)
+                && child != polyadic.getOperands()[0])) {
+                return false;
+            }
+            child = parent;
+        }
+        return true;
+    }
+
+    private static boolean isShortCircuit(PsiPolyadicExpression expression) {
+        IElementType operation = expression.getOperationTokenType();
+        return operation == JavaTokenType.ANDAND || operation == JavaTokenType.OROR;
+    }
+
+    private static MockCall toMockCall(PsiMethodCallExpression expression, Map<String, PsiField> mockFieldsByName,
+        boolean unconditional) {
+        // 先按限定符的文本过滤，只有可能是 mock 字段的调用才 resolve
+        if (!(expression.getMethodExpression().getQualifierExpression() instanceof PsiReferenceExpression qualifier)
+            || !mockFieldsByName.containsKey(qualifier.getReferenceName())
+            || (qualifier.getQualifierExpression() != null
+            && !(qualifier.getQualifierExpression() instanceof PsiThisExpression thisExpression
+            && thisExpression.getQualifier() == null))) {
+            return null;
+        }
+        PsiField field = mockFieldsByName.get(qualifier.getReferenceName());
+        if (!qualifier.isReferenceTo(field)) {
+            return null;
+        }
+        PsiMethod method = expression.resolveMethod();
+        PsiType returnType = method == null ? null : method.getReturnType();
+        if (returnType == null) {
+            return null;
+        }
+
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+        List<String> parameterTypes = new ArrayList<>(arguments.length);
+        for (int i = 0; i < arguments.length; i++) {
+            PsiType type = parameters.length == 0 ? null : parameters[Math.min(i, parameters.length - 1)].getType();
+            // 可变参数的每个实参对应数组的元素类型
+            if (type instanceof PsiEllipsisType ellipsisType) {
+                type = ellipsisType.getComponentType();
+            }
+            parameterTypes.add(type == null ? "java.lang.Object" : erasure(type));
+        }
+        return new MockCall(field.getName(), method.getName(), List.copyOf(parameterTypes), erasure(returnType),
+            unconditional ? 1 : 0, !unconditional);
+    }
+
+    private static String erasure(PsiType type) {
+        return TypeConversionUtil.erasure(type).getCanonicalText();
+    }
+
+    private record CallsKey(Set<PsiField> mockFields, Set<PsiMethod> testedMethods) {
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiRecordComponent;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Real values for the types a test does not need to mock.
+ * <p>
+ * Strings, primitives and their boxes, collections, the common final JDK value types, arrays, enums, records and
+ * classes with a static {@code builder()} are cheap to create, while every mock costs Mockito a generated subclass and
+ * a reflective instantiation per test. The known JDK values are also the stub return values and the arguments of the
+ * tested methods. Other types, including other final JDK types and enums without constants, are mocked, which the
+ * inline mock maker of Mockito 5 supports for final classes.
+ */
+final class RealValues {
+
+    private static final RealValue NULL = literal("null");
+
+    /**
+     * 类型的擦除 -> 真实的值
+     */
+    private static final Map<String, RealValue> KNOWN_VALUES = Map.ofEntries(
+        Map.entry("boolean", literal("true")), Map.entry("java.lang.Boolean", literal("true")),
+        Map.entry("char", literal("'a'")), Map.entry("java.lang.Character", literal("'a'")),
+        Map.entry("byte", literal("(byte) 0")), Map.entry("java.lang.Byte", literal("(byte) 0")),
+        Map.entry("short", literal("(short) 0")), Map.entry("java.lang.Short", literal("(short) 0")),
+        Map.entry("int", literal("0")), Map.entry("java.lang.Integer", literal("0")),
+        Map.entry("long", literal("0L")), Map.entry("java.lang.Long", literal("0L")),
+        Map.entry("float", literal("0F")), Map.entry("java.lang.Float", literal("0F")),
+        Map.entry("double", literal("0D")), Map.entry("java.lang.Double", literal("0D")),
+        Map.entry("java.lang.String", literal("\"\"")),
+        Map.entry("java.util.Optional", member("java.util.Optional", ".empty()")),
+        Map.entry("java.util.Collection", member("java.util.List", ".of()")),
+        Map.entry("java.util.List", member("java.util.List", ".of()")),
+        Map.entry("java.util.Set", member("java.util.Set", ".of()")),
+        Map.entry("java.util.Map", member("java.util.Map", ".of()")),
+        Map.entry("java.math.BigDecimal", member("java.math.BigDecimal", ".ZERO")),
+        Map.entry("java.math.BigInteger", member("java.math.BigInteger", ".ZERO")),
+        Map.entry("java.time.Duration", member("java.time.Duration", ".ZERO")),
+        Map.entry("java.time.Instant", member("java.time.Instant", ".EPOCH")),
+        Map.entry("java.time.LocalDate", member("java.time.LocalDate", ".EPOCH")),
+        Map.entry("java.time.LocalTime", member("java.time.LocalTime", ".MIDNIGHT")),
+        Map.entry("java.time.LocalDateTime", member("java.time.LocalDateTime", ".of(1970, 1, 1, 0, 0)")),
+        Map.entry("java.time.Period", member("java.time.Period", ".ZERO")),
+        Map.entry("java.time.ZoneOffset", member("java.time.ZoneOffset", ".UTC")),
+        Map.entry("java.time.ZoneId", member("java.time.ZoneId", ".of(\"UTC\")")),
+        Map.entry("java.util.UUID", construct("java.util.UUID", "0L, 0L")),
+        Map.entry("java.util.Locale", member("java.util.Locale", ".ROOT")),
+        Map.entry("java.util.Currency", member("java.util.Currency", ".getInstance(\"USD\")")),
+        Map.entry("java.util.OptionalInt", member("java.util.OptionalInt", ".empty()")),
+        Map.entry("java.util.OptionalLong", member("java.util.OptionalLong", ".empty()")),
+        Map.entry("java.util.OptionalDouble", member("java.util.OptionalDouble", ".empty()")),
+        Map.entry("java.util.regex.Pattern", member("java.util.regex.Pattern", ".compile(\"\")")),
+        Map.entry("java.net.URI", member("java.net.URI", ".create(\"http://localhost\")")));
+
+    private RealValues() {
+    }
+
+    /**
+     * 已知的 JDK 类型的值，不需要 resolve
+     *
+     * @param erasure 类型的擦除
+     */
+    static @Nullable RealValue forErasure(@NotNull String erasure) {
+        return KNOWN_VALUES.get(erasure);
+    }
+
+    /**
+     * 从未读取的依赖作为构造参数时传入的值，基本类型不能传入 null，不需要 resolve
+     */
+    static @NotNull String forUnusedDependency(@NotNull PsiType type) {
+        RealValue value = type instanceof PsiPrimitiveType ? KNOWN_VALUES.get(type.getCanonicalText()) : null;
+        return value == null ? "null" : value.text();
+    }
+
+    /**
+     * 索引不可用时只按文本判断基本类型和 java.lang 中的类型
+     *
+     * @return 真实的值，需要 mock 时返回 null
+     */
+    static @Nullable RealValue forUnresolvedField(@NotNull PsiField field) {
+        PsiType type = field.getType();
+        if (type instanceof PsiPrimitiveType) {
+            return KNOWN_VALUES.get(type.getCanonicalText());
+        }
+        if (type instanceof PsiClassType classType && classType.getParameterCount() == 0
+            && field.getTypeElement() != null && classType.getClassName().equals(field.getTypeElement().getText())) {
+            return KNOWN_VALUES.get("java.lang." + classType.getClassName());
+        }
+        return null;
+    }
+
+    /**
+     * 需要在 smart mode 的读操作中调用
+     *
+     * @return 真实的值，需要 mock 时返回 null
+     */
+    static @Nullable RealValue forType(@NotNull PsiType type) {
+        PsiType erasure = TypeConversionUtil.erasure(type);
+        RealValue known = KNOWN_VALUES.get(erasure.getCanonicalText());
+        if (known != null) {
+            return known;
+        }
+        // 数组不能被 mock
+        if (erasure instanceof PsiArrayType arrayType) {
+            return forArray(arrayType);
+        }
+        if (!(erasure instanceof PsiClassType classType)) {
+            return null;
+        }
+
+        PsiClass psiClass = classType.resolve();
+        String qualifiedName = psiClass == null || psiClass instanceof PsiTypeParameter
+            ? null : psiClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return null;
+        }
+        if (psiClass.isEnum()) {
+            for (PsiField field : psiClass.getFields()) {
+                if (field instanceof PsiEnumConstant) {
+                    return member(qualifiedName, "." + field.getName());
+                }
+            }
+            return null;
+        }
+        if (psiClass.isRecord()) {
+            return forRecord(psiClass, qualifiedName);
+        }
+        // 其他类型使用 mock，Mockito 5 默认的 inline mock maker 可以 mock final 类
+        return hasBuilder(psiClass) ? member(qualifiedName, ".builder().build()") : null;
+    }
+
+    private static RealValue forArray(PsiArrayType arrayType) {
+        String dimensions = "[0]" + "[]".repeat(arrayType.getArrayDimensions() - 1);
+        PsiType componentType = arrayType.getDeepComponentType();
+        if (!(componentType instanceof PsiClassType classType)) {
+            return literal("new " + componentType.getCanonicalText() + dimensions);
+        }
+        PsiClass psiClass = classType.resolve();
+        String qualifiedName = psiClass == null ? null : psiClass.getQualifiedName();
+        return qualifiedName == null ? NULL : new RealValue("new " + psiClass.getName() + dimensions,
+            "new " + qualifiedName + dimensions, Set.of(qualifiedName));
+    }
+
+    /**
+     * 记录类用规范构造方法创建，组件只使用已知的值，避免递归
+     */
+    private static RealValue forRecord(PsiClass psiClass, String qualifiedName) {
+        Set<String> imports = new LinkedHashSet<>();
+        imports.add(qualifiedName);
+        StringBuilder text = new StringBuilder();
+        StringBuilder qualifiedText = new StringBuilder();
+        for (PsiRecordComponent component : psiClass.getRecordComponents()) {
+            RealValue value = KNOWN_VALUES.getOrDefault(
+                TypeConversionUtil.erasure(component.getType()).getCanonicalText(), NULL);
+            String separator = text.isEmpty() ? "" : ", ";
+            text.append(separator).append(value.text());
+            qualifiedText.append(separator).append(value.qualifiedText());
+            imports.addAll(value.imports());
+        }
+        return new RealValue("new " + psiClass.getName() + "(" + text + ")",
+            "new " + qualifiedName + "(" + qualifiedText + ")", imports);
+    }
+
+    private static boolean hasBuilder(PsiClass psiClass) {
+        for (PsiMethod method : psiClass.findMethodsByName("builder", false)) {
+            if (method.hasModifierProperty(PsiModifier.STATIC) && !method.hasParameters()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RealValue literal(String text) {
+        return new RealValue(text, text, Set.of());
+    }
+
+    private static RealValue construct(String qualifiedName, String arguments) {
+        return new RealValue("new " + StringUtil.getShortName(qualifiedName) + "(" + arguments + ")",
+            "new " + qualifiedName + "(" + arguments + ")", Set.of(qualifiedName));
+    }
+
+    private static RealValue member(String qualifiedName, String member) {
+        return new RealValue(StringUtil.getShortName(qualifiedName) + member, qualifiedName + member,
+            Set.of(qualifiedName));
+    }
+
+    /**
+     * @param text          使用短名的文本，需要导入 imports
+     * @param qualifiedText 使用限定名的文本
+     * @param imports       需要导入的类的限定名
+     */
+    record RealValue(String text, String qualifiedText, Set<String> imports) {
+
+        @NotNull String getText(boolean qualified) {
+            return qualified ? this.qualifiedText : this.text;
+        }
+
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiAssignmentExpression;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiUnaryExpression;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Finds the state a source class shares between tests through static fields, so the generated test can run in
+ * parallel with JUnit 5 under the right {@code @ResourceLock}s.
+ * <p>
+ * The static fields skipped by the test generator are shared state when they are not final or are initialized with a
+ * mutable object. Writes to static fields of other classes, singletons and the global JDK state set through
+ * {@code System}, {@code Locale} and {@code TimeZone} are shared with the tests of other classes. The resources are
+ * the qualified names of the classes holding the state, or the keys of the JUnit {@code Resources}. The result is
+ * cached on the source class until the next PSI modification.
+ */
+final class SharedStateAnalyzer {
+
+    private static final Key<CachedValue<Set<String>>> RESOURCES_KEY = Key.create("SharedStateAnalyzer.resources");
+
+    /**
+     * 修改 JDK 全局状态的方法 -> JUnit Resources 中的 key
+     */
+    private static final Map<String, String> GLOBAL_STATE_SETTERS = Map.of(
+        "java.lang.System#setProperty", "java.lang.System.properties",
+        "java.lang.System#clearProperty", "java.lang.System.properties",
+        "java.lang.System#setProperties", "java.lang.System.properties",
+        "java.lang.System#setOut", "java.lang.System.out",
+        "java.lang.System#setErr", "java.lang.System.err",
+        "java.util.Locale#setDefault", "java.util.Locale.default",
+        "java.util.TimeZone#setDefault", "java.util.TimeZone.default");
+
+    /**
+     * JUnit Resources 中的 key -> 常量名
+     */
+    private static final Map<String, String> JUNIT_RESOURCES = Map.of(
+        "java.lang.System.properties", "SYSTEM_PROPERTIES", "java.lang.System.out", "SYSTEM_OUT",
+        "java.lang.System.err", "SYSTEM_ERR", "java.util.Locale.default", "LOCALE",
+        "java.util.TimeZone.default", "TIME_ZONE");
+
+    /**
+     * 这些包中的类型不可变，用它们初始化的静态常量不是共享状态
+     */
+    private static final Set<String> IMMUTABLE_PACKAGES = Set.of("java.lang.", "java.math.", "java.time.");
+
+    private SharedStateAnalyzer() {
+    }
+
+    /**
+     * 测试之间共享的资源，为空时测试可以并发执行，需要在 smart mode 的读操作中调用
+     */
+    static @NotNull Set<String> analyze(@NotNull PsiClass srcClass) {
+        return CachedValuesManager.getManager(srcClass.getProject()).getCachedValue(srcClass, RESOURCES_KEY,
+            () -> CachedValueProvider.Result.create(collect(srcClass), PsiModificationTracker.MODIFICATION_COUNT),
+            false);
+    }
+
+    /**
+     * @return 资源在 JUnit Resources 中的常量名，不是 JDK 的全局状态时返回 null
+     */
+    static @Nullable String getJunitResourceName(@NotNull String resource) {
+        return JUNIT_RESOURCES.get(resource);
+    }
+
+    private static Set<String> collect(PsiClass srcClass) {
+        Set<String> resources = new TreeSet<>();
+        String srcClassName = srcClass.getQualifiedName();
+
+        // 1. 源类自己的可变静态字段
+        for (PsiField field : srcClass.getFields()) {
+            if (srcClassName != null && field.hasModifierProperty(PsiModifier.STATIC) && isMutable(field)) {
+                resources.add(srcClassName);
+            }
+        }
+
+        // 2. 写其他类的静态字段、使用单例和修改 JDK 的全局状态
+        srcClass.accept(new JavaRecursiveElementWalkingVisitor() {
+
+            @Override
+            public void visitAssignmentExpression(@NotNull PsiAssignmentExpression expression) {
+                super.visitAssignmentExpression(expression);
+                this.addStaticFieldWrite(expression.getLExpression());
+            }
+
+            @Override
+            public void visitUnaryExpression(@NotNull PsiUnaryExpression expression) {
+                super.visitUnaryExpression(expression);
+                if (PsiUtil.isIncrementDecrementOperation(expression)) {
+                    this.addStaticFieldWrite(expression.getOperand());
+                }
+            }
+
+            @Override
+            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                // 先按方法名过滤，只有可能是单例或者全局状态的调用才 resolve
+                String name = expression.getMethodExpression().getReferenceName();
+                if (name == null || (!name.startsWith("set") && !name.startsWith("clear")
+                    && !expression.getArgumentList().isEmpty())) {
+                    return;
+                }
+                PsiMethod method = expression.resolveMethod();
+                PsiClass containingClass = method == null ? null : method.getContainingClass();
+                String className = containingClass == null ? null : containingClass.getQualifiedName();
+                if (className == null || !method.hasModifierProperty(PsiModifier.STATIC)) {
+                    return;
+                }
+                String globalState = GLOBAL_STATE_SETTERS.get(className + "#" + name);
+                if (globalState != null) {
+                    resources.add(globalState);
+                } else if (isSingletonAccessor(method, containingClass) && !className.equals(srcClassName)) {
+                    resources.add(className);
+                }
+            }
+
+            private void addStaticFieldWrite(@Nullable PsiExpression expression) {
+                // 静态常量只在静态初始化中赋值
+                if (!(PsiUtil.skipParenthesizedExprDown(expression) instanceof PsiReferenceExpression reference)
+                    || !(reference.resolve() instanceof PsiField field)
+                    || !field.hasModifierProperty(PsiModifier.STATIC) || field.hasModifierProperty(PsiModifier.FINAL)) {
+                    return;
+                }
+                PsiClass containingClass = field.getContainingClass();
+                String className = containingClass == null ? null : containingClass.getQualifiedName();
+                if (className != null) {
+                    resources.add(className);
+                }
+            }
+        });
+        return Collections.unmodifiableSet(resources);
+    }
+
+    /**
+     * 非 final 的字段，或者用可变对象初始化的常量，例如 static final Map CACHE = new HashMap()
+     */
+    private static boolean isMutable(PsiField field) {
+        if (!field.hasModifierProperty(PsiModifier.FINAL)) {
+            return true;
+        }
+        if (!(field.getInitializer() instanceof PsiNewExpression newExpression)) {
+            return false;
+        }
+        PsiType type = newExpression.getType();
+        if (!(type instanceof PsiClassType)) {
+            // 数组的元素可以被修改
+            return type != null;
+        }
+        String typeName = TypeConversionUtil.erasure(type).getCanonicalText();
+        return IMMUTABLE_PACKAGES.stream().noneMatch(typeName::startsWith);
+    }
+
+    /**
+     * 无参的静态方法返回所在的类，并且类中有这个类型的静态字段，例如 Registry.getInstance()
+     */
+    private static boolean isSingletonAccessor(PsiMethod method, PsiClass containingClass) {
+        if (method.hasParameters() || !containingClass.equals(PsiUtil.resolveClassInClassTypeOnly(
+            method.getReturnType())) || containingClass.getQualifiedName().startsWith("java.")) {
+            return false;
+        }
+        for (PsiField field : containingClass.getFields()) {
+            if (field.hasModifierProperty(PsiModifier.STATIC)
+                && containingClass.equals(PsiUtil.resolveClassInClassTypeOnly(field.getType()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
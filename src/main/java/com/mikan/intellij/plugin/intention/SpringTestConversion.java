@@ -0,0 +1,11 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+
+/**
+ * Immutable result of analysing a Spring test class for {@link SpringTestConverter}: the injected subject field, the
+ * missing mock fields and the statement constructing the subject, as text with fully qualified names.
+ */
+public record SpringTestConversion(String testClassName, String subjectFieldName, List<String> fields,
+                                   String construction) {
+}
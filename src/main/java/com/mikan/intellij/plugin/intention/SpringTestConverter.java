@@ -0,0 +1,313 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParserFacade;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.mikan.intellij.plugin.index.TestContextIndex;
+import com.mikan.intellij.plugin.inspection.FieldInjectionInspection;
+import com.mikan.intellij.plugin.inspection.SpringBeanUtil;
+import com.mikan.intellij.plugin.inspection.InjectionAnnotationMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Convert a Spring test class that starts a context only to test one bean into a Mockito unit test.
+ * <p>
+ * A test class qualifies when it has a context bootstrap annotation, exactly one injected field, the subject, and
+ * only {@code @MockBean} fields besides it. The subject class must be constructed through its constructor, so it can
+ * not use field injection. The context annotations are replaced with {@code @ExtendWith(MockitoExtension.class)} and
+ * the mock beans with {@code @Mock}. The stubs of a mock bean never fail a Spring test, so the converted class is
+ * marked with lenient {@code @MockitoSettings} to keep the strict stubs of {@code MockitoExtension} from failing it on
+ * an unused stub. The constructor arguments are the mocks of the same type, the real values of
+ * {@link RealValues}, or new {@code @Mock} fields like the generated tests have, and {@code setUp} constructs the
+ * subject. The test methods are kept as they are.
+ */
+public class SpringTestConverter {
+
+    private static final String MOCK = "org.mockito.Mock";
+    private static final String EXTEND_WITH = "org.junit.jupiter.api.extension.ExtendWith";
+    private static final String MOCKITO_EXTENSION = "org.mockito.junit.jupiter.MockitoExtension";
+    private static final String MOCKITO_SETTINGS = "org.mockito.junit.jupiter.MockitoSettings";
+    private static final String STRICTNESS = "org.mockito.quality.Strictness";
+    private static final String BEFORE_EACH = "org.junit.jupiter.api.BeforeEach";
+    private static final String AUTOWIRED = "org.springframework.beans.factory.annotation.Autowired";
+
+    /**
+     * 替换为 @Mock 的 mock bean，spy bean 包装的是真实的 bean，不能直接转换
+     */
+    private static final Set<String> MOCK_ANNOTATIONS = Set.of("MockBean", "MockitoBean");
+
+    /**
+     * 只检查类上的注解，不 resolve，可以在每次移动光标时调用
+     *
+     * @return 测试类是否可能满足转换条件，满足时再通过 {@link #plan} 确认
+     */
+    public boolean isCandidate(@NotNull PsiClass testClass) {
+        PsiModifierList modifierList = testClass.getModifierList();
+        return modifierList != null && hasBootstrapAnnotation(modifierList);
+    }
+
+    /**
+     * 比较测试类和被测试的类，只读取 PSI，需要在 smart mode 的读操作中调用
+     *
+     * @return 转换计划，测试类不满足转换条件时返回 null
+     */
+    public @Nullable SpringTestConversion plan(@NotNull PsiClass testClass) {
+        if (testClass.getQualifiedName() == null || !this.isCandidate(testClass)) {
+            return null;
+        }
+
+        // 1. 只有一个注入的字段，其他都是 mock bean
+        PsiField subject = null;
+        List<PsiField> mockFields = new ArrayList<>();
+        for (PsiField field : testClass.getFields()) {
+            if (field.hasModifierProperty(PsiModifier.STATIC)) {
+                continue;
+            }
+            String mockAnnotation = getMockBeanAnnotationName(field);
+            if (mockAnnotation != null) {
+                if (!MOCK_ANNOTATIONS.contains(mockAnnotation)) {
+                    return null;
+                }
+                mockFields.add(field);
+            } else if (FieldInjectionInspection.isFieldInjection(field)) {
+                if (subject != null) {
+                    return null;
+                }
+                subject = field;
+            } else if (SpringBeanUtil.hasSpringAnnotation(field)) {
+                return null;
+            }
+        }
+        PsiClass srcClass = subject == null ? null : PsiUtil.resolveClassInClassTypeOnly(subject.getType());
+        if (srcClass == null || srcClass.getQualifiedName() == null || srcClass.isInterface()
+            || srcClass.hasModifierProperty(PsiModifier.ABSTRACT) || !srcClass.getManager().isInProject(srcClass)) {
+            return null;
+        }
+
+        // 2. 被测试的类通过构造方法创建，不能有字段注入
+        for (PsiField field : srcClass.getFields()) {
+            if (FieldInjectionInspection.isFieldInjection(field)) {
+                return null;
+            }
+        }
+        PsiMethod constructor = findConstructor(srcClass);
+        if (constructor != null && constructor.hasModifierProperty(PsiModifier.PRIVATE)) {
+            return null;
+        }
+
+        // 3. 构造参数优先使用同类型的 mock，其次是真实的值，最后添加新的 mock 字段
+        List<String> arguments = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        Set<PsiField> usedMocks = new HashSet<>();
+        Set<String> fieldNames = new HashSet<>();
+        for (PsiField field : testClass.getFields()) {
+            fieldNames.add(field.getName());
+        }
+        PsiParameter[] parameters = constructor == null ? PsiParameter.EMPTY_ARRAY
+            : constructor.getParameterList().getParameters();
+        for (PsiParameter parameter : parameters) {
+            String erasure = TypeConversionUtil.erasure(parameter.getType()).getCanonicalText();
+            PsiField mock = mockFields.stream()
+                .filter(field -> !usedMocks.contains(field)
+                    && erasure.equals(TypeConversionUtil.erasure(field.getType()).getCanonicalText()))
+                .findFirst().orElse(null);
+            RealValues.RealValue value = mock == null ? RealValues.forType(parameter.getType()) : null;
+            if (mock != null) {
+                usedMocks.add(mock);
+                arguments.add("this." + mock.getName());
+            } else if (value != null) {
+                arguments.add(value.qualifiedText());
+            } else {
+                String name = getUniqueName(parameter.getName(), fieldNames);
+                fields.add("@" + MOCK + "\nprivate " + parameter.getType().getCanonicalText() + " " + name + ";");
+                arguments.add("this." + name);
+            }
+        }
+
+        String construction = "this." + subject.getName() + " = new " + srcClass.getQualifiedName() + "("
+            + String.join(", ", arguments) + ");";
+        return new SpringTestConversion(testClass.getQualifiedName(), subject.getName(), List.copyOf(fields),
+            construction);
+    }
+
+    private static boolean hasBootstrapAnnotation(PsiModifierList modifierList) {
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            if (TestContextIndex.BOOTSTRAP_ANNOTATIONS.contains(getShortName(annotation))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只有一个构造方法时使用它，否则使用 @Autowired 的构造方法，没有构造方法时返回 null
+     */
+    private static @Nullable PsiMethod findConstructor(PsiClass srcClass) {
+        PsiMethod[] constructors = srcClass.getConstructors();
+        if (constructors.length == 1) {
+            return constructors[0];
+        }
+        PsiMethod longest = null;
+        for (PsiMethod constructor : constructors) {
+            if (constructor.hasAnnotation(AUTOWIRED)) {
+                return constructor;
+            }
+            int parametersCount = constructor.getParameterList().getParametersCount();
+            if (longest == null || parametersCount > longest.getParameterList().getParametersCount()) {
+                longest = constructor;
+            }
+        }
+        return longest;
+    }
+
+    private static String getUniqueName(String name, Set<String> fieldNames) {
+        String uniqueName = name;
+        for (int i = 2; !fieldNames.add(uniqueName); i++) {
+            uniqueName = name + i;
+        }
+        return uniqueName;
+    }
+
+    /**
+     * 根据转换计划修改测试类，需要在写操作中调用
+     *
+     * @return 测试类是否被修改
+     */
+    public boolean apply(@NotNull SpringTestConversion conversion, @NotNull PsiClass testClass) {
+        PsiModifierList modifierList = testClass.getModifierList();
+        PsiField subject = testClass.findFieldByName(conversion.subjectFieldName(), false);
+        if (modifierList == null || subject == null) {
+            return false;
+        }
+
+        Project project = testClass.getProject();
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(project);
+        List<PsiElement> changed = new ArrayList<>();
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.getInstance(testClass);
+
+        // 1. 删除 context 注解和 SpringExtension，使用宽松的 MockitoExtension，mock bean 上未使用的 stub 不会失败
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            String name = getShortName(annotation);
+            if (TestContextIndex.isContextAnnotation(name) || isSpringExtension(annotation)) {
+                annotation.delete();
+            }
+        }
+        if (!modifierList.hasAnnotation(EXTEND_WITH)) {
+            changed.add(modifierList.addAnnotation(EXTEND_WITH + "(" + MOCKITO_EXTENSION + ".class)"));
+        }
+        if (!modifierList.hasAnnotation(MOCKITO_SETTINGS)) {
+            changed.add(modifierList.addAnnotation(MOCKITO_SETTINGS + "(strictness = " + STRICTNESS + ".LENIENT)"));
+        }
+
+        // 2. mock bean 改为 @Mock，被测试的字段不再注入
+        PsiField lastMock = null;
+        for (PsiField field : testClass.getFields()) {
+            PsiModifierList fieldModifierList = field.getModifierList();
+            if (fieldModifierList == null) {
+                continue;
+            }
+            for (PsiAnnotation annotation : fieldModifierList.getAnnotations()) {
+                String name = getShortName(annotation);
+                if (MOCK_ANNOTATIONS.contains(name)) {
+                    changed.add(annotation.replace(factory.createAnnotationFromText("@" + MOCK, field)));
+                    lastMock = field;
+                } else if (field == subject && matcher.isInjectionAnnotation(annotation)) {
+                    annotation.delete();
+                }
+            }
+        }
+
+        // 3. 缺少的 mock 字段添加在已有的 mock 字段之后，没有时添加在类的开头，字段之间空一行
+        PsiElement anchor = lastMock != null ? lastMock : testClass.getLBrace();
+        PsiParserFacade parserFacade = PsiParserFacade.getInstance(project);
+        for (String fieldText : conversion.fields()) {
+            PsiField field = factory.createFieldFromText(fieldText, testClass);
+            if (anchor instanceof PsiField) {
+                anchor = testClass.addAfter(parserFacade.createWhiteSpaceFromText("\n\n"), anchor);
+            }
+            anchor = anchor == null ? testClass.add(field) : testClass.addAfter(field, anchor);
+            changed.add(anchor);
+        }
+
+        // 4. 在已有的 @BeforeEach 方法开头构造被测试的实例，没有时添加 setUp
+        changed.add(this.addConstruction(conversion.construction(), testClass, factory));
+
+        JavaCodeStyleManager javaCodeStyleManager = JavaCodeStyleManager.getInstance(project);
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(project);
+        for (PsiElement element : changed) {
+            if (element.isValid()) {
+                codeStyleManager.reformat(javaCodeStyleManager.shortenClassReferences(element));
+            }
+        }
+        // 删除 context 注解、@MockBean 和 @Autowired 之后不再使用的 import
+        if (testClass.getContainingFile() instanceof PsiJavaFile javaFile) {
+            javaCodeStyleManager.removeRedundantImports(javaFile);
+        }
+        return true;
+    }
+
+    private PsiElement addConstruction(String construction, PsiClass testClass, PsiElementFactory factory) {
+        for (PsiMethod method : testClass.getMethods()) {
+            PsiCodeBlock body = method.getBody();
+            if (method.hasAnnotation(BEFORE_EACH) && body != null) {
+                PsiStatement statement = factory.createStatementFromText(construction, method);
+                PsiElement lBrace = body.getLBrace();
+                return lBrace == null ? body.add(statement) : body.addAfter(statement, lBrace);
+            }
+        }
+        String methodName = testClass.findMethodsByName("setUp", false).length == 0 ? "setUp" : "setUpSubject";
+        return testClass.add(factory.createMethodFromText("@" + BEFORE_EACH + "\nvoid " + methodName + "() {\n"
+            + construction + "\n}", testClass));
+    }
+
+    private static @Nullable String getMockBeanAnnotationName(PsiField field) {
+        PsiModifierList modifierList = field.getModifierList();
+        if (modifierList == null) {
+            return null;
+        }
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            String name = getShortName(annotation);
+            if (TestContextIndex.MOCK_BEAN_ANNOTATIONS.contains(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 注解的短名，不完整的注解返回空字符串
+     */
+    private static @NotNull String getShortName(PsiAnnotation annotation) {
+        PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+        String name = reference == null ? null : reference.getReferenceName();
+        return name == null ? "" : name;
+    }
+
+    private static boolean isSpringExtension(PsiAnnotation annotation) {
+        return "ExtendWith".equals(getShortName(annotation)) && annotation.getText().contains("SpringExtension");
+    }
+
+}
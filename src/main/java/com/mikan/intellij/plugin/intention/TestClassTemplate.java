@@ -0,0 +1,95 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.intellij.ide.fileTemplates.FileTemplateManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The test class template, customisable in Settings | Editor | File and Code Templates | Code.
+ * <p>
+ * The template is rendered by {@link com.intellij.ide.fileTemplates.FileTemplate#getText(Properties)} like any other
+ * file template, so Velocity directives, {@code #parse("File Header.java")} and the default variables such as
+ * {@code ${USER}} work. The generated variables are passed as markers and replaced after rendering, which records
+ * their ranges, so only those ranges need to be reformatted and the generated code is never parsed by Velocity.
+ */
+final class TestClassTemplate {
+
+    static final String NAME = "Junit5 Mockito Test Class.java";
+
+    static final String PACKAGE_STATEMENT = "PACKAGE_STATEMENT";
+    static final String IMPORTS = "IMPORTS";
+    static final String CLASS_ANNOTATIONS = "CLASS_ANNOTATIONS";
+    static final String CLASS_NAME = "CLASS_NAME";
+    static final String MEMBERS = "MEMBERS";
+
+    /**
+     * 需要格式化的变量，模板本身的文本保持用户的格式
+     */
+    private static final Set<String> REFORMATTED_VARIABLES = Set.of(IMPORTS, CLASS_ANNOTATIONS, MEMBERS);
+
+    /**
+     * 包围变量名的标记，使用私有区的字符，不会出现在模板中
+     */
+    private static final char MARKER = '\uE000';
+
+    private TestClassTemplate() {
+    }
+
+    static @NotNull Rendered render(@NotNull Project project, @NotNull Map<String, String> values) {
+        // 1. 需要格式化的变量先渲染为标记
+        FileTemplateManager templateManager = FileTemplateManager.getInstance(project);
+        Properties properties = templateManager.getDefaultProperties();
+        values.forEach((variable, value) -> properties.setProperty(variable,
+            REFORMATTED_VARIABLES.contains(variable) ? MARKER + variable + MARKER : value));
+        String merged;
+        try {
+            merged = templateManager.getCodeTemplate(NAME).getText(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot render the template " + NAME, e);
+        }
+
+        // 2. 标记替换为变量的值，记录值的范围
+        StringBuilder text = new StringBuilder(merged.length() + 1024);
+        List<TextRange> ranges = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = merged.indexOf(MARKER, start)) >= 0) {
+            int close = merged.indexOf(MARKER, open + 1);
+            if (close < 0) {
+                break;
+            }
+            text.append(merged, start, open);
+            String value = values.getOrDefault(merged.substring(open + 1, close), "");
+            if (!value.isEmpty()) {
+                ranges.add(TextRange.from(text.length(), value.length()));
+            }
+            text.append(value);
+            start = close + 1;
+        }
+        text.append(merged, start, merged.length());
+
+        // 3. 没有 package 时去掉文件开头的空行
+        int leadingWhitespace = 0;
+        while (leadingWhitespace < text.length() && Character.isWhitespace(text.charAt(leadingWhitespace))) {
+            leadingWhitespace++;
+        }
+        int shift = leadingWhitespace;
+        return new Rendered(text.substring(shift), ranges.stream()
+            .filter(range -> range.getStartOffset() >= shift)
+            .map(range -> range.shiftLeft(shift))
+            .toList());
+    }
+
+    record Rendered(String text, List<TextRange> ranges) {
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+
+import com.intellij.openapi.util.TextRange;
+
+/**
+ * Immutable result of analysing a source class: the rendered test file and the ranges to reformat.
+ * <p>
+ * Computed in a read action by {@link Junit5MockitoTestGenerator#plan}, applied in a short write action by
+ * {@link Junit5MockitoTestGenerator#apply}. The fingerprint is null for a skeleton planned in dumb mode by
+ * {@link Junit5MockitoTestGenerator#planSkeleton}. The saved mocks estimate the mock creations per run of the test
+ * class avoided by using real values for the value type fields. A concurrent test class is annotated to run in
+ * parallel with JUnit 5, its source class shares no state between tests.
+ */
+public record TestGenerationPlan(String sourceClassName, String fingerprint, String className, String fileName,
+                                 String text, List<TextRange> ranges, int savedMocks, boolean concurrent) {
+}
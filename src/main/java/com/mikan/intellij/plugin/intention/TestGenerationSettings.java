@@ -0,0 +1,67 @@
+package com.mikan.intellij.plugin.intention;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * How the generated tests create their mocks.
+ * <p>
+ * By default the test class is annotated with {@code @ExtendWith(MockitoExtension.class)} and the mocks with
+ * {@code @Mock}. In the plain mode the mocks are created with {@code mock()} in {@code setUp}, without the extension
+ * and its reflective field scan and strict stubs check per test.
+ * <p>
+ * Also remembers whether adding {@code junit-platform.properties} for the concurrent tests was offered, it is
+ * offered once per project.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "DevEfficiencyTestGenerationSettings", storages = @Storage("devEfficiencyTool.xml"))
+public final class TestGenerationSettings implements PersistentStateComponent<TestGenerationSettings.SettingsState> {
+
+    private SettingsState state = new SettingsState();
+
+    public static @NotNull TestGenerationSettings getInstance(@NotNull Project project) {
+        return project.getService(TestGenerationSettings.class);
+    }
+
+    public synchronized boolean isPlainMocks() {
+        return this.state.plainMocks;
+    }
+
+    public synchronized void setPlainMocks(boolean plainMocks) {
+        this.state.plainMocks = plainMocks;
+    }
+
+    /**
+     * 是否已经询问过添加 junit-platform.properties，每个项目只询问一次
+     */
+    public synchronized boolean isParallelConfigOffered() {
+        return this.state.parallelConfigOffered;
+    }
+
+    public synchronized void setParallelConfigOffered(boolean parallelConfigOffered) {
+        this.state.parallelConfigOffered = parallelConfigOffered;
+    }
+
+    @Override
+    public synchronized @NotNull SettingsState getState() {
+        return this.state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull SettingsState state) {
+        this.state = state;
+    }
+
+    public static final class SettingsState {
+
+        public boolean plainMocks = false;
+
+        public boolean parallelConfigOffered = false;
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Remembers, per source class, the fingerprint the test class was last generated or synced from.
+ * <p>
+ * Stored in the workspace file, so it is per project and per machine. A class whose fingerprint has not changed is
+ * skipped by the sync without looking at its test class.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "DevEfficiencyTestSyncFingerprints", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public final class TestSyncFingerprints implements PersistentStateComponent<TestSyncFingerprints.FingerprintState> {
+
+    private FingerprintState state = new FingerprintState();
+
+    public static @NotNull TestSyncFingerprints getInstance(@NotNull Project project) {
+        return project.getService(TestSyncFingerprints.class);
+    }
+
+    public synchronized boolean isUpToDate(@NotNull String className, @NotNull String fingerprint) {
+        return fingerprint.equals(this.state.fingerprints.get(className));
+    }
+
+    public synchronized void update(@NotNull String className, @NotNull String fingerprint) {
+        this.state.fingerprints.put(className, fingerprint);
+    }
+
+    @Override
+    public synchronized @NotNull FingerprintState getState() {
+        return this.state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull FingerprintState state) {
+        this.state = state;
+    }
+
+    public static final class FingerprintState {
+
+        /**
+         * 源类的限定名 -> 指纹
+         */
+        public Map<String, String> fingerprints = new HashMap<>();
+
+    }
+
+}
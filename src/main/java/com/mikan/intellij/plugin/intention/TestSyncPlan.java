@@ -0,0 +1,24 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of comparing a source class with its existing test class: the members missing from the test
+ * class, as text with fully qualified names.
+ * <p>
+ * Computed in a read action by {@link Junit5MockitoTestSynchronizer#plan}, applied in a short write action by
+ * {@link Junit5MockitoTestSynchronizer#apply}.
+ *
+ * @param fields               缺少的字段，包括 mock 字段和测试目标字段
+ * @param methods              缺少的方法，包括 setUp 和测试方法
+ * @param missingArguments     setUp 中构造测试目标时缺少的实参，实参在完整参数列表中的位置 -> 实参，按位置升序
+ */
+public record TestSyncPlan(String sourceClassName, String fingerprint, List<String> fields, List<String> methods,
+                           Map<Integer, String> missingArguments) {
+
+    public boolean isEmpty() {
+        return this.fields.isEmpty() && this.methods.isEmpty() && this.missingArguments.isEmpty();
+    }
+
+}
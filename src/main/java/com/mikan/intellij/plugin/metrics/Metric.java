@@ -0,0 +1,30 @@
+package com.mikan.intellij.plugin.metrics;
+
+/**
+ * The measured phases of the inspection, the quick fix and the test generator.
+ */
+public enum Metric {
+
+    INSPECTION_CHECK_FIELD("inspection.checkField"),
+    QUICK_FIX_APPLY("quickFix.applyFix"),
+    QUICK_FIX_BATCH_PLAN("quickFix.batch.plan"),
+    QUICK_FIX_BATCH_APPLY("quickFix.batch.apply"),
+    GENERATOR_PACKAGE("generator.package"),
+    GENERATOR_CLASS("generator.classGeneration"),
+    GENERATOR_IMPORTS("generator.imports"),
+    GENERATOR_FILE_CREATION("generator.fileCreation"),
+    GENERATOR_REFORMAT("generator.reformat"),
+    SYNC_PLAN("sync.plan"),
+    SYNC_APPLY("sync.apply");
+
+    private final String id;
+
+    Metric(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.mikan.intellij.plugin.metrics;
+
+import java.util.List;
+
+import javax.swing.table.AbstractTableModel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shows the {@link PluginMetrics} of the current IDE session as a table.
+ */
+public class MetricsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    private static final String DUMP_ACTION_ID = "DevEfficiencyTool.DumpMetrics";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        MetricsTableModel model = new MetricsTableModel();
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        panel.setContent(ScrollPaneFactory.createScrollPane(new JBTable(model)));
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(DumbAwareAction.create("Refresh", AllIcons.Actions.Refresh, e -> model.refresh()));
+        group.add(DumbAwareAction.create("Reset", AllIcons.Actions.GC, e -> {
+            PluginMetrics.getInstance().reset();
+            model.refresh();
+        }));
+        group.add(ActionManager.getInstance().getAction(DUMP_ACTION_ID));
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("DevEfficiencyMetrics", group, true);
+        toolbar.setTargetComponent(panel);
+        panel.setToolbar(toolbar.getComponent());
+
+        Content content = ContentFactory.getInstance().createContent(panel, null, false);
+        toolWindow.getContentManager().addContent(content);
+    }
+
+    private static final class MetricsTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Phase", "Count", "Total (µs)", "Max (µs)", "P50 (µs)", "P99 (µs)"};
+
+        private List<PluginMetrics.Snapshot> snapshots = PluginMetrics.getInstance().snapshot();
+
+        void refresh() {
+            this.snapshots = PluginMetrics.getInstance().snapshot();
+            this.fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return this.snapshots.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            PluginMetrics.Snapshot snapshot = this.snapshots.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> snapshot.metric().getId();
+                case 1 -> snapshot.count();
+                case 2 -> snapshot.totalMicros();
+                case 3 -> snapshot.maxMicros();
+                case 4 -> snapshot.p50Micros();
+                default -> snapshot.p99Micros();
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.mikan.intellij.plugin.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.registry.RegistryValue;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Low-overhead counters and latency histograms of the plugin's hot paths.
+ * <p>
+ * Disabled by default, enable it with the registry key {@value #ENABLED_KEY}. When disabled, {@link #start()} returns
+ * 0 and {@link #stop} returns at once, so the cost is a cached registry read per measurement. Latencies are counted
+ * into power-of-two microsecond buckets, and calls slower than {@value #SLOW_THRESHOLD_KEY} milliseconds are logged.
+ * <pre>{@code
+ * long start = PluginMetrics.start();
+ * ...
+ * PluginMetrics.stop(Metric.GENERATOR_IMPORTS, start);
+ * }</pre>
+ */
+@Service(Service.Level.APP)
+public final class PluginMetrics {
+
+    public static final String ENABLED_KEY = "dev.efficiency.tool.metrics.enabled";
+    public static final String SLOW_THRESHOLD_KEY = "dev.efficiency.tool.metrics.slow.threshold.ms";
+
+    private static final Logger LOG = Logger.getInstance(PluginMetrics.class);
+
+    private static final int BUCKETS = 32;
+
+    private final RegistryValue slowThreshold = Registry.get(SLOW_THRESHOLD_KEY);
+
+    private final PhaseStats[] stats = new PhaseStats[Metric.values().length];
+
+    public PluginMetrics() {
+        for (Metric metric : Metric.values()) {
+            this.stats[metric.ordinal()] = new PhaseStats();
+        }
+    }
+
+    public static @NotNull PluginMetrics getInstance() {
+        return ApplicationManager.getApplication().getService(PluginMetrics.class);
+    }
+
+    /**
+     * @return 开始时间，未启用时返回 0
+     */
+    public static long start() {
+        return Enabled.VALUE.asBoolean() ? System.nanoTime() : 0;
+    }
+
+    public static void stop(@NotNull Metric metric, long start) {
+        if (start != 0) {
+            getInstance().record(metric, System.nanoTime() - start);
+        }
+    }
+
+    public boolean isEnabled() {
+        return Enabled.VALUE.asBoolean();
+    }
+
+    void record(Metric metric, long nanos) {
+        this.stats[metric.ordinal()].record(nanos);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= this.slowThreshold.asInteger()) {
+            LOG.info("slow " + metric.getId() + ": " + millis + " ms");
+        }
+    }
+
+    public void reset() {
+        for (PhaseStats phaseStats : this.stats) {
+            phaseStats.reset();
+        }
+    }
+
+    public @NotNull List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Metric metric : Metric.values()) {
+            snapshots.add(this.stats[metric.ordinal()].snapshot(metric));
+        }
+        return snapshots;
+    }
+
+    public @NotNull String toJson() {
+        StringBuilder json = new StringBuilder("{\"enabled\":").append(this.isEnabled()).append(",\"metrics\":[");
+        List<Snapshot> snapshots = this.snapshot();
+        for (int i = 0; i < snapshots.size(); i++) {
+            Snapshot snapshot = snapshots.get(i);
+            json.append(i == 0 ? "" : ",")
+                .append("{\"name\":\"").append(snapshot.metric().getId()).append('"')
+                .append(",\"count\":").append(snapshot.count())
+                .append(",\"totalMicros\":").append(snapshot.totalMicros())
+                .append(",\"maxMicros\":").append(snapshot.maxMicros())
+                .append(",\"p50Micros\":").append(snapshot.p50Micros())
+                .append(",\"p99Micros\":").append(snapshot.p99Micros())
+                .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * 百分位数取所在桶的上界
+     */
+    public record Snapshot(Metric metric, long count, long totalMicros, long maxMicros, long p50Micros,
+                           long p99Micros) {
+    }
+
+    /**
+     * 启用开关在第一次使用时读取一次，RegistryValue 本身会缓存值并跟随修改
+     */
+    private static final class Enabled {
+
+        private static final RegistryValue VALUE = Registry.get(ENABLED_KEY);
+
+    }
+
+    private static final class PhaseStats {
+
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        PhaseStats() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+            // 第 i 个桶统计 [2^(i-1), 2^i) 微秒
+            long micros = nanos / 1000;
+            this.histogram[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))].increment();
+        }
+
+        void reset() {
+            this.totalNanos.reset();
+            this.maxNanos.reset();
+            for (LongAdder bucket : this.histogram) {
+                bucket.reset();
+            }
+        }
+
+        Snapshot snapshot(Metric metric) {
+            long[] buckets = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = this.histogram[i].sum();
+                total += buckets[i];
+            }
+            return new Snapshot(metric, total, this.totalNanos.sum() / 1000, this.maxNanos.get() / 1000,
+                percentile(buckets, total, 0.5), percentile(buckets, total, 0.99));
+        }
+
+        private static long percentile(long[] buckets, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long)Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.mikan.intellij.plugin.testgap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.mikan.intellij.plugin.index.PerFileIndexCache;
+import com.mikan.intellij.plugin.index.SourceClass;
+import com.mikan.intellij.plugin.index.SourceClassIndex;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The production classes of the project without a test class named by {@link TestGapSettings} in the same package.
+ * <p>
+ * The classes of each file are read from {@link SourceClassIndex} into a {@link PerFileIndexCache}, so after an edit
+ * only the changed files are read again. The gaps are then a hash lookup of the qualified test class names per
+ * production class, recomputed only when a file or the patterns changed.
+ */
+@Service(Service.Level.PROJECT)
+public final class TestGapMap implements Disposable {
+
+    private final Project project;
+
+    private final PerFileIndexCache<SourceClass> cache;
+
+    private List<TestGap> gaps;
+    private List<String> gapsPatterns;
+
+    public TestGapMap(@NotNull Project project) {
+        this.project = project;
+        this.cache = new PerFileIndexCache<>(project, SourceClassIndex.NAME, GlobalSearchScope::projectScope, this);
+    }
+
+    public static @NotNull TestGapMap getInstance(@NotNull Project project) {
+        return project.getService(TestGapMap.class);
+    }
+
+    /**
+     * 没有测试类的生产代码类，需要在 smart mode 的读操作中调用
+     */
+    public synchronized @NotNull List<TestGap> getGaps() {
+        List<String> patterns = TestGapSettings.getInstance(this.project).getTestClassPatterns();
+        if (this.cache.update() || this.gaps == null || !patterns.equals(this.gapsPatterns)) {
+            this.gaps = this.findGaps(patterns);
+            this.gapsPatterns = patterns;
+        }
+        return this.gaps;
+    }
+
+    private List<TestGap> findGaps(List<String> patterns) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(this.project);
+        Map<VirtualFile, Map<String, SourceClass>> classesByFile = this.cache.getValuesByFile();
+
+        // 1. 测试源码中所有类的限定名，其他包中的同名测试类不算
+        Set<String> testClassNames = new HashSet<>();
+        List<VirtualFile> sourceFiles = new ArrayList<>();
+        for (Map.Entry<VirtualFile, Map<String, SourceClass>> entry : classesByFile.entrySet()) {
+            VirtualFile file = entry.getKey();
+            if (fileIndex.isInTestSourceContent(file)) {
+                entry.getValue().values().forEach(testClass -> testClassNames.add(testClass.qualifiedName()));
+            } else if (fileIndex.isInSourceContent(file)) {
+                sourceFiles.add(file);
+            }
+        }
+
+        // 2. 同一个包中没有任何一个测试类名存在的生产代码类
+        List<TestGap> result = new ArrayList<>();
+        for (VirtualFile file : sourceFiles) {
+            for (SourceClass sourceClass : classesByFile.get(file).values()) {
+                String packageName = StringUtil.getPackageName(sourceClass.qualifiedName());
+                String className = StringUtil.getShortName(sourceClass.qualifiedName());
+                if (TestGapSettings.getTestClassNames(patterns, className).stream()
+                    .noneMatch(name -> testClassNames.contains(StringUtil.getQualifiedName(packageName, name)))) {
+                    result.add(new TestGap(sourceClass.qualifiedName(), file, sourceClass.offset(),
+                        sourceClass.lineCount(), file.getTimeStamp()));
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @param modificationStamp 文件的最后修改时间，近似代替变更频率
+     */
+    public record TestGap(String qualifiedName, VirtualFile file, int offset, int lineCount,
+                          long modificationStamp) {
+    }
+
+}
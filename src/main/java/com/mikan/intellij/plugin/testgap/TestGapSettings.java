@@ -0,0 +1,61 @@
+package com.mikan.intellij.plugin.testgap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The name patterns of the test classes of a source class, {@code *} stands for the short name of the source class.
+ * <p>
+ * Stored in the project, so the team shares the patterns. {@code *Test} is the name the intention generates.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "DevEfficiencyTestGapSettings", storages = @Storage("devEfficiencyTool.xml"))
+public final class TestGapSettings implements PersistentStateComponent<TestGapSettings.SettingsState> {
+
+    static final List<String> DEFAULT_PATTERNS = List.of("*Test", "*Tests", "*IT");
+
+    private SettingsState state = new SettingsState();
+
+    public static @NotNull TestGapSettings getInstance(@NotNull Project project) {
+        return project.getService(TestGapSettings.class);
+    }
+
+    public synchronized @NotNull List<String> getTestClassPatterns() {
+        return List.copyOf(this.state.testClassPatterns);
+    }
+
+    public synchronized void setTestClassPatterns(@NotNull List<String> patterns) {
+        this.state.testClassPatterns = new ArrayList<>(patterns);
+    }
+
+    /**
+     * 源类对应的测试类名
+     */
+    static @NotNull List<String> getTestClassNames(@NotNull List<String> patterns, @NotNull String className) {
+        return patterns.stream().map(pattern -> pattern.replace("*", className)).toList();
+    }
+
+    @Override
+    public synchronized @NotNull SettingsState getState() {
+        return this.state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull SettingsState state) {
+        this.state = state;
+    }
+
+    public static final class SettingsState {
+
+        public List<String> testClassPatterns = new ArrayList<>(DEFAULT_PATTERNS);
+
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.mikan.intellij.plugin.testgap;
+
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import com.intellij.util.text.DateFormatUtil;
+import com.mikan.intellij.plugin.action.GenerateMockitoTestsAction;
+import com.mikan.intellij.plugin.intention.CreateJunit5TestWithMockitoIntentionAction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shows the production classes without a test class, sorted by size or by the last modification.
+ * <p>
+ * The table is refreshed in a non-blocking read action after each PSI change, earlier refreshes are cancelled, and
+ * {@link TestGapMap} only re-reads the changed files. A test is generated for one selected class with the intention,
+ * for several selected classes in batches by {@link GenerateMockitoTestsAction}.
+ */
+public class TestGapToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    private static final String TITLE = "Classes Without Tests";
+
+    private static final String GENERATE_TESTS_ACTION_ID = "DevEfficiencyTool.GenerateMockitoTests";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        TestGapTableModel model = new TestGapTableModel();
+        JBTable table = new JBTable(model);
+        TableRowSorter<TestGapTableModel> sorter = new TableRowSorter<>(model);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(1, SortOrder.DESCENDING)));
+        table.setRowSorter(sorter);
+        table.getColumnModel().getColumn(2).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                super.setValue(value instanceof Long stamp ? DateFormatUtil.formatPrettyDateTime(stamp) : value);
+            }
+        });
+        new DoubleClickListener() {
+            @Override
+            protected boolean onDoubleClick(@NotNull MouseEvent event) {
+                List<TestGapMap.TestGap> gaps = getSelectedGaps(table, model);
+                if (gaps.isEmpty()) {
+                    return false;
+                }
+                TestGapMap.TestGap gap = gaps.get(0);
+                new OpenFileDescriptor(project, gap.file(), gap.offset())
+                    .navigate(true);
+                return true;
+            }
+        }.installOn(table);
+
+        SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+        panel.setContent(ScrollPaneFactory.createScrollPane(table));
+
+        Disposable disposable = toolWindow.getDisposable();
+        Runnable refresh = () -> ReadAction.nonBlocking(() -> TestGapMap.getInstance(project).getGaps())
+            .inSmartMode(project)
+            .expireWith(disposable)
+            .coalesceBy(model)
+            .finishOnUiThread(ModalityState.any(), model::setGaps)
+            .submit(AppExecutorUtil.getAppExecutorService());
+
+        DefaultActionGroup group = new DefaultActionGroup();
+        group.add(DumbAwareAction.create("Refresh", AllIcons.Actions.Refresh, e -> refresh.run()));
+        group.add(new GenerateTestsAction(project, table, model));
+        group.add(DumbAwareAction.create("Configure Test Class Patterns", AllIcons.General.Settings, e -> {
+            TestGapSettings settings = TestGapSettings.getInstance(project);
+            String patterns = Messages.showInputDialog(project,
+                "Test class name patterns separated by commas, * is the name of the source class:", TITLE, null,
+                String.join(", ", settings.getTestClassPatterns()), null);
+            if (patterns != null) {
+                settings.setTestClassPatterns(Arrays.stream(patterns.split(","))
+                    .map(String::trim)
+                    .filter(pattern -> pattern.contains("*"))
+                    .toList());
+                refresh.run();
+            }
+        }));
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("DevEfficiencyTestGaps", group, true);
+        toolbar.setTargetComponent(panel);
+        panel.setToolbar(toolbar.getComponent());
+
+        Content content = ContentFactory.getInstance().createContent(panel, null, false);
+        toolWindow.getContentManager().addContent(content);
+
+        // PSI 修改和索引完成之后刷新，之前未完成的刷新会被取消
+        MessageBusConnection connection = project.getMessageBus().connect(disposable);
+        connection.subscribe(PsiModificationTracker.TOPIC, refresh::run);
+        connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+            @Override
+            public void exitDumbMode() {
+                refresh.run();
+            }
+        });
+        refresh.run();
+    }
+
+    private static List<TestGapMap.TestGap> getSelectedGaps(JTable table, TestGapTableModel model) {
+        return Arrays.stream(table.getSelectedRows())
+            .mapToObj(row -> model.getGap(table.convertRowIndexToModel(row)))
+            .toList();
+    }
+
+    /**
+     * 为选中的类生成测试
+     */
+    private static final class GenerateTestsAction extends AnAction implements DumbAware {
+
+        private final Project project;
+        private final JTable table;
+        private final TestGapTableModel model;
+
+        GenerateTestsAction(Project project, JTable table, TestGapTableModel model) {
+            super("Generate Junit5 Test with Mockito", null, AllIcons.Actions.Execute);
+            this.project = project;
+            this.table = table;
+            this.model = model;
+        }
+
+        @Override
+        public @NotNull ActionUpdateThread getActionUpdateThread() {
+            return ActionUpdateThread.EDT;
+        }
+
+        @Override
+        public void update(@NotNull AnActionEvent e) {
+            e.getPresentation().setEnabled(this.table.getSelectedRowCount() > 0);
+        }
+
+        @Override
+        public void actionPerformed(@NotNull AnActionEvent e) {
+            List<PsiClass> classes = new ArrayList<>();
+            for (TestGapMap.TestGap gap : getSelectedGaps(this.table, this.model)) {
+                PsiFile file = gap.file().isValid() ? PsiManager.getInstance(this.project).findFile(gap.file()) : null;
+                PsiClass psiClass = file == null ? null
+                    : PsiTreeUtil.getParentOfType(file.findElementAt(gap.offset()), PsiClass.class, false);
+                if (psiClass != null && psiClass.getNameIdentifier() != null) {
+                    classes.add(psiClass);
+                }
+            }
+
+            // 一个类时使用 intention，多个类时和项目视图中的批量生成一样分批生成
+            if (classes.size() == 1) {
+                new CreateJunit5TestWithMockitoIntentionAction()
+                    .invoke(this.project, null, classes.get(0).getNameIdentifier());
+            } else if (classes.size() > 1) {
+                AnAction action = ActionManager.getInstance().getAction(GENERATE_TESTS_ACTION_ID);
+                if (action instanceof GenerateMockitoTestsAction generateAction) {
+                    generateAction.generate(this.project, classes);
+                }
+            }
+        }
+
+    }
+
+    private static final class TestGapTableModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Class", "Lines", "Modified"};
+
+        private List<TestGapMap.TestGap> gaps = List.of();
+
+        void setGaps(List<TestGapMap.TestGap> gaps) {
+            this.gaps = gaps;
+            this.fireTableDataChanged();
+        }
+
+        TestGapMap.TestGap getGap(int row) {
+            return this.gaps.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return this.gaps.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return switch (columnIndex) {
+                case 0 -> String.class;
+                case 1 -> Integer.class;
+                default -> Long.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            TestGapMap.TestGap gap = this.gaps.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> gap.qualifiedName();
+                case 1 -> gap.lineCount();
+                default -> gap.modificationStamp();
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.mikan.intellij.plugin;
+
+import java.util.List;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.PathUtil;
+import com.mikan.intellij.plugin.intention.TestSyncFingerprints;
+
+/**
+ * Light fixture test with stubs of the Spring, Mockito, JUnit and Lombok types the plugin resolves by qualified name.
+ * <p>
+ * The light project has no JDK, so the test data only uses the stubs, the {@code demo} types and primitives. Test
+ * data files are copied to the {@code demo} directory, so other files resolve the classes they declare.
+ */
+public abstract class PluginTestCase extends BasePlatformTestCase {
+
+    private static final List<String> STUBS = List.of(
+        "package org.springframework.beans.factory.annotation; public @interface Autowired {}",
+        "package org.springframework.stereotype; public @interface Service {}",
+        "package org.springframework.context.annotation; public @interface Scope { String value() default \"\"; }",
+        "package org.springframework.beans.factory; public interface ObjectFactory<T> { T getObject(); }",
+        "package org.springframework.beans.factory; public interface ObjectProvider<T> extends ObjectFactory<T> {}",
+        "package org.springframework.boot.test.context; public @interface SpringBootTest {}",
+        "package org.springframework.boot.test.mock.mockito; public @interface MockBean {}",
+        "package org.mockito; public @interface Mock {}",
+        "package org.mockito.junit.jupiter; public class MockitoExtension {}",
+        "package org.mockito.quality; public enum Strictness { STRICT_STUBS, LENIENT }",
+        "package org.mockito.junit.jupiter; public @interface MockitoSettings { "
+            + "org.mockito.quality.Strictness strictness(); }",
+        "package org.junit.jupiter.api.extension; public @interface ExtendWith { Class<?>[] value(); }",
+        "package org.junit.jupiter.api; public @interface Test {}",
+        "package org.junit.jupiter.api; public @interface BeforeEach {}",
+        "package lombok; public @interface RequiredArgsConstructor {}",
+        "package demo; public interface Clock { void tick(); }",
+        "package demo; public interface Notifier { void send(); }",
+        "package demo; public interface Repository { void save(); int find(int value); }");
+
+    @Override
+    protected String getTestDataPath() {
+        return "src/test/testData";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (String stub : STUBS) {
+            this.myFixture.addClass(stub);
+        }
+        // 指纹是项目级别的状态，每个测试都从完整比较开始
+        TestSyncFingerprints.getInstance(this.getProject()).loadState(new TestSyncFingerprints.FingerprintState());
+    }
+
+    /**
+     * 复制到包对应的目录
+     */
+    protected VirtualFile copyToDemo(String path) {
+        return this.myFixture.copyFileToProject(path, "demo/" + PathUtil.getFileName(path));
+    }
+
+    /**
+     * 复制到包对应的目录并在编辑器中打开，处理 caret 标记
+     */
+    protected void configureInDemo(String path) {
+        this.myFixture.configureFromExistingVirtualFile(this.copyToDemo(path));
+    }
+
+    /**
+     * 检查 demo 目录中的文件，期望的结果为同名的 _after 文件
+     */
+    protected void checkDemoResult(String path) {
+        this.myFixture.checkResultByFile("demo/" + PathUtil.getFileName(path),
+            path.replace(".java", "_after.java"), true);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.mikan.intellij.plugin.headless;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the module and package filters of {@link TestGeneratorStarter}.
+ */
+public class TestGeneratorStarterTest extends TestCase {
+
+    public void testSingleStarMatchesOnePackageSegment() {
+        TestGeneratorStarter.Filter filter = new TestGeneratorStarter.Filter(List.of(),
+            TestGeneratorStarter.toPatterns("com.shop.*"));
+
+        assertTrue(filter.accept("app", "com.shop.order"));
+        assertFalse(filter.accept("app", "com.shop.order.internal"));
+        assertFalse(filter.accept("app", "com.shopping.order"));
+    }
+
+    public void testDoubleStarMatchesAnyNumberOfSegments() {
+        TestGeneratorStarter.Filter filter = new TestGeneratorStarter.Filter(List.of(),
+            TestGeneratorStarter.toPatterns("com.**.service, org.example"));
+
+        assertTrue(filter.accept("app", "com.shop.order.service"));
+        assertTrue(filter.accept("app", "org.example"));
+        assertFalse(filter.accept("app", "com.shop.order.repository"));
+    }
+
+    public void testModulesAndPackagesMustBothMatch() {
+        TestGeneratorStarter.Filter filter = new TestGeneratorStarter.Filter(
+            TestGeneratorStarter.toPatterns("order-*"), TestGeneratorStarter.toPatterns("com.**"));
+
+        assertTrue(filter.accept("order-core", "com.shop"));
+        assertFalse(filter.accept("billing-core", "com.shop"));
+        assertFalse(filter.accept("order-core", "org.shop"));
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.mikan.intellij.plugin.index;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the sites indexed by {@link FieldInjectionIndex}.
+ */
+public class FieldInjectionIndexTest extends PluginTestCase {
+
+    private PsiFile file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.file = this.myFixture.addFileToProject("demo/StockService.java", """
+            package demo;
+
+            import javax.inject.Inject;
+            import org.springframework.beans.factory.annotation.Autowired;
+
+            public class StockService {
+                @Autowired
+                @org.springframework.beans.factory.annotation.Autowired
+                private Clock clock;
+
+                @Autowired
+                @Inject
+                private Repository repository;
+
+                @Autowired
+                private static Notifier notifier;
+
+                class Inner {
+                    @Autowired
+                    private Notifier notifier;
+                }
+            }
+            """);
+    }
+
+    public void testOneSitePerFieldAndShortName() {
+        Map<String, List<FieldInjectionSite>> data = FileBasedIndex.getInstance()
+            .getFileData(FieldInjectionIndex.NAME, this.file.getVirtualFile(), this.getProject());
+
+        assertEquals(Set.of("Autowired", "Inject"), data.keySet());
+        assertEquals(List.of("StockService.clock", "StockService.repository", "StockService.Inner.notifier"),
+            data.get("Autowired").stream().map(site -> site.className() + "." + site.fieldName()).toList());
+        assertEquals(1, data.get("Inject").size());
+    }
+
+    public void testSitesOfSeveralShortNamesAreReturnedOnce() {
+        List<FieldInjectionSite> sites = FieldInjectionIndex.getSites(List.of("Autowired", "Inject"),
+            this.file.getVirtualFile(), GlobalSearchScope.projectScope(this.getProject()));
+
+        assertEquals(List.of("clock", "repository", "notifier"),
+            sites.stream().map(FieldInjectionSite::fieldName).toList());
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.List;
+import java.util.Set;
+
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the cycles found by {@link BeanDependencyGraph}.
+ */
+public class BeanDependencyGraphTest extends PluginTestCase {
+
+    public void testThreeBeanConstructorCycle() {
+        this.addBean("OrderService", "private final PaymentService paymentService;\n"
+            + "public OrderService(PaymentService paymentService) { this.paymentService = paymentService; }");
+        this.addBean("PaymentService", "private final InvoiceService invoiceService;\n"
+            + "public PaymentService(InvoiceService invoiceService) { this.invoiceService = invoiceService; }");
+        this.addBean("InvoiceService", "private final OrderService orderService;\n"
+            + "public InvoiceService(OrderService orderService) { this.orderService = orderService; }");
+
+        List<BeanDependencyGraph.Cycle> cycles = BeanDependencyGraph.getInstance(this.getProject()).getCycles();
+
+        assertEquals(1, cycles.size());
+        BeanDependencyGraph.Cycle cycle = cycles.get(0);
+        assertEquals(Set.of("demo.OrderService", "demo.PaymentService", "demo.InvoiceService"), cycle.beans());
+        assertEquals(4, cycle.path().size());
+        assertEquals(cycle.path().get(0), cycle.path().get(3));
+        assertFalse(cycle.fieldInjection());
+    }
+
+    public void testFieldInjectionEdgeIsReported() {
+        this.addBean("OrderService", "private final PaymentService paymentService;\n"
+            + "public OrderService(PaymentService paymentService) { this.paymentService = paymentService; }");
+        this.addBean("PaymentService", "@Autowired private OrderService orderService;");
+
+        List<BeanDependencyGraph.Cycle> cycles = BeanDependencyGraph.getInstance(this.getProject()).getCycles();
+
+        assertEquals(1, cycles.size());
+        assertEquals(Set.of("demo.OrderService", "demo.PaymentService"), cycles.get(0).beans());
+        assertTrue(cycles.get(0).fieldInjection());
+    }
+
+    public void testChainWithoutCycle() {
+        this.addBean("OrderService", "private final PaymentService paymentService;\n"
+            + "public OrderService(PaymentService paymentService) { this.paymentService = paymentService; }");
+        this.addBean("PaymentService", "private final InvoiceService invoiceService;\n"
+            + "public PaymentService(InvoiceService invoiceService) { this.invoiceService = invoiceService; }");
+        this.addBean("InvoiceService", "");
+
+        assertEmpty(BeanDependencyGraph.getInstance(this.getProject()).getCycles());
+    }
+
+    private void addBean(String className, String body) {
+        this.myFixture.addFileToProject("demo/" + className + ".java", "package demo;\n\n"
+            + "import org.springframework.beans.factory.annotation.Autowired;\n"
+            + "import org.springframework.stereotype.Service;\n\n"
+            + "@Service\npublic class " + className + " {\n" + body + "\n}\n");
+    }
+
+}
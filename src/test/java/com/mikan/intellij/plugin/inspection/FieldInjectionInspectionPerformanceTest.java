@@ -0,0 +1,104 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.List;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.mikan.intellij.plugin.PluginTestCase;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Timing of {@link FieldInjectionInspection} on classes with 10, 1k and 10k injected fields and of
+ * {@link FieldInjectionQuickFix} on large classes. Each attempt checks a new file, so no cached value is reused.
+ */
+public class FieldInjectionInspectionPerformanceTest extends PluginTestCase {
+
+    private final FieldInjectionInspection inspection = new FieldInjectionInspection();
+
+    public void testInspection10Fields() {
+        this.assertInspectionTiming(10, 100);
+    }
+
+    public void testInspection1000Fields() {
+        this.assertInspectionTiming(1_000, 1_000);
+    }
+
+    public void testInspection10000Fields() {
+        this.assertInspectionTiming(10_000, 8_000);
+    }
+
+    public void testQuickFix50Fields() {
+        this.assertQuickFixTiming(50, 500);
+    }
+
+    public void testQuickFix500Fields() {
+        this.assertQuickFixTiming(500, 3_000);
+    }
+
+    private void assertInspectionTiming(int fields, int expectedMs) {
+        String text = injectedClass(fields);
+        PlatformTestUtil.startPerformanceTest("field injection inspection on " + fields + " fields", expectedMs,
+                () -> assertSize(fields, this.inspect(this.createFile(text))))
+            .attempts(3)
+            .assertTiming();
+    }
+
+    private void assertQuickFixTiming(int fields, int expectedMs) {
+        String text = injectedClass(fields);
+        FieldInjectionQuickFix quickFix = new FieldInjectionQuickFix();
+        PsiJavaFile[] file = new PsiJavaFile[1];
+        PlatformTestUtil.startPerformanceTest("field injection quick fix on " + fields + " fields", expectedMs, () -> {
+                ProblemDescriptor descriptor = this.inspect(file[0]).get(0);
+                WriteCommandAction.runWriteCommandAction(this.getProject(),
+                    () -> quickFix.applyFix(this.getProject(), descriptor));
+                PsiClass psiClass = file[0].getClasses()[0];
+                assertSize(1, psiClass.getConstructors());
+                assertSize(fields, psiClass.getConstructors()[0].getParameterList().getParameters());
+            })
+            .setup(() -> file[0] = this.createFile(text))
+            .attempts(3)
+            .assertTiming();
+    }
+
+    private List<ProblemDescriptor> inspect(PsiFile file) {
+        ProblemsHolder holder = new ProblemsHolder(InspectionManager.getInstance(this.getProject()), file, false);
+        PsiElementVisitor visitor = this.inspection.buildVisitor(holder, false);
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(@NotNull PsiElement element) {
+                element.accept(visitor);
+                super.visitElement(element);
+            }
+        });
+        return holder.getResults();
+    }
+
+    private PsiJavaFile createFile(String text) {
+        return (PsiJavaFile)PsiFileFactory.getInstance(this.getProject())
+            .createFileFromText("Injected.java", JavaFileType.INSTANCE, text);
+    }
+
+    /**
+     * 包级字段不是未读取的私有依赖，quick fix 会把它们全部转换为构造参数
+     */
+    private static String injectedClass(int fields) {
+        StringBuilder text = new StringBuilder("package demo;\n\n"
+            + "import org.springframework.beans.factory.annotation.Autowired;\n\npublic class Injected {\n");
+        for (int i = 0; i < fields; i++) {
+            text.append("    @Autowired\n    Repository repository").append(i).append(";\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.mikan.intellij.plugin.inspection;
+
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Before/after test of the quick fix of {@link FieldInjectionInspection}.
+ */
+public class FieldInjectionQuickFixTest extends PluginTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.myFixture.enableInspections(new FieldInjectionInspection());
+    }
+
+    public void testConvertToConstructorInjection() {
+        this.configureInDemo("fieldInjection/OrderService.java");
+        this.myFixture.launchAction(this.myFixture.findSingleIntention(
+            InspectionBundle.message("inspection.field.injection.use.quickfix")));
+        this.checkDemoResult("fieldInjection/OrderService.java");
+    }
+
+}
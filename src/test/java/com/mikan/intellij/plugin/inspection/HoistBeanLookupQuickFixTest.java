@@ -0,0 +1,43 @@
+package com.mikan.intellij.plugin.inspection;
+
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Before/after tests of {@link HoistBeanLookupQuickFix}.
+ */
+public class HoistBeanLookupQuickFixTest extends PluginTestCase {
+
+    private static final String QUICK_FIX = "inspection.bean.lookup.hoist.quickfix";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.myFixture.enableInspections(new BeanLookupInspection());
+    }
+
+    public void testInjectThroughConstructorAndUpdateCallers() {
+        this.copyToDemo("beanLookup/ReportJob.java");
+        this.configureInDemo("beanLookup/ReportService.java");
+
+        this.myFixture.launchAction(this.myFixture.findSingleIntention(InspectionBundle.message(QUICK_FIX)));
+
+        this.checkDemoResult("beanLookup/ReportService.java");
+        this.checkDemoResult("beanLookup/ReportJob.java");
+    }
+
+    public void testNotOfferedForPrototypeBean() {
+        this.myFixture.addClass("""
+            package demo;
+
+            @org.springframework.context.annotation.Scope("prototype")
+            public class Task {
+                public void run() {
+                }
+            }
+            """);
+        this.configureInDemo("beanLookup/PrototypeLookup.java");
+
+        assertEmpty(this.myFixture.filterAvailableIntentions(InspectionBundle.message(QUICK_FIX)));
+    }
+
+}
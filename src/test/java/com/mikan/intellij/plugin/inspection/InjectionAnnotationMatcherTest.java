@@ -0,0 +1,86 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.Set;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the direct, meta-annotation and syntactic matching of {@link InjectionAnnotationMatcher}.
+ */
+public class InjectionAnnotationMatcherTest extends PluginTestCase {
+
+    private PsiClass service;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.myFixture.addClass("""
+            package demo;
+
+            @org.springframework.beans.factory.annotation.Autowired
+            public @interface InjectRepository {
+            }
+            """);
+        this.myFixture.addClass("""
+            package demo;
+
+            public @interface Audited {
+            }
+            """);
+        this.service = this.myFixture.addClass("""
+            package demo;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+
+            public class BillingService {
+                @Autowired
+                private Clock clock;
+
+                @InjectRepository
+                private Repository repository;
+
+                @Audited
+                private Notifier notifier;
+            }
+            """);
+    }
+
+    public void testDirectMatchOnly() {
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.compile(
+            FieldInjectionInspection.DEFAULT_ANNOTATIONS, false);
+
+        assertTrue(matcher.isFieldInjection(this.field("clock")));
+        assertFalse(matcher.isFieldInjection(this.field("repository")));
+        assertFalse(matcher.isFieldInjection(this.field("notifier")));
+    }
+
+    public void testMetaAnnotations() {
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.compile(
+            FieldInjectionInspection.DEFAULT_ANNOTATIONS, true);
+
+        Set<String> shortNames = matcher.getIndexShortNames(this.getProject());
+        assertContainsElements(shortNames, "Autowired", "InjectRepository");
+        assertDoesntContain(shortNames, "Audited");
+        assertTrue(matcher.isFieldInjection(this.field("clock")));
+        assertTrue(matcher.isFieldInjection(this.field("repository")));
+        assertFalse(matcher.isFieldInjection(this.field("notifier")));
+    }
+
+    public void testSyntacticMatchAgainstImports() {
+        InjectionAnnotationMatcher matcher = InjectionAnnotationMatcher.DEFAULT;
+        Set<String> imports = Set.of("demo.*", FieldInjectionInspection.AUTOWIRED);
+
+        assertTrue(matcher.isSyntacticFieldInjection(this.field("clock"), imports));
+        assertFalse(matcher.isSyntacticFieldInjection(this.field("clock"), Set.of("demo.*")));
+        assertFalse(matcher.isSyntacticFieldInjection(this.field("repository"), imports));
+    }
+
+    private PsiField field(String name) {
+        PsiField field = this.service.findFieldByName(name, false);
+        assertNotNull(field);
+        return field;
+    }
+
+}
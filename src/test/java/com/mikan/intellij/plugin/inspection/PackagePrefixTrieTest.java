@@ -0,0 +1,36 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the package matching of {@link PackagePrefixTrie}.
+ */
+public class PackagePrefixTrieTest extends TestCase {
+
+    private final PackagePrefixTrie trie = new PackagePrefixTrie(List.of("org.junit", " org.mockito ", "",
+        "org.springframework.boot.test"));
+
+    public void testMatchesWholeSegmentsOnly() {
+        assertEquals("org.junit", this.trie.findPackage("org.junit.jupiter.api.Test"));
+        assertEquals("org.junit", this.trie.findPackage("org.junit"));
+        assertNull(this.trie.findPackage("org.junitx.Foo"));
+        assertNull(this.trie.findPackage("org.jun"));
+    }
+
+    public void testMatchesOnlyTheConfiguredDepth() {
+        assertEquals("org.mockito", this.trie.findPackage("org.mockito.Mockito"));
+        assertEquals("org.springframework.boot.test",
+            this.trie.findPackage("org.springframework.boot.test.context.SpringBootTest"));
+        assertNull(this.trie.findPackage("org.springframework.boot.SpringApplication"));
+        assertNull(this.trie.findPackage("org"));
+    }
+
+    public void testFirstSegment() {
+        assertTrue(this.trie.hasFirstSegment("org"));
+        assertFalse(this.trie.hasFirstSegment("com"));
+        assertFalse(this.trie.hasFirstSegment(null));
+    }
+
+}
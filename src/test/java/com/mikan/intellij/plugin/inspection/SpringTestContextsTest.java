@@ -0,0 +1,125 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PsiTestUtil;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the grouping of the test classes by {@link SpringTestContexts} and the difference of two contexts.
+ */
+public class SpringTestContextsTest extends PluginTestCase {
+
+    private VirtualFile testRoot;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // 轻量项目只有一个源码目录，其中的子目录作为测试源码目录
+        this.testRoot = this.myFixture.getTempDirFixture().findOrCreateDir("testRoot");
+        PsiTestUtil.addSourceRoot(this.getModule(), this.testRoot, true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            PsiTestUtil.removeSourceRoot(this.getModule(), this.testRoot);
+        } catch (Throwable e) {
+            this.addSuppressedException(e);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testSubclassesShareTheContextOfTheBaseClass() throws IOException {
+        this.addTestClass("BaseIT", """
+            @SpringBootTest
+            public abstract class BaseIT {
+                @MockBean
+                protected Clock clock;
+            }
+            """);
+        this.addTestClass("OrderIT", """
+            class OrderIT extends BaseIT {
+                @Test
+                void order() {
+                }
+            }
+            """);
+        this.addTestClass("InvoiceIT", """
+            class InvoiceIT extends BaseIT {
+                @Test
+                void invoice() {
+                }
+            }
+            """);
+        this.addTestClass("PaymentIT", """
+            @SpringBootTest
+            @ActiveProfiles( "it" )
+            class PaymentIT {
+                @MockBean
+                private Clock clock;
+                @MockBean
+                private Notifier notifier;
+            }
+            """);
+        // 没有启动 context 的注解，不是 Spring 测试
+        this.addTestClass("PlainTest", """
+            class PlainTest {
+                @MockBean
+                private Clock clock;
+            }
+            """);
+
+        List<SpringTestContexts.Context> contexts = SpringTestContexts.getInstance(this.getProject()).getContexts();
+
+        assertEquals(2, contexts.size());
+        SpringTestContexts.Context shared = contexts.get(0);
+        assertEquals(List.of("demo.InvoiceIT", "demo.OrderIT"), shared.testClasses());
+        assertEquals(Set.of("@SpringBootTest", "@MockBean Clock"), shared.key());
+        SpringTestContexts.Context payment = contexts.get(1);
+        assertEquals(List.of("demo.PaymentIT"), payment.testClasses());
+
+        assertEquals(List.of("+@ActiveProfiles(\"it\")", "+@MockBean Notifier"),
+            SpringTestContexts.getDifference(shared, payment));
+        assertEquals(List.of("-@ActiveProfiles(\"it\")", "-@MockBean Notifier"),
+            SpringTestContexts.getDifference(payment, shared));
+    }
+
+    public void testEditedTestClassIsRegrouped() throws IOException {
+        this.addTestClass("OrderIT", """
+            @SpringBootTest
+            class OrderIT {
+            }
+            """);
+        VirtualFile invoice = this.addTestClass("InvoiceIT", """
+            @SpringBootTest
+            class InvoiceIT {
+                @MockBean
+                private Clock clock;
+            }
+            """);
+        SpringTestContexts contexts = SpringTestContexts.getInstance(this.getProject());
+        assertEquals(2, contexts.getContexts().size());
+
+        this.myFixture.saveText(invoice, """
+            package demo;
+
+            @SpringBootTest
+            class InvoiceIT {
+            }
+            """);
+
+        assertEquals(List.of("demo.InvoiceIT", "demo.OrderIT"), contexts.getContexts().get(0).testClasses());
+        assertEquals(1, contexts.getContexts().size());
+    }
+
+    private VirtualFile addTestClass(String className, String declaration) throws IOException {
+        return this.myFixture.getTempDirFixture().createFile("testRoot/demo/" + className + ".java",
+            "package demo;\n\n" + declaration);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.mikan.intellij.plugin.inspection;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiVariable;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of {@link UnusedDependencyAnalyzer}, before/after tests of {@link RemoveUnusedDependencyQuickFix} and the fixes
+ * offered for an unused injected field.
+ */
+public class UnusedDependencyInspectionTest extends PluginTestCase {
+
+    public void testAnalyzeConstructorInjection() {
+        this.configureInDemo("unusedDependency/InvoiceService.java");
+        UnusedDependencyAnalyzer.UnusedDependencies dependencies = this.analyze("demo.InvoiceService");
+
+        assertEquals(Set.of("clock"), names(dependencies.fields()));
+        assertEquals(Set.of("clock"), names(dependencies.parameters()));
+    }
+
+    public void testAnalyzeLombokConstructorSkipsPrimitiveFields() {
+        this.myFixture.addClass("""
+            package demo;
+
+            @org.springframework.stereotype.Service
+            @lombok.RequiredArgsConstructor
+            public class RetryService {
+                private final int retries;
+                private final Clock clock;
+                private final Repository repository;
+
+                public void retry() {
+                    this.repository.save();
+                }
+            }
+            """);
+        UnusedDependencyAnalyzer.UnusedDependencies dependencies = this.analyze("demo.RetryService");
+
+        assertEquals(Set.of("clock"), names(dependencies.fields()));
+        assertEmpty(dependencies.parameters());
+    }
+
+    public void testRemoveParameterAndCallerArguments() {
+        this.myFixture.enableInspections(new UnusedDependencyInspection());
+        this.copyToDemo("unusedDependency/InvoiceJob.java");
+        this.configureInDemo("unusedDependency/InvoiceService.java");
+
+        this.myFixture.launchAction(this.myFixture.findSingleIntention(
+            InspectionBundle.message("inspection.unused.dependency.remove.quickfix")));
+
+        this.checkDemoResult("unusedDependency/InvoiceService.java");
+        this.checkDemoResult("unusedDependency/InvoiceJob.java");
+    }
+
+    public void testFieldInjectionOfUnusedFieldOffersOnlyConversion() {
+        this.myFixture.enableInspections(new FieldInjectionInspection());
+        this.myFixture.configureByText("LegacyService.java", """
+            package demo;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+
+            public class LegacyService {
+                @Autowired
+                private Clock <caret>clock;
+            }
+            """);
+
+        List<String> fixes = this.myFixture.getAllQuickFixes().stream().map(IntentionAction::getText).toList();
+        assertContainsElements(fixes, InspectionBundle.message("inspection.field.injection.use.quickfix"));
+        assertDoesntContain(fixes, InspectionBundle.message("inspection.unused.dependency.remove.quickfix"));
+    }
+
+    private UnusedDependencyAnalyzer.UnusedDependencies analyze(String className) {
+        PsiClass psiClass = JavaPsiFacade.getInstance(this.getProject())
+            .findClass(className, GlobalSearchScope.projectScope(this.getProject()));
+        assertNotNull(psiClass);
+        return UnusedDependencyAnalyzer.analyze(psiClass);
+    }
+
+    private static Set<String> names(Set<? extends PsiVariable> variables) {
+        return variables.stream().map(PsiVariable::getName).collect(Collectors.toSet());
+    }
+
+}
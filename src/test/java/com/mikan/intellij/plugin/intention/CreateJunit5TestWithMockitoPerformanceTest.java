@@ -0,0 +1,62 @@
+package com.mikan.intellij.plugin.intention;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Timing of the work of {@link CreateJunit5TestWithMockitoIntentionAction} on source classes with 5, 50 and 500
+ * dependency fields and methods: the generation plan and the formatting of the generated text.
+ */
+public class CreateJunit5TestWithMockitoPerformanceTest extends PluginTestCase {
+
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    public void testGenerate5Members() {
+        this.assertGeneratorTiming(5, 300);
+    }
+
+    public void testGenerate50Members() {
+        this.assertGeneratorTiming(50, 1_000);
+    }
+
+    public void testGenerate500Members() {
+        this.assertGeneratorTiming(500, 6_000);
+    }
+
+    private void assertGeneratorTiming(int members, int expectedMs) {
+        PsiClass srcClass = ((PsiJavaFile)this.myFixture.addFileToProject("demo/Service" + members + ".java",
+            serviceClass("Service" + members, members))).getClasses()[0];
+        PlatformTestUtil.startPerformanceTest("test generation for " + members + " members", expectedMs, () -> {
+                TestGenerationPlan plan = this.generator.plan(srcClass);
+                assertNotNull(plan);
+                String text = this.generator.format(plan, this.getProject());
+                assertTrue(text.contains("should_method" + (members - 1) + "_successfully"));
+            })
+            .attempts(3)
+            .assertTiming();
+    }
+
+    /**
+     * 每个方法调用一个 mock 字段，生成 stub 和 verify
+     */
+    private static String serviceClass(String className, int members) {
+        StringBuilder text = new StringBuilder("package demo;\n\npublic class " + className + " {\n");
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < members; i++) {
+            text.append("    private final Repository repository").append(i).append(";\n");
+            parameters.append(i == 0 ? "" : ", ").append("Repository repository").append(i);
+            assignments.append("        this.repository").append(i).append(" = repository").append(i).append(";\n");
+        }
+        text.append("    public ").append(className).append("(").append(parameters).append(") {\n")
+            .append(assignments).append("    }\n");
+        for (int i = 0; i < members; i++) {
+            text.append("    public int method").append(i).append("(int value) {\n")
+                .append("        return this.repository").append(i).append(".find(value);\n    }\n");
+        }
+        return text.append("}\n").toString();
+    }
+
+}
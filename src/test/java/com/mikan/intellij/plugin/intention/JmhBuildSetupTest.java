@@ -0,0 +1,110 @@
+package com.mikan.intellij.plugin.intention;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the Gradle and Maven build file edits of {@link JmhBuildSetup}.
+ */
+public class JmhBuildSetupTest extends TestCase {
+
+    public void testGradleKotlinExtendsExistingBlocks() {
+        String text = JmhBuildSetup.addJmh("build.gradle.kts", """
+            plugins {
+                java
+            }
+
+            buildscript {
+                dependencies {
+                    classpath("org.example:plugin:1.0")
+                }
+            }
+
+            dependencies {
+                implementation("org.example:lib:1.0")
+            }
+            """);
+
+        assertEquals("""
+            plugins {
+                java
+                id("me.champeau.jmh") version "0.7.2"
+            }
+
+            buildscript {
+                dependencies {
+                    classpath("org.example:plugin:1.0")
+                }
+            }
+
+            dependencies {
+                implementation("org.example:lib:1.0")
+                jmh("org.mockito:mockito-core:5.12.0")
+            }
+            """, text);
+        assertTrue(JmhBuildSetup.hasJmh(text));
+    }
+
+    public void testGradleGroovyWithoutBlocks() {
+        assertEquals("""
+            plugins {
+                id 'me.champeau.jmh' version '0.7.2'
+            }
+
+            apply plugin: 'java'
+
+            dependencies {
+                jmh 'org.mockito:mockito-core:5.12.0'
+            }
+            """, JmhBuildSetup.addJmh("build.gradle", "apply plugin: 'java'\n"));
+    }
+
+    public void testMavenAddsJmhAndMockitoInTestScope() {
+        String text = JmhBuildSetup.addJmh("pom.xml", """
+            <project>
+                <dependencyManagement>
+                    <dependencies>
+                    </dependencies>
+                </dependencyManagement>
+                <dependencies>
+                    <dependency>
+                        <groupId>org.example</groupId>
+                        <artifactId>lib</artifactId>
+                    </dependency>
+                </dependencies>
+            </project>
+            """);
+
+        int dependencies = text.indexOf("</dependencyManagement>");
+        assertTrue(text, text.indexOf("<artifactId>jmh-core</artifactId>") > dependencies);
+        assertTrue(text, text.indexOf("<artifactId>jmh-generator-annprocess</artifactId>") > dependencies);
+        assertTrue(text, text.contains("""
+                        <groupId>org.mockito</groupId>
+                        <artifactId>mockito-core</artifactId>
+                        <version>5.12.0</version>
+                        <scope>test</scope>
+            """));
+        assertTrue(text, text.contains("<source>src/jmh/java</source>"));
+        assertTrue(JmhBuildSetup.hasJmh(text));
+    }
+
+    public void testMavenKeepsExistingMockito() {
+        String text = JmhBuildSetup.addJmh("pom.xml", """
+            <project>
+                <dependencies>
+                    <dependency>
+                        <groupId>org.mockito</groupId>
+                        <artifactId>mockito-core</artifactId>
+                    </dependency>
+                </dependencies>
+            </project>
+            """);
+
+        assertEquals(text.indexOf("<artifactId>mockito-core</artifactId>"),
+            text.lastIndexOf("<artifactId>mockito-core</artifactId>"));
+    }
+
+    public void testCommentedJmhIsIgnored() {
+        assertFalse(JmhBuildSetup.hasJmh("// id(\"me.champeau.jmh\")\n<!-- <artifactId>jmh-core</artifactId> -->\n"));
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.mikan.intellij.plugin.intention;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the construction of the tested instance and of the skeleton generated in dumb mode by
+ * {@link Junit5MockitoTestGenerator}.
+ */
+public class Junit5MockitoTestGeneratorTest extends PluginTestCase {
+
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    public void testConstructedWithDependencies() {
+        PsiClass srcClass = this.addClass("demo/OrderService.java", """
+            package demo;
+
+            public class OrderService {
+                private final Repository repository;
+
+                public OrderService(Repository repository) {
+                    this.repository = repository;
+                }
+
+                public void order() {
+                    this.repository.save();
+                }
+            }
+            """);
+
+        assertTrue(this.generator.hasAvailableConstructor(srcClass, 1));
+        assertTrue(this.generator.format(this.generator.plan(srcClass), this.getProject())
+            .contains("new OrderService(repository)"));
+    }
+
+    public void testAbstractClassAndEnumAreNotConstructed() {
+        PsiClass abstractClass = this.addClass("demo/AbstractService.java", """
+            package demo;
+
+            public abstract class AbstractService {
+                private final Repository repository;
+
+                protected AbstractService(Repository repository) {
+                    this.repository = repository;
+                }
+            }
+            """);
+        PsiClass enumClass = this.addClass("demo/Channel.java", """
+            package demo;
+
+            public enum Channel {
+                MAIL, SMS;
+
+                Channel() {
+                }
+            }
+            """);
+
+        assertFalse(this.generator.hasAvailableConstructor(abstractClass, 1));
+        assertFalse(this.generator.hasAvailableConstructor(enumClass, 0));
+        assertFalse(this.generator.format(this.generator.plan(abstractClass), this.getProject())
+            .contains("new AbstractService("));
+    }
+
+    public void testSkeletonImportsFieldTypesFromTheSourceText() {
+        PsiClass srcClass = this.addClass("shop/OrderService.java", """
+            package shop;
+
+            import demo.Repository;
+            import demo.*;
+
+            public class OrderService {
+                private final Repository repository;
+                private final Clock clock;
+                private final int limit;
+
+                public OrderService(Repository repository, Clock clock, int limit) {
+                    this.repository = repository;
+                    this.clock = clock;
+                    this.limit = limit;
+                }
+
+                public void order() {
+                    this.repository.save();
+                }
+            }
+            """);
+
+        TestGenerationPlan plan = this.generator.planSkeleton(srcClass);
+
+        // 骨架不记录指纹，下次同步时完整比较
+        assertNull(plan.fingerprint());
+        String text = plan.text();
+        assertTrue(text, text.contains("import demo.Repository;"));
+        // 单类 import 中没有的类型保留按需 import
+        assertTrue(text, text.contains("import demo.*;"));
+        assertTrue(text, text.contains("@Mock\nprivate Repository repository;"));
+        assertTrue(text, text.contains("@Mock\nprivate Clock clock;"));
+        assertTrue(text, text.contains("private final int limit = 0;"));
+        assertTrue(text, text.contains("should_order_successfully"));
+        // 没有 resolve 时不生成 stub 和并发注解
+        assertFalse(text, text.contains("verify("));
+        assertFalse(text, text.contains("@Execution"));
+    }
+
+    private PsiClass addClass(String path, String text) {
+        return ((PsiJavaFile)this.myFixture.addFileToProject(path, text)).getClasses()[0];
+    }
+
+}
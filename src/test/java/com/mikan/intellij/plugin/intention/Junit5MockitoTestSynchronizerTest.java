@@ -0,0 +1,41 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Map;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Before/after tests of {@link Junit5MockitoTestSynchronizer}.
+ */
+public class Junit5MockitoTestSynchronizerTest extends PluginTestCase {
+
+    private final Junit5MockitoTestSynchronizer synchronizer =
+        new Junit5MockitoTestSynchronizer(new Junit5MockitoTestGenerator());
+
+    public void testAddOnlyMissingFieldAndArgument() {
+        this.copyToDemo("sync/ShippingService.java");
+        this.configureInDemo("sync/ShippingServiceTest.java");
+        PsiClass srcClass = JavaPsiFacade.getInstance(this.getProject())
+            .findClass("demo.ShippingService", GlobalSearchScope.projectScope(this.getProject()));
+        assertNotNull(srcClass);
+        PsiClass testClass = ((PsiJavaFile)this.myFixture.getFile()).getClasses()[0];
+
+        TestSyncPlan plan = this.synchronizer.plan(srcClass, testClass);
+        assertNotNull(plan);
+        // 手动修改的实参保留，缺少的实参插入到对应的位置
+        assertEquals(Map.of(1, "notifier"), plan.missingArguments());
+        assertEmpty(plan.methods());
+        WriteCommandAction.runWriteCommandAction(this.getProject(),
+            () -> assertTrue(this.synchronizer.apply(plan, srcClass, testClass)));
+
+        this.checkDemoResult("sync/ShippingServiceTest.java");
+        // 源类没有变化时直接跳过
+        assertNull(this.synchronizer.plan(srcClass, testClass));
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the calls collected by {@link MockInteractionAnalyzer} and the stubs and verifications generated from them.
+ */
+public class MockInteractionAnalyzerTest extends PluginTestCase {
+
+    private final Junit5MockitoTestGenerator generator = new Junit5MockitoTestGenerator();
+
+    private PsiClass srcClass;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.srcClass = ((PsiJavaFile)this.myFixture.addFileToProject("demo/AuditService.java", """
+            package demo;
+
+            public class AuditService {
+                private final Repository repository;
+                private final Clock clock;
+
+                public AuditService(Repository repository, Clock clock) {
+                    this.repository = repository;
+                    this.clock = clock;
+                }
+
+                public int audit(int value, Notifier notifier) {
+                    this.clock.tick();
+                    if (value > 0) {
+                        this.repository.save();
+                    }
+                    int found = this.repository.find(value);
+                    return found + this.repository.find(found);
+                }
+            }
+            """)).getClasses()[0];
+    }
+
+    public void testTopLevelCallsAreCountedAndBranchesAreConditional() {
+        Map<String, MockCall> calls = this.getCalls().stream()
+            .collect(Collectors.toMap(MockCall::methodName, Function.identity()));
+
+        assertEquals(1, calls.get("tick").times());
+        assertFalse(calls.get("tick").conditional());
+        assertEquals(0, calls.get("save").times());
+        assertTrue(calls.get("save").conditional());
+        assertEquals(2, calls.get("find").times());
+        assertFalse(calls.get("find").conditional());
+    }
+
+    public void testGeneratedVerificationsMatchTheCounts() {
+        String text = this.generator.generateTestMethodText(this.getMethod(), "auditService", this.getCalls(), true);
+
+        assertTrue(text, text.contains("org.mockito.Mockito.when(this.repository.find("));
+        assertTrue(text, text.contains("this.auditService.audit(0, org.mockito.Mockito.mock(demo.Notifier.class));"));
+        assertTrue(text, text.contains("org.mockito.Mockito.verify(this.clock).tick();"));
+        assertTrue(text, text.contains("org.mockito.Mockito.verify(this.repository, org.mockito.Mockito.atLeast(0))"
+            + ".save();"));
+        assertTrue(text, text.contains("org.mockito.Mockito.verify(this.repository, org.mockito.Mockito.times(2))"
+            + ".find("));
+    }
+
+    private List<MockCall> getCalls() {
+        List<PsiField> mockFields = this.generator.getMockFields(this.generator.getDependencyFields(this.srcClass));
+        List<PsiMethod> testedMethods = this.generator.getTestedMethods(this.srcClass);
+        return this.generator.getMockCalls(this.srcClass, mockFields, testedMethods, "auditService")
+            .get(this.getMethod());
+    }
+
+    private PsiMethod getMethod() {
+        return this.srcClass.findMethodsByName("audit", false)[0];
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Set;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the real values {@link RealValues} uses instead of mocks.
+ */
+public class RealValuesTest extends PluginTestCase {
+
+    private PsiClass holder;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // 轻量项目没有 JDK，JDK 的类型使用限定名
+        this.myFixture.addClass("package demo; public enum Status { NEW, DONE }");
+        this.myFixture.addClass("package demo; public enum Empty { }");
+        this.myFixture.addClass(
+            "package demo; public record Amount(int value, java.lang.String currency, Clock clock) { }");
+        this.myFixture.addClass("""
+            package demo;
+
+            public class Money {
+                public static Money builder() {
+                    return new Money();
+                }
+            }
+            """);
+        this.holder = ((PsiJavaFile)this.myFixture.addFileToProject("demo/Holder.java", """
+            package demo;
+
+            public class Holder {
+                private int count;
+                private java.lang.Integer boxed;
+                private Integer total;
+                private java.lang.String name;
+                private Status status;
+                private Empty empty;
+                private Amount amount;
+                private Money money;
+                private Clock clock;
+                private int[][] matrix;
+                private Clock[] clocks;
+                private java.util.List<Clock> list;
+            }
+            """)).getClasses()[0];
+    }
+
+    public void testKnownValues() {
+        assertEquals("0", this.forType("count").text());
+        assertEquals("0", this.forType("boxed").text());
+        RealValues.RealValue name = this.forType("name");
+        assertEquals("\"\"", name.text());
+        assertEmpty(name.imports());
+        RealValues.RealValue optional = RealValues.forErasure("java.util.Optional");
+        assertNotNull(optional);
+        assertEquals("Optional.empty()", optional.text());
+        assertEquals("java.util.Optional.empty()", optional.getText(true));
+        assertEquals(Set.of("java.util.Optional"), optional.imports());
+    }
+
+    public void testEnumRecordAndBuilder() {
+        RealValues.RealValue status = this.forType("status");
+        assertEquals("Status.NEW", status.text());
+        assertEquals("demo.Status.NEW", status.qualifiedText());
+        // 没有常量的枚举只能 mock
+        assertNull(this.forType("empty"));
+        RealValues.RealValue amount = this.forType("amount");
+        assertEquals("new Amount(0, \"\", null)", amount.text());
+        assertEquals(Set.of("demo.Amount"), amount.imports());
+        assertEquals("Money.builder().build()", this.forType("money").text());
+        assertNull(this.forType("clock"));
+    }
+
+    public void testArrays() {
+        assertEquals("new int[0][]", this.forType("matrix").text());
+        RealValues.RealValue clocks = this.forType("clocks");
+        assertEquals("new Clock[0]", clocks.text());
+        assertEquals("new demo.Clock[0]", clocks.qualifiedText());
+        assertEquals(Set.of("demo.Clock"), clocks.imports());
+    }
+
+    public void testWithoutResolving() {
+        assertEquals("0", this.forUnresolvedField("count").text());
+        // 没有 resolve 时只认 java.lang 中的短名
+        assertEquals("0", this.forUnresolvedField("total").text());
+        assertNull(this.forUnresolvedField("boxed"));
+        assertNull(this.forUnresolvedField("clock"));
+        assertNull(this.forUnresolvedField("list"));
+        assertEquals("0", RealValues.forUnusedDependency(this.getField("count").getType()));
+        assertEquals("null", RealValues.forUnusedDependency(this.getField("boxed").getType()));
+    }
+
+    private RealValues.RealValue forType(String fieldName) {
+        return RealValues.forType(this.getField(fieldName).getType());
+    }
+
+    private RealValues.RealValue forUnresolvedField(String fieldName) {
+        return RealValues.forUnresolvedField(this.getField(fieldName));
+    }
+
+    private PsiField getField(String fieldName) {
+        PsiField field = this.holder.findFieldByName(fieldName, false);
+        assertNotNull(field);
+        return field;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.mikan.intellij.plugin.intention;
+
+import java.util.Set;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the shared state found by {@link SharedStateAnalyzer}.
+ */
+public class SharedStateAnalyzerTest extends PluginTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // 轻量项目没有 JDK，只添加用到的 JDK 方法
+        this.myFixture.addClass("""
+            package java.util;
+
+            public final class Locale {
+                public static final Locale ROOT = new Locale();
+
+                public static void setDefault(Locale locale) {
+                }
+            }
+            """);
+        this.myFixture.addClass("""
+            package demo;
+
+            public class Registry {
+                private static final Registry INSTANCE = new Registry();
+
+                public static Registry getInstance() {
+                    return INSTANCE;
+                }
+
+                public void register() {
+                }
+            }
+            """);
+        this.myFixture.addClass("package demo; public class Counter { public static int count; }");
+    }
+
+    public void testConstantsAreNotShared() {
+        PsiClass srcClass = this.addClass("PricingService", """
+            private static final int LIMIT = 10;
+            private static final Clock CLOCK = null;
+            private int calls;
+
+            public int price(int value) {
+                this.calls++;
+                return value + LIMIT;
+            }
+            """);
+
+        assertEmpty(SharedStateAnalyzer.analyze(srcClass));
+    }
+
+    public void testMutableStaticFieldsOfTheSourceClass() {
+        assertEquals(Set.of("demo.CachingService"), SharedStateAnalyzer.analyze(this.addClass("CachingService",
+            "private static int calls;")));
+        assertEquals(Set.of("demo.BufferService"), SharedStateAnalyzer.analyze(this.addClass("BufferService",
+            "private static final int[] BUFFER = new int[8];")));
+        assertEquals(Set.of("demo.CountingService"), SharedStateAnalyzer.analyze(this.addClass("CountingService",
+            "private static final Counter COUNTER = new Counter();")));
+    }
+
+    public void testStaticWritesSingletonsAndGlobalState() {
+        PsiClass srcClass = this.addClass("SetupService", """
+            public void setUp() {
+                Counter.count = 1;
+                Counter.count++;
+                Registry.getInstance().register();
+                java.util.Locale.setDefault(java.util.Locale.ROOT);
+            }
+            """);
+
+        Set<String> resources = SharedStateAnalyzer.analyze(srcClass);
+
+        assertEquals(Set.of("demo.Counter", "demo.Registry", "java.util.Locale.default"), resources);
+        assertEquals("LOCALE", SharedStateAnalyzer.getJunitResourceName("java.util.Locale.default"));
+        assertNull(SharedStateAnalyzer.getJunitResourceName("demo.Counter"));
+    }
+
+    private PsiClass addClass(String className, String body) {
+        return ((PsiJavaFile)this.myFixture.addFileToProject("demo/" + className + ".java",
+            "package demo;\n\npublic class " + className + " {\n" + body + "}\n")).getClasses()[0];
+    }
+
+}
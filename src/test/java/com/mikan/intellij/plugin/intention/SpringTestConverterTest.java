@@ -0,0 +1,43 @@
+package com.mikan.intellij.plugin.intention;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Before/after tests of {@link SpringTestConverter}.
+ */
+public class SpringTestConverterTest extends PluginTestCase {
+
+    private final SpringTestConverter converter = new SpringTestConverter();
+
+    public void testConvertToLenientMockitoTest() {
+        this.copyToDemo("springTest/PaymentService.java");
+        this.configureInDemo("springTest/PaymentServiceTest.java");
+        PsiClass testClass = ((PsiJavaFile)this.myFixture.getFile()).getClasses()[0];
+
+        SpringTestConversion conversion = this.converter.plan(testClass);
+        assertNotNull(conversion);
+        WriteCommandAction.runWriteCommandAction(this.getProject(),
+            () -> assertTrue(this.converter.apply(conversion, testClass)));
+
+        this.checkDemoResult("springTest/PaymentServiceTest.java");
+    }
+
+    public void testNotConvertedWithoutContextAnnotation() {
+        PsiJavaFile file = (PsiJavaFile)this.myFixture.addFileToProject("demo/PlainTest.java", """
+            package demo;
+
+            class PlainTest {
+                @org.springframework.beans.factory.annotation.Autowired
+                private Repository repository;
+            }
+            """);
+        PsiClass testClass = file.getClasses()[0];
+
+        assertFalse(this.converter.isCandidate(testClass));
+        assertNull(this.converter.plan(testClass));
+    }
+
+}
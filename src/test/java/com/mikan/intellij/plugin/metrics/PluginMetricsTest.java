@@ -0,0 +1,79 @@
+package com.mikan.intellij.plugin.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Tests of the counters and percentiles of {@link PluginMetrics}.
+ */
+public class PluginMetricsTest extends BasePlatformTestCase {
+
+    private PluginMetrics metrics;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // 应用级别的服务，每个测试都从空的统计开始
+        this.metrics = PluginMetrics.getInstance();
+        this.metrics.reset();
+    }
+
+    public void testDisabledByDefault() {
+        assertFalse(this.metrics.isEnabled());
+        long start = PluginMetrics.start();
+        assertEquals(0, start);
+
+        PluginMetrics.stop(Metric.INSPECTION_CHECK_FIELD, start);
+
+        assertEquals(0, this.getSnapshot(Metric.INSPECTION_CHECK_FIELD).count());
+    }
+
+    public void testEnabledStopRecordsTheCall() {
+        Registry.get(PluginMetrics.ENABLED_KEY).setValue(true, this.getTestRootDisposable());
+        long start = PluginMetrics.start();
+        assertTrue(start != 0);
+
+        PluginMetrics.stop(Metric.SYNC_PLAN, start);
+
+        assertEquals(1, this.getSnapshot(Metric.SYNC_PLAN).count());
+        assertEquals(0, this.getSnapshot(Metric.SYNC_APPLY).count());
+    }
+
+    public void testPercentilesAreBucketUpperBounds() {
+        for (int i = 0; i < 98; i++) {
+            this.metrics.record(Metric.GENERATOR_IMPORTS, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        this.metrics.record(Metric.GENERATOR_IMPORTS, TimeUnit.MILLISECONDS.toNanos(5));
+        this.metrics.record(Metric.GENERATOR_IMPORTS, TimeUnit.MILLISECONDS.toNanos(5));
+
+        PluginMetrics.Snapshot snapshot = this.getSnapshot(Metric.GENERATOR_IMPORTS);
+        assertEquals(100, snapshot.count());
+        assertEquals(98 * 100 + 2 * 5000, snapshot.totalMicros());
+        assertEquals(5000, snapshot.maxMicros());
+        assertEquals(128, snapshot.p50Micros());
+        assertEquals(8192, snapshot.p99Micros());
+
+        this.metrics.reset();
+        assertEquals(0, this.getSnapshot(Metric.GENERATOR_IMPORTS).count());
+    }
+
+    public void testJsonListsEveryMetric() {
+        this.metrics.record(Metric.QUICK_FIX_APPLY, TimeUnit.MICROSECONDS.toNanos(3));
+
+        String json = this.metrics.toJson();
+
+        assertTrue(json, json.startsWith("{\"enabled\":false,\"metrics\":["));
+        assertTrue(json, json.contains("{\"name\":\"quickFix.applyFix\",\"count\":1,\"totalMicros\":3,"
+            + "\"maxMicros\":3,\"p50Micros\":4,\"p99Micros\":4}"));
+        for (Metric metric : Metric.values()) {
+            assertTrue(json, json.contains("\"name\":\"" + metric.getId() + "\""));
+        }
+    }
+
+    private PluginMetrics.Snapshot getSnapshot(Metric metric) {
+        return this.metrics.snapshot().get(metric.ordinal());
+    }
+
+}
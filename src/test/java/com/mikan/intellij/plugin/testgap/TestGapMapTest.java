@@ -0,0 +1,83 @@
+package com.mikan.intellij.plugin.testgap;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PsiTestUtil;
+import com.mikan.intellij.plugin.PluginTestCase;
+
+/**
+ * Tests of the production classes without a test found by {@link TestGapMap}.
+ */
+public class TestGapMapTest extends PluginTestCase {
+
+    private VirtualFile testRoot;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // 轻量项目只有一个源码目录，其中的子目录作为测试源码目录
+        this.testRoot = this.myFixture.getTempDirFixture().findOrCreateDir("testRoot");
+        PsiTestUtil.addSourceRoot(this.getModule(), this.testRoot, true);
+        TestGapSettings.getInstance(this.getProject()).loadState(new TestGapSettings.SettingsState());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            PsiTestUtil.removeSourceRoot(this.getModule(), this.testRoot);
+        } catch (Throwable e) {
+            this.addSuppressedException(e);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testClassWithoutTestInTheSamePackage() throws IOException {
+        this.addClass("demo", "OrderService");
+        this.addClass("demo", "InvoiceService");
+        this.addClass("demo", "Money", "public interface Money {\n}\n");
+        this.addTestClass("demo", "OrderServiceTest");
+        // 其他包中的同名测试类不算
+        this.addTestClass("other", "InvoiceServiceTest");
+
+        assertEquals(List.of("demo.InvoiceService"), this.getDemoGaps());
+    }
+
+    public void testAddedTestAndChangedPatternsAreApplied() throws IOException {
+        this.addClass("demo", "OrderService");
+        this.addClass("demo", "InvoiceService");
+        assertEquals(List.of("demo.InvoiceService", "demo.OrderService"), this.getDemoGaps());
+
+        this.addTestClass("demo", "InvoiceServiceIT");
+        assertEquals(List.of("demo.OrderService"), this.getDemoGaps());
+
+        TestGapSettings.getInstance(this.getProject()).setTestClassPatterns(List.of("*Spec"));
+        assertEquals(List.of("demo.InvoiceService", "demo.OrderService"), this.getDemoGaps());
+    }
+
+    private List<String> getDemoGaps() {
+        // 只看 demo 包中的类，存根中的类也在生产代码中
+        return TestGapMap.getInstance(this.getProject()).getGaps().stream()
+            .map(TestGapMap.TestGap::qualifiedName)
+            .filter(name -> name.startsWith("demo."))
+            .sorted()
+            .toList();
+    }
+
+    private void addClass(String packageName, String className) {
+        this.addClass(packageName, className, "public class " + className + " {\n}\n");
+    }
+
+    private void addClass(String packageName, String className, String declaration) {
+        this.myFixture.addFileToProject(packageName + "/" + className + ".java",
+            "package " + packageName + ";\n\n" + declaration);
+    }
+
+    private void addTestClass(String packageName, String className) throws IOException {
+        this.myFixture.getTempDirFixture().createFile("testRoot/" + packageName + "/" + className + ".java",
+            "package " + packageName + ";\n\nclass " + className + " {\n}\n");
+    }
+
+}
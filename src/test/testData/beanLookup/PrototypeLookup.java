@@ -0,0 +1,20 @@
+package demo;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PrototypeLookup {
+
+    private final ObjectProvider<Task> taskProvider;
+
+    public PrototypeLookup(ObjectProvider<Task> taskProvider) {
+        this.taskProvider = taskProvider;
+    }
+
+    public void run(int count) {
+        for (int i = 0; i < count; i++) {
+            this.taskProvider.get<caret>Object().run();
+        }
+    }
+}
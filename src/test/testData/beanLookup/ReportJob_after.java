@@ -0,0 +1,10 @@
+package demo;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+public class ReportJob {
+
+    public void run(ObjectProvider<Clock> clockProvider) {
+        new ReportService(clockProvider, null).report(1);
+    }
+}
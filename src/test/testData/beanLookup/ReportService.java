@@ -0,0 +1,20 @@
+package demo;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReportService {
+
+    private final ObjectProvider<Clock> clockProvider;
+
+    public ReportService(ObjectProvider<Clock> clockProvider) {
+        this.clockProvider = clockProvider;
+    }
+
+    public void report(int count) {
+        for (int i = 0; i < count; i++) {
+            this.clockProvider.get<caret>Object().tick();
+        }
+    }
+}
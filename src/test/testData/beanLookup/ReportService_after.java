@@ -0,0 +1,22 @@
+package demo;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReportService {
+
+    private final ObjectProvider<Clock> clockProvider;
+    private final Clock clock;
+
+    public ReportService(ObjectProvider<Clock> clockProvider, Clock clock) {
+        this.clockProvider = clockProvider;
+        this.clock = clock;
+    }
+
+    public void report(int count) {
+        for (int i = 0; i < count; i++) {
+            this.clock.tick();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package demo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OrderService {
+
+    @Autowired
+    private Clock cl<caret>ock;
+
+    @Autowired
+    Repository repository;
+
+    public void order() {
+        this.clock.tick();
+        this.repository.save();
+    }
+}
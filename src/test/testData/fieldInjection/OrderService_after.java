@@ -0,0 +1,23 @@
+package demo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OrderService {
+
+    private final Clock clock;
+
+    private final Repository repository;
+
+    public void order() {
+        this.clock.tick();
+        this.repository.save();
+    }
+
+    @Autowired
+    public OrderService(Clock clock, Repository repository) {
+        this.clock = clock;
+        this.repository = repository;
+    }
+}
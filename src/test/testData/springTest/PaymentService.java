@@ -0,0 +1,20 @@
+package demo;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class PaymentService {
+
+    private final Clock clock;
+    private final Repository repository;
+
+    public PaymentService(Clock clock, Repository repository) {
+        this.clock = clock;
+        this.repository = repository;
+    }
+
+    public void pay() {
+        this.clock.tick();
+        this.repository.save();
+    }
+}
@@ -0,0 +1,21 @@
+package demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+@SpringBootTest
+class PaymentServiceTest {
+
+    @MockBean
+    private Repository repository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void pay() {
+        this.paymentService.pay();
+    }
+}
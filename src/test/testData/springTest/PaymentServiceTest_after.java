@@ -0,0 +1,32 @@
+package demo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private Repository repository;
+
+    @Mock
+    private Clock clock;
+
+    private PaymentService paymentService;
+
+    @Test
+    void pay() {
+        this.paymentService.pay();
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.paymentService = new PaymentService(this.clock, this.repository);
+    }
+}
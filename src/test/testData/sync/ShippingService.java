@@ -0,0 +1,20 @@
+package demo;
+
+public class ShippingService {
+
+    private final Clock clock;
+    private final Notifier notifier;
+    private final Repository repository;
+
+    public ShippingService(Clock clock, Notifier notifier, Repository repository) {
+        this.clock = clock;
+        this.notifier = notifier;
+        this.repository = repository;
+    }
+
+    public void ship() {
+        this.clock.tick();
+        this.notifier.send();
+        this.repository.save();
+    }
+}
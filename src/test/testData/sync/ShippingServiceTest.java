@@ -0,0 +1,28 @@
+package demo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+class ShippingServiceTest {
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private Repository repository;
+
+    private Repository spyRepository;
+
+    private ShippingService shippingService;
+
+    @BeforeEach
+    void setUp() {
+        this.shippingService = new ShippingService(clock, this.spyRepository);
+    }
+
+    @Test
+    void should_ship_successfully() {
+        this.shippingService.ship();
+    }
+}
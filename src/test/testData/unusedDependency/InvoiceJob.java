@@ -0,0 +1,8 @@
+package demo;
+
+public class InvoiceJob {
+
+    public void run(Clock clock, Repository repository) {
+        new InvoiceService(clock, repository).invoice();
+    }
+}
@@ -0,0 +1,19 @@
+package demo;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class InvoiceService {
+
+    private final Clock clock;
+    private final Repository repository;
+
+    public InvoiceService(Clock cl<caret>ock, Repository repository) {
+        this.clock = clock;
+        this.repository = repository;
+    }
+
+    public void invoice() {
+        this.repository.save();
+    }
+}
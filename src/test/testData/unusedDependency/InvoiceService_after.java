@@ -0,0 +1,17 @@
+package demo;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class InvoiceService {
+
+    private final Repository repository;
+
+    public InvoiceService(Repository repository) {
+        this.repository = repository;
+    }
+
+    public void invoice() {
+        this.repository.save();
+    }
+}